@@ -0,0 +1,41 @@
+package com.ips.mock.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+
+/**
+ * Entry point of benchmarks.jar. Takes the usual JMH command line (e.g. a benchmark
+ * regex, {@code -f 1 -wi 3 -i 5}) and always attaches the GC profiler, which reports
+ * allocation rate and bytes allocated per operation ({@code gc.alloc.rate.norm}).
+ * <pre>
+ * cd benchmarks &amp;&amp; mvn package &amp;&amp; java -jar target/benchmarks.jar AccountLookup -p accounts=100000
+ * </pre>
+ */
+public final class Benchmarks {
+
+    private Benchmarks() {
+    }
+
+    public static void main(String[] args) throws IOException, RunnerException, CommandLineOptionException {
+        CommandLineOptions cmd = new CommandLineOptions(args);
+        if (cmd.shouldHelp()) {
+            cmd.showHelp();
+            return;
+        }
+        if (cmd.shouldList()) {
+            new Runner(cmd).list();
+            return;
+        }
+        new Runner(new OptionsBuilder()
+                .parent(cmd)
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
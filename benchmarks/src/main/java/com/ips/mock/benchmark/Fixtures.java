@@ -0,0 +1,146 @@
+package com.ips.mock.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ips.mock.dto.Account;
+import com.ips.mock.dto.Bank;
+import com.ips.mock.jfr.FlightRecorderService;
+import com.ips.mock.logging.LogSampler;
+import com.ips.mock.metrics.SettlementMetrics;
+import com.ips.mock.money.Money;
+import com.ips.mock.participant.ParticipantDirectory;
+import com.ips.mock.participant.ParticipantProperties;
+import com.ips.mock.request.Payment;
+import com.ips.mock.service.TransactionService;
+import com.ips.mock.service.id.CachedClock;
+import com.ips.mock.service.id.MessageIdService;
+import com.ips.mock.service.storage.AccountStorageService;
+import com.ips.mock.service.storage.AccountVerificationCache;
+import com.ips.mock.service.storage.BankStorageService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Wires the services by hand (no Spring context) against generated storage files in
+ * a temp directory, so benchmarks never touch the checked-in data.
+ */
+public final class Fixtures {
+
+    public static final String BANK_A = "BENCHA1X";
+    public static final String BANK_B = "BENCHB2X";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private Fixtures() {
+    }
+
+    public static String accountNumber(int i) {
+        return String.format("AC%010d", i);
+    }
+
+    /**
+     * Bank code of account {@code i}: accounts alternate between the two banks.
+     */
+    public static String bankCode(int i) {
+        return (i & 1) == 0 ? BANK_A : BANK_B;
+    }
+
+    public static Path writeAccounts(Path dir, int count) {
+        List<Account> accounts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Account a = new Account();
+            a.setAccountNumber(accountNumber(i));
+            a.setBankCode(bankCode(i));
+            a.setAccountHolderName("Holder " + i);
+            a.setHolderIdentificationType("NIC");
+            a.setHolderIdentificationNumber("N" + i);
+            a.setBalance(new BigDecimal("1000000.00"));
+            a.setStatus("ACTIVE");
+            a.setCurrency("USD");
+            accounts.add(a);
+        }
+        return write(dir.resolve("Accounts.json"), accounts);
+    }
+
+    public static Path writeBanks(Path dir) {
+        List<Bank> banks = new ArrayList<>();
+        for (String code : new String[]{BANK_A, BANK_B}) {
+            Bank b = new Bank();
+            b.setBankCode(code);
+            b.setBankName("Bench " + code);
+            b.setLiquidityBalance(new BigDecimal("1000000000.00"));
+            banks.add(b);
+        }
+        return write(dir.resolve("Banks.json"), banks);
+    }
+
+    public static Path tempDir() {
+        try {
+            return Files.createTempDirectory("ips-bench");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static AccountStorageService accountStorage(Path accountsFile) {
+        return new AccountStorageService(new SimpleMeterRegistry(), accountsFile.toString(), 100_000, 0.01);
+    }
+
+    public static TransactionService transactionService(Path dir, int accounts) {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        FlightRecorderService jfr = new FlightRecorderService(false, dir.toString(),
+                Duration.ZERO, 0, "default", 0, Duration.ZERO);
+        AccountStorageService accountStorage = new AccountStorageService(registry, writeAccounts(dir, accounts).toString(),
+                100_000, 0.01);
+        BankStorageService bankStorage = new BankStorageService(registry, writeBanks(dir).toString());
+        return new TransactionService(
+                accountStorage,
+                new AccountVerificationCache(accountStorage, registry, Duration.ofSeconds(30), 10_000),
+                bankStorage,
+                new ParticipantDirectory(bankStorage, new ParticipantProperties()),
+                new MessageIdService("BN"),
+                new CachedClock(),
+                new LogSampler(),
+                new SettlementMetrics(registry, jfr));
+    }
+
+    public static Payment payment(MessageIdService ids) {
+        Payment p = new Payment();
+        p.setId(ids.nextPaymentId());
+        p.setReference(ids.nextReference("20260101"));
+        p.setAmount(Money.of(new BigDecimal("1250.50"), "EUR"));
+        p.setDebtorName("John Doe");
+        p.setDebtorAccount("LK12345678901234");
+        p.setDebtorAddress("1 Galle Road, Colombo");
+        p.setCreditorName("Max Mustermann");
+        p.setCreditorAccount("DE89370400440532013000");
+        p.setCreditorAddress("Hauptstrasse 5, Frankfurt");
+        p.setRemittanceInfo("Invoice 2026-001");
+        return p;
+    }
+
+    public static void deleteRecursively(Path dir) {
+        try (var paths = Files.walk(dir)) {
+            paths.sorted((a, b) -> b.getNameCount() - a.getNameCount()).forEach(p -> p.toFile().delete());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Path write(Path file, Object value) {
+        try {
+            MAPPER.writeValue(file.toFile(), value);
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.ips.mock.service;
+
+import com.ips.mock.benchmark.Fixtures;
+import com.ips.mock.request.Payment;
+import com.ips.mock.service.id.CachedClock;
+import com.ips.mock.service.id.MessageIdService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Build and parse of pacs.008 and MT103 for a typical payment.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageCodecBenchmark {
+
+    private Iso20022PaymentService iso;
+    private SwiftMTService swift;
+    private Payment payment;
+    private String pacs008;
+    private String mt103;
+
+    @Setup
+    public void setUp() {
+        MessageIdService ids = new MessageIdService("BN");
+        iso = new Iso20022PaymentService(ids, new CachedClock());
+        swift = new SwiftMTService(ids);
+        payment = Fixtures.payment(ids);
+        pacs008 = iso.buildPacs008(Fixtures.payment(ids));
+        mt103 = swift.buildMt103(Fixtures.payment(ids));
+    }
+
+    @Benchmark
+    public String buildPacs008() {
+        return iso.buildPacs008(payment);
+    }
+
+    @Benchmark
+    public Payment parsePacs008() {
+        return iso.parsePacs008(pacs008);
+    }
+
+    @Benchmark
+    public String buildMt103() {
+        return swift.buildMt103(payment);
+    }
+
+    @Benchmark
+    public Payment parseMt103() {
+        return swift.parseMt103(mt103);
+    }
+}
@@ -0,0 +1,94 @@
+package com.ips.mock.service;
+
+import com.ips.mock.benchmark.Fixtures;
+import com.ips.mock.money.Money;
+import com.ips.mock.request.CreditTransferRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * pacs.002 / camt.004 rendering and the full credit transfer path, including the
+ * storage file rewrites it currently does per posting.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionServiceBenchmark {
+
+    @Param({"1000"})
+    public int accounts;
+
+    private Path dir;
+    private TransactionService service;
+    private Money amount;
+    private BigDecimal balance;
+    private CreditTransferRequest aToB;
+    private CreditTransferRequest bToA;
+    private boolean forward;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dir = Fixtures.tempDir();
+        service = Fixtures.transactionService(dir, accounts);
+        amount = Money.of(new BigDecimal("1250.50"), "USD");
+        balance = new BigDecimal("98765.43");
+        // Send money back and forth between two accounts so balances stay put
+        aToB = request(0, 1);
+        bToA = request(1, 0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Fixtures.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public String buildPacs002() {
+        return service.buildPacs002("BM-1", "CT-1", "E2E-1",
+                Fixtures.BANK_A, Fixtures.BANK_B, "ACSC", null,
+                "Transaction successfully settled through IPS.",
+                amount, "USD", Fixtures.accountNumber(0), Fixtures.accountNumber(1));
+    }
+
+    @Benchmark
+    public String buildCamt004WithBalance() {
+        return service.buildCamt004WithBalance("BI-1", Fixtures.BANK_A, Fixtures.BANK_B,
+                Fixtures.accountNumber(1), balance, "USD");
+    }
+
+    @Benchmark
+    public ResponseEntity<String> processCreditTransfer() {
+        forward = !forward;
+        return service.processCreditTransfer(forward ? aToB : bToA);
+    }
+
+    private static CreditTransferRequest request(int from, int to) {
+        CreditTransferRequest r = new CreditTransferRequest();
+        r.setInitiatorBic(Fixtures.bankCode(from));
+        r.setInitiatorAccountNumber(Fixtures.accountNumber(from));
+        r.setRecipientBic(Fixtures.bankCode(to));
+        r.setRecipientAccountNumber(Fixtures.accountNumber(to));
+        r.setAmount(new BigDecimal("10.00"));
+        r.setCurrency("USD");
+        return r;
+    }
+}
@@ -0,0 +1,73 @@
+package com.ips.mock.service.storage;
+
+import com.ips.mock.benchmark.Fixtures;
+import com.ips.mock.dto.Account;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * getAccountByAccountNumberAndBankCode for random existing accounts and for a miss,
+ * at increasing store sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class AccountLookupBenchmark {
+
+    private static final int KEYS = 1024;
+
+    @Param({"1000", "100000", "1000000"})
+    public int accounts;
+
+    private Path dir;
+    private AccountStorageService storage;
+    private final String[] accountNumbers = new String[KEYS];
+    private final String[] bankCodes = new String[KEYS];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dir = Fixtures.tempDir();
+        storage = Fixtures.accountStorage(Fixtures.writeAccounts(dir, accounts));
+        SplittableRandom random = new SplittableRandom(42);
+        for (int k = 0; k < KEYS; k++) {
+            int i = random.nextInt(accounts);
+            accountNumbers[k] = Fixtures.accountNumber(i);
+            bankCodes[k] = Fixtures.bankCode(i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Fixtures.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public Account hit() {
+        int k = next++ & (KEYS - 1);
+        return storage.getAccountByAccountNumberAndBankCode(accountNumbers[k], bankCodes[k]);
+    }
+
+    @Benchmark
+    public Account miss() {
+        return storage.getAccountByAccountNumberAndBankCode("NO-SUCH-ACCOUNT", Fixtures.BANK_A);
+    }
+}
@@ -0,0 +1,21 @@
+package com.ips.mock;
+
+import com.ips.mock.loadgen.LoadGenerator;
+import com.ips.mock.loadgen.LoadGeneratorOptions;
+
+/**
+ * Command line load generator, run against a started mock instead of starting one:
+ * <pre>
+ * java -cp target/classes:&lt;classpath&gt; com.ips.mock.LoadGeneratorApplication --rate=500 --duration=60s
+ * java -Dloader.main=com.ips.mock.LoadGeneratorApplication -cp target/mock-0.0.1-SNAPSHOT.jar \
+ *      org.springframework.boot.loader.launch.PropertiesLauncher --rate=500
+ * </pre>
+ * See {@link LoadGeneratorOptions} for all options.
+ */
+public class LoadGeneratorApplication {
+
+	public static void main(String[] args) throws Exception {
+		new LoadGenerator(LoadGeneratorOptions.parse(args), System.out).run();
+	}
+
+}
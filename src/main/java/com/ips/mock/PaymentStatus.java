@@ -1,8 +1,41 @@
 package com.ips.mock;
 
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Lifecycle of a simulated payment.
+ * <pre>
+ * Bank A (originator): NEW -&gt; SENT_MT103 -&gt; SETTLED   (instruction sent, confirmation received)
+ * Bank B (receiver):   NEW -&gt; ACCEPTED -&gt; CREDITED    (instruction accepted, beneficiary credited)
+ * </pre>
+ * SENT_MT103 also covers a sent pacs.008. Any non-final state may go to REJECTED;
+ * SETTLED and REJECTED are final.
+ */
 public enum PaymentStatus {
         NEW,
         SENT_MT103,
+        ACCEPTED,
         CREDITED,
-        REJECTED
+        SETTLED,
+        REJECTED;
+
+        private Set<PaymentStatus> next;
+
+        static {
+                NEW.next = EnumSet.of(SENT_MT103, ACCEPTED, REJECTED);
+                SENT_MT103.next = EnumSet.of(ACCEPTED, CREDITED, SETTLED, REJECTED);
+                ACCEPTED.next = EnumSet.of(CREDITED, REJECTED);
+                CREDITED.next = EnumSet.of(SETTLED, REJECTED);
+                SETTLED.next = EnumSet.noneOf(PaymentStatus.class);
+                REJECTED.next = EnumSet.noneOf(PaymentStatus.class);
+        }
+
+        public boolean canMoveTo(PaymentStatus status) {
+                return next.contains(status);
+        }
+
+        public boolean isFinal() {
+                return next.isEmpty();
+        }
 }
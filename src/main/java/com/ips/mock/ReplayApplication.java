@@ -0,0 +1,22 @@
+package com.ips.mock;
+
+import com.ips.mock.capture.ReplayOptions;
+import com.ips.mock.capture.TrafficReplayer;
+
+/**
+ * Replays a capture log (recorded with {@code ips.capture.enabled=true}) against a
+ * running mock and diffs the responses; exits with status 1 on any mismatch.
+ * <pre>
+ * java -cp target/classes:&lt;classpath&gt; com.ips.mock.ReplayApplication --file=capture/ips-....cap --speed=10
+ * </pre>
+ * See {@link ReplayOptions} for all options.
+ */
+public class ReplayApplication {
+
+	public static void main(String[] args) throws Exception {
+		TrafficReplayer replayer = new TrafficReplayer(ReplayOptions.parse(args), System.out);
+		replayer.run();
+		System.exit(replayer.hasMismatches() ? 1 : 0);
+	}
+
+}
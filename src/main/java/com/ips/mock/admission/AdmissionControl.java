@@ -0,0 +1,210 @@
+package com.ips.mock.admission;
+
+import com.ips.mock.participant.Bic;
+import com.ips.mock.participant.Participant;
+import com.ips.mock.participant.ParticipantDirectory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Decides, before any storage work, whether a participant's request is handled or
+ * turned away with 429:
+ * <ol>
+ *   <li>the global shedder: more than ips.admission.max-queue-depth requests are
+ *       already being worked on,</li>
+ *   <li>the requesting BIC has max-concurrent requests not yet answered
+ *       (an injected delay still counts),</li>
+ *   <li>the requesting BIC's token bucket is empty.</li>
+ * </ol>
+ * A request only counts towards the queue depth while its handler runs, so slow
+ * participants waiting out a delay never shed anyone else's traffic. Directory
+ * participants keep their quota in an array slot by id. BICs the directory does not
+ * know share one quota (participant-defaults), unless they have their own
+ * ips.admission.participants entry, so made-up BICs cannot grow any state.
+ */
+@Service
+@Slf4j
+public class AdmissionControl {
+
+    public enum Rejection {
+        OVERLOAD("IPS overloaded, request shed."),
+        CONCURRENCY("Too many concurrent requests from participant."),
+        RATE("Participant rate limit exceeded.");
+
+        final String tag = name().toLowerCase();
+        private final String description;
+
+        Rejection(String description) {
+            this.description = description;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    private static final Quota UNLIMITED = new Quota(new AdmissionProperties.Limits());
+
+    private final AdmissionProperties properties;
+    private final ParticipantDirectory directory;
+    private final boolean enabled;
+    private final Map<String, AdmissionProperties.Limits> limitsByBic = new HashMap<>();
+    private final Quota[] quotas;
+    private final Map<String, Quota> configuredOthers = new HashMap<>();
+    private final Quota unknown;
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final Map<Rejection, Counter> rejected = new EnumMap<>(Rejection.class);
+
+    public AdmissionControl(AdmissionProperties properties, ParticipantDirectory directory, MeterRegistry registry) {
+        this.properties = properties;
+        this.directory = directory;
+        this.enabled = properties.isEnabled();
+        properties.getParticipants().forEach((bic, limits) -> limitsByBic.put(Bic.canonical(bic), limits));
+        this.quotas = new Quota[directory.size()];
+        for (int id = 0; id < quotas.length; id++) {
+            quotas[id] = newQuota(directory.byId(id).getBic());
+        }
+        limitsByBic.keySet().stream()
+                .filter(bic -> directory.resolve(bic) == null)
+                .forEach(bic -> configuredOthers.put(bic, newQuota(bic)));
+        this.unknown = newQuota(null);
+        for (Rejection r : Rejection.values()) {
+            rejected.put(r, Counter.builder("ips.admission.rejected")
+                    .description("Requests turned away before being handled")
+                    .tag("reason", r.tag)
+                    .register(registry));
+        }
+        Gauge.builder("ips.admission.queue-depth", queueDepth, AtomicInteger::get)
+                .description("Requests being handled, as seen by the global shedder")
+                .register(registry);
+        if (enabled) {
+            log.info("[ADMISSION] max queue depth {}, defaults {}, {} participant override(s)",
+                    properties.getMaxQueueDepth(), properties.getParticipantDefaults(),
+                    properties.getParticipants().size());
+        }
+    }
+
+    /**
+     * Run {@code call} for a request from {@code bic} if it is admitted. A turned
+     * away request gets 429 with Retry-After; {@code rejection} may supply the body
+     * (e.g. a pacs.002 RJCT) for the reason's description.
+     */
+    public <T> CompletableFuture<ResponseEntity<T>> admit(String bic,
+                                                          Supplier<CompletableFuture<ResponseEntity<T>>> call,
+                                                          Function<String, ResponseEntity<T>> rejection) {
+        if (!enabled) {
+            return call.get();
+        }
+
+        Quota p = quota(bic);
+        long now = System.nanoTime();
+        Rejection reason = null;
+        int maxDepth = properties.getMaxQueueDepth();
+        if (maxDepth > 0 && queueDepth.get() >= maxDepth) {
+            reason = Rejection.OVERLOAD;
+        } else if (p.maxConcurrent > 0 && p.concurrent.incrementAndGet() > p.maxConcurrent) {
+            p.concurrent.decrementAndGet();
+            reason = Rejection.CONCURRENCY;
+        } else if (p.limiter != null && !p.limiter.tryAcquire(now)) {
+            release(p);
+            reason = Rejection.RATE;
+        }
+        if (reason != null) {
+            rejected.get(reason).increment();
+            return CompletableFuture.completedFuture(tooManyRequests(p, now, rejection.apply(reason.description)));
+        }
+
+        CompletableFuture<ResponseEntity<T>> response;
+        queueDepth.incrementAndGet();
+        try {
+            response = call.get();
+        } catch (RuntimeException e) {
+            release(p);
+            throw e;
+        } finally {
+            queueDepth.decrementAndGet();
+        }
+        if (p.maxConcurrent > 0) {
+            response.whenComplete((r, e) -> release(p));
+        }
+        return response;
+    }
+
+    /**
+     * {@link #admit(String, Supplier, Function)} with an empty 429.
+     */
+    public <T> CompletableFuture<ResponseEntity<T>> admit(String bic,
+                                                          Supplier<CompletableFuture<ResponseEntity<T>>> call) {
+        return admit(bic, call, reason -> null);
+    }
+
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    // ------- Helpers -------
+
+    private static final class Quota {
+        final RateLimiter limiter;
+        final int maxConcurrent;
+        final AtomicInteger concurrent = new AtomicInteger();
+
+        Quota(AdmissionProperties.Limits limits) {
+            this.limiter = limits.getRate() > 0 ? new RateLimiter(limits.getRate(), limits.getBurst()) : null;
+            this.maxConcurrent = limits.getMaxConcurrent();
+        }
+    }
+
+    private Quota quota(String bic) {
+        Participant participant = directory.resolve(bic);
+        if (participant != null) {
+            return quotas[participant.getId()];
+        }
+        if (!configuredOthers.isEmpty()) {
+            Quota configured = configuredOthers.get(Bic.canonical(bic));
+            if (configured != null) {
+                return configured;
+            }
+        }
+        return unknown;
+    }
+
+    private Quota newQuota(String bic) {
+        AdmissionProperties.Limits limits = bic != null
+                ? limitsByBic.getOrDefault(bic, properties.getParticipantDefaults())
+                : properties.getParticipantDefaults();
+        return limits.getRate() > 0 || limits.getMaxConcurrent() > 0 ? new Quota(limits) : UNLIMITED;
+    }
+
+    private static void release(Quota p) {
+        if (p.maxConcurrent > 0) {
+            p.concurrent.decrementAndGet();
+        }
+    }
+
+    private static <T> ResponseEntity<T> tooManyRequests(Quota p, long now, ResponseEntity<T> body) {
+        long waitNanos = p.limiter != null ? p.limiter.waitNanos(now) : 0;
+        long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        HttpHeaders headers = new HttpHeaders();
+        if (body != null) {
+            headers.addAll(body.getHeaders());
+        }
+        headers.set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+        return new ResponseEntity<>(body != null ? body.getBody() : null, headers, HttpStatus.TOO_MANY_REQUESTS);
+    }
+}
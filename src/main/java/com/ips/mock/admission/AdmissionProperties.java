@@ -0,0 +1,43 @@
+package com.ips.mock.admission;
+
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Limits for {@link AdmissionControl}, e.g.
+ * {@code ips.admission.participant-defaults.rate=500} for every requesting BIC and
+ * {@code ips.admission.participants.PMFTSL1K.rate=50} for one of them. A limit of 0
+ * is no limit.
+ */
+@Component
+@ConfigurationProperties(prefix = "ips.admission")
+@Getter
+@Setter
+public class AdmissionProperties {
+
+    private boolean enabled;
+
+    /** Requests being worked on across all participants before new ones are shed. */
+    private int maxQueueDepth;
+
+    private Limits participantDefaults = new Limits();
+
+    /** Per requesting participant (BIC8; a BIC11 counts as its BIC8), replacing the defaults. */
+    private Map<String, Limits> participants = new HashMap<>();
+
+    @Data
+    public static class Limits {
+        /** Sustained requests per second. */
+        private double rate;
+        /** Requests allowed at once above the rate, at least 1. */
+        private int burst = 1;
+        /** Requests of the participant not yet answered. */
+        private int maxConcurrent;
+    }
+}
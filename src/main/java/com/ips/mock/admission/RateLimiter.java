@@ -0,0 +1,41 @@
+package com.ips.mock.admission;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket of {@code rate} tokens per second holding at most {@code burst},
+ * kept as a single theoretical arrival time (the GCRA form), so taking a token is
+ * one CAS and there is no refill thread.
+ */
+final class RateLimiter {
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final AtomicLong arrival = new AtomicLong(Long.MIN_VALUE);
+
+    RateLimiter(double rate, int burst) {
+        this.intervalNanos = (long) (1_000_000_000L / rate);
+        this.toleranceNanos = intervalNanos * (Math.max(burst, 1) - 1);
+    }
+
+    boolean tryAcquire(long now) {
+        while (true) {
+            long tat = arrival.get();
+            long start = tat == Long.MIN_VALUE ? now : Math.max(tat, now);
+            if (start - now > toleranceNanos) {
+                return false;
+            }
+            if (arrival.compareAndSet(tat, start + intervalNanos)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Nanoseconds until a token is available again, 0 if one is now.
+     */
+    long waitNanos(long now) {
+        long tat = arrival.get();
+        return tat == Long.MIN_VALUE ? 0 : Math.max(0, tat - toleranceNanos - now);
+    }
+}
@@ -0,0 +1,49 @@
+package com.ips.mock.auth;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ServletRequestPathUtils;
+
+import java.io.IOException;
+
+/**
+ * Answers 401 to requests under ips.auth.path-prefix without a valid participant
+ * token, before the body is read; otherwise passes the authenticated BIC on as
+ * {@link ParticipantAuthenticator#PARTICIPANT_ATTRIBUTE}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "ips.auth", name = "enabled", havingValue = "true")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ParticipantAuthFilter extends OncePerRequestFilter {
+
+    private final ParticipantAuthenticator authenticator;
+
+    public ParticipantAuthFilter(ParticipantAuthenticator authenticator) {
+        this.authenticator = authenticator;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !authenticator.requiresToken(ServletRequestPathUtils.parseAndCache(request).pathWithinApplication());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String bic = authenticator.authenticate(request.getHeader(HttpHeaders.AUTHORIZATION));
+        if (bic == null) {
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+        request.setAttribute(ParticipantAuthenticator.PARTICIPANT_ATTRIBUTE, bic);
+        chain.doFilter(request, response);
+    }
+}
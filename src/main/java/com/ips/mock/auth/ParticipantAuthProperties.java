@@ -0,0 +1,45 @@
+package com.ips.mock.auth;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Participant signing keys for {@link ParticipantAuthenticator}, e.g.
+ * {@code ips.auth.keys.CHBKSL3J=<base64 HMAC secret>} or
+ * {@code ips.auth.public-keys.PMFTSL1K=/etc/ips/pmft.pem} (X.509 PEM, RSA or EC).
+ * Keys are per participant, i.e. BIC8; a BIC11 key counts for its BIC8.
+ */
+@Component
+@ConfigurationProperties(prefix = "ips.auth")
+@Getter
+@Setter
+public class ParticipantAuthProperties {
+
+    private boolean enabled;
+
+    /**
+     * Requests under any of these paths need a bearer token: the ISO endpoints and
+     * everything else that answers for a participant.
+     */
+    private List<String> pathPrefix = new ArrayList<>(List.of("/api/iso", "/api/payments/events", "/api/account-verification"));
+
+    private Map<String, String> keys = new HashMap<>();
+
+    private Map<String, String> publicKeys = new HashMap<>();
+
+    /** Verified tokens remembered until they expire, at most this many. */
+    private int cacheSize = 10_000;
+
+    /** Longest a verified token is remembered, even if its exp is later. */
+    private Duration cacheTtl = Duration.ofMinutes(5);
+
+    private Duration clockSkew = Duration.ofSeconds(30);
+}
@@ -0,0 +1,249 @@
+package com.ips.mock.auth;
+
+import com.ips.mock.participant.Bic;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayDeque;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Authenticates participants by a JWT bearer token whose subject is the BIC and
+ * whose signature is that BIC's key from {@link ParticipantAuthProperties}.
+ * <p>
+ * Keys are loaded once at startup. Tokens must carry an exp. A verified token is
+ * remembered by its SHA-256 until it expires (at most ips.auth.cache-ttl), so a
+ * participant re-using its token costs one hash and one map lookup per request
+ * instead of a signature check. The cache holds at most ips.auth.cache-size tokens;
+ * beyond that new tokens are verified every time until older ones expire.
+ */
+@Service
+@Slf4j
+public class ParticipantAuthenticator {
+
+    /** Request (or exchange) attribute holding the authenticated BIC. */
+    public static final String PARTICIPANT_ATTRIBUTE = "com.ips.mock.auth.participant";
+
+    private static final String BEARER = "Bearer ";
+    private static final long SWEEP_INTERVAL_MILLIS = 1_000;
+
+    private final boolean enabled;
+    private final List<String> pathPrefixes;
+    private final int cacheSize;
+    private final long cacheTtlMillis;
+    private final Map<String, Key> signingKeys = new HashMap<>();
+    private final JwtParser parser;
+    private final Map<ByteBuffer, Verified> verified = new ConcurrentHashMap<>();
+    private final ThreadLocal<MessageDigest> sha256 = ThreadLocal.withInitial(ParticipantAuthenticator::newDigest);
+    private volatile long lastSweepMillis;
+
+    private final Counter cached;
+    private final Counter checked;
+    private final Counter rejected;
+
+    public ParticipantAuthenticator(ParticipantAuthProperties properties, MeterRegistry registry) {
+        this.enabled = properties.isEnabled();
+        this.pathPrefixes = properties.getPathPrefix().stream().map(p -> normalize(p.trim())).toList();
+        this.cacheSize = properties.getCacheSize();
+        this.cacheTtlMillis = properties.getCacheTtl().toMillis();
+
+        properties.getKeys().forEach((bic, secret) ->
+                signingKeys.put(Bic.canonical(bic), Keys.hmacShaKeyFor(Base64.getDecoder().decode(secret.trim()))));
+        properties.getPublicKeys().forEach((bic, pem) ->
+                signingKeys.put(Bic.canonical(bic), readPublicKey(Path.of(pem.trim()))));
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        String bic = Bic.canonical(claims.getSubject());
+                        Key key = bic != null ? signingKeys.get(bic) : null;
+                        if (key == null) {
+                            throw new JwtException("No signing key for participant " + claims.getSubject());
+                        }
+                        return key;
+                    }
+                })
+                .setAllowedClockSkewSeconds(properties.getClockSkew().toSeconds())
+                .build();
+
+        this.cached = outcome(registry, "cached");
+        this.checked = outcome(registry, "verified");
+        this.rejected = outcome(registry, "rejected");
+        Gauge.builder("ips.auth.cache.size", verified, Map::size)
+                .description("Verified tokens remembered")
+                .register(registry);
+        if (enabled) {
+            log.info("[AUTH] Bearer tokens required under {} for {} participant key(s)", pathPrefixes, signingKeys.size());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Whether a request for {@code path} (within the application) needs a token. The
+     * path is compared the way handler mappings see it: decoded, without path
+     * parameters and with dot segments resolved, so neither /api;x/iso nor
+     * /api/%69so gets past a prefix. A prefix covers whole segments only.
+     */
+    public boolean requiresToken(PathContainer path) {
+        if (!enabled) {
+            return false;
+        }
+        StringBuilder decoded = new StringBuilder(path.value().length());
+        for (PathContainer.Element element : path.elements()) {
+            decoded.append(element instanceof PathContainer.PathSegment segment ? segment.valueToMatch() : "/");
+        }
+        String normalized = normalize(decoded.toString());
+        for (String prefix : pathPrefixes) {
+            if (normalized.startsWith(prefix)
+                    && (normalized.length() == prefix.length() || prefix.equals("/") || normalized.charAt(prefix.length()) == '/')) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The participant BIC of an {@code Authorization: Bearer} header value, or null
+     * when it is missing, badly signed, without or past its exp, or for an unknown
+     * participant.
+     */
+    public String authenticate(String authorization) {
+        if (authorization == null || !authorization.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            rejected.increment();
+            return null;
+        }
+        String token = authorization.substring(BEARER.length()).trim();
+        ByteBuffer hash = ByteBuffer.wrap(sha256.get().digest(token.getBytes(StandardCharsets.US_ASCII)));
+        long now = System.currentTimeMillis();
+
+        Verified v = verified.get(hash);
+        if (v != null) {
+            if (v.expiresAtMillis > now) {
+                cached.increment();
+                return v.bic;
+            }
+            verified.remove(hash, v);
+        }
+
+        Claims claims;
+        try {
+            claims = parser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            rejected.increment();
+            log.debug("[AUTH] Token rejected: {}", e.getMessage());
+            return null;
+        }
+        Date exp = claims.getExpiration();
+        if (exp == null) {
+            rejected.increment();
+            log.debug("[AUTH] Token rejected: no exp");
+            return null;
+        }
+        checked.increment();
+        String bic = Bic.canonical(claims.getSubject());
+        remember(hash, new Verified(bic, Math.min(now + cacheTtlMillis, exp.getTime())), now);
+        return bic;
+    }
+
+    // ------- Helpers -------
+
+    private static final class Verified {
+        final String bic;
+        final long expiresAtMillis;
+
+        Verified(String bic, long expiresAtMillis) {
+            this.bic = bic;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+
+    // Absolute, single slashes, no "." or ".." segments, no trailing slash
+    private static String normalize(String path) {
+        Deque<String> segments = new ArrayDeque<>();
+        for (String segment : path.split("/")) {
+            if (segment.equals("..")) {
+                segments.pollLast();
+            } else if (!segment.isEmpty() && !segment.equals(".")) {
+                segments.addLast(segment);
+            }
+        }
+        return "/" + String.join("/", segments);
+    }
+
+    private void remember(ByteBuffer hash, Verified v, long now) {
+        if (verified.size() >= cacheSize && now - lastSweepMillis > SWEEP_INTERVAL_MILLIS) {
+            lastSweepMillis = now;
+            verified.values().removeIf(e -> e.expiresAtMillis <= now);
+        }
+        if (verified.size() < cacheSize) {
+            verified.put(hash, v);
+        }
+    }
+
+    private static Counter outcome(MeterRegistry registry, String outcome) {
+        return Counter.builder("ips.auth.requests")
+                .description("Bearer tokens checked, by outcome")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private static Key readPublicKey(Path pem) {
+        byte[] der;
+        try {
+            String text = Files.readString(pem)
+                    .replaceAll("-----(BEGIN|END) PUBLIC KEY-----", "")
+                    .replaceAll("\\s", "");
+            der = Base64.getDecoder().decode(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read participant key " + pem, e);
+        }
+        for (String algorithm : new String[]{"RSA", "EC"}) {
+            try {
+                return KeyFactory.getInstance(algorithm).generatePublic(new X509EncodedKeySpec(der));
+            } catch (GeneralSecurityException e) {
+                // try the next one
+            }
+        }
+        throw new IllegalArgumentException("Not an RSA or EC public key: " + pem);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.ips.mock.auth;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link ParticipantAuthFilter} for the reactive stack; the BIC is passed on as an
+ * exchange attribute.
+ */
+@Component
+@ConditionalOnProperty(prefix = "ips.auth", name = "enabled", havingValue = "true")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveParticipantAuthFilter implements WebFilter {
+
+    private final ParticipantAuthenticator authenticator;
+
+    public ReactiveParticipantAuthFilter(ParticipantAuthenticator authenticator) {
+        this.authenticator = authenticator;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!authenticator.requiresToken(exchange.getRequest().getPath().pathWithinApplication())) {
+            return chain.filter(exchange);
+        }
+        String bic = authenticator.authenticate(exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION));
+        if (bic == null) {
+            exchange.getResponse().getHeaders().set(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+            exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+            return exchange.getResponse().setComplete();
+        }
+        exchange.getAttributes().put(ParticipantAuthenticator.PARTICIPANT_ATTRIBUTE, bic);
+        return chain.filter(exchange);
+    }
+}
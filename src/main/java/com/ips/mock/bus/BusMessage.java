@@ -0,0 +1,40 @@
+package com.ips.mock.bus;
+
+/**
+ * One leg of a payment travelling between the simulated banks: the raw message,
+ * which flow it belongs to, and enough about the originating payment to finish or
+ * reject it.
+ */
+final class BusMessage {
+
+    enum Flow {
+        /** MT103 to Bank B, MT910 back to Bank A. */
+        MT,
+        /** pacs.008 to Bank B, camt.054 back to Bank A. */
+        ISO;
+
+        final String tag = name().toLowerCase();
+    }
+
+    final Flow flow;
+    final String paymentId;
+    final String reference;
+    final String payload;
+    /** When the originating payment was sent (System.nanoTime). */
+    final long startNanos;
+
+    BusMessage(Flow flow, String paymentId, String reference, String payload, long startNanos) {
+        this.flow = flow;
+        this.paymentId = paymentId;
+        this.reference = reference;
+        this.payload = payload;
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * The next leg of the same payment, carrying the given message.
+     */
+    BusMessage reply(String payload) {
+        return new BusMessage(flow, paymentId, reference, payload, startNanos);
+    }
+}
@@ -0,0 +1,216 @@
+package com.ips.mock.bus;
+
+import com.ips.mock.PaymentStatus;
+import com.ips.mock.controller.SwiftIsoSimulationController;
+import com.ips.mock.controller.SwiftSimulationController;
+import com.ips.mock.request.Payment;
+import com.ips.mock.service.payment.PaymentEventStream;
+import com.ips.mock.service.payment.PaymentStateMachine;
+import com.ips.mock.service.payment.PaymentStatusEvent;
+import com.ips.mock.service.payment.PaymentStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Delivers the legs of a simulated payment between the banks in-process, so a
+ * client only creates the payment at Bank A and the rest happens on its own:
+ * <pre>
+ * SENT_MT103 at Bank A -&gt; [bank-b] MT103 / pacs.008 -&gt; [bank-a] MT910 / camt.054 -&gt; SETTLED
+ * </pre>
+ * Sent payments are picked up from the {@link PaymentEventStream}. Each bank has a
+ * bounded inbox (ips.bus.queue-size) drained by one thread, which hands the message
+ * to the same controller method the HTTP endpoint uses and moves on without waiting
+ * out injected latency. A full inbox drops the message; a leg Bank B refuses rejects
+ * the originating payment.
+ * <p>
+ * ips.bus.lifecycle times each payment from being sent at Bank A to being settled there.
+ */
+@Component
+@ConditionalOnProperty(prefix = "ips.bus", name = "enabled", havingValue = "true")
+@Slf4j
+public class PaymentBus {
+
+    enum Leg {
+        BANK_B,
+        BANK_A;
+
+        final String tag = name().toLowerCase().replace('_', '-');
+    }
+
+    private final PaymentStore paymentStore;
+    private final PaymentStateMachine stateMachine;
+    private final SwiftSimulationController swiftController;
+    private final SwiftIsoSimulationController isoController;
+
+    private final Map<Leg, BlockingQueue<BusMessage>> inboxes = new EnumMap<>(Leg.class);
+    private final Map<Leg, Thread> workers = new EnumMap<>(Leg.class);
+    private final Map<Leg, Counter> delivered = new EnumMap<>(Leg.class);
+    private final Map<Leg, Counter> dropped = new EnumMap<>(Leg.class);
+    private final Map<Leg, Counter> failed = new EnumMap<>(Leg.class);
+    private final Map<BusMessage.Flow, Timer> lifecycle = new EnumMap<>(BusMessage.Flow.class);
+    private final PaymentEventStream.Subscription subscription;
+    private volatile boolean running = true;
+
+    public PaymentBus(PaymentEventStream events,
+                      PaymentStore paymentStore,
+                      PaymentStateMachine stateMachine,
+                      SwiftSimulationController swiftController,
+                      SwiftIsoSimulationController isoController,
+                      MeterRegistry registry,
+                      @Value("${ips.bus.queue-size:10000}") int queueSize) {
+        this.paymentStore = paymentStore;
+        this.stateMachine = stateMachine;
+        this.swiftController = swiftController;
+        this.isoController = isoController;
+
+        for (Leg leg : Leg.values()) {
+            BlockingQueue<BusMessage> inbox = new ArrayBlockingQueue<>(queueSize);
+            inboxes.put(leg, inbox);
+            Gauge.builder("ips.bus.queued", inbox, BlockingQueue::size)
+                    .description("Messages waiting in a simulated bank's inbox")
+                    .tag("leg", leg.tag)
+                    .register(registry);
+            delivered.put(leg, counter(registry, "ips.bus.delivered", leg));
+            dropped.put(leg, counter(registry, "ips.bus.dropped", leg));
+            failed.put(leg, counter(registry, "ips.bus.failed", leg));
+        }
+        for (BusMessage.Flow flow : BusMessage.Flow.values()) {
+            lifecycle.put(flow, Timer.builder("ips.bus.lifecycle")
+                    .description("Payment lifecycle over the bus, from sent at Bank A to settled")
+                    .tag("flow", flow.tag)
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+
+        startWorker(Leg.BANK_B, this::deliverToBankB);
+        startWorker(Leg.BANK_A, this::deliverToBankA);
+        this.subscription = events.subscribe("bus", this::onStatus);
+        log.info("[BUS] Routing payment legs in-process (queue size {})", queueSize);
+    }
+
+    @PreDestroy
+    public void close() {
+        running = false;
+        subscription.close();
+        workers.values().forEach(Thread::interrupt);
+    }
+
+    // ------- Helpers -------
+
+    // Only Bank A's own payments ever move to SENT_MT103
+    private void onStatus(PaymentStatusEvent event) {
+        if (event.getStatus() != PaymentStatus.SENT_MT103) {
+            return;
+        }
+        Payment p = paymentStore.findById(event.getPaymentId());
+        String raw = p != null ? p.getMt103Raw() : null;
+        if (raw == null) {
+            log.warn("[BUS] No instruction for {} ({}), not routed", event.getPaymentId(), event.getReference());
+            failed.get(Leg.BANK_B).increment();
+            return;
+        }
+        BusMessage.Flow flow = raw.startsWith("{1:") ? BusMessage.Flow.MT : BusMessage.Flow.ISO;
+        send(Leg.BANK_B, new BusMessage(flow, event.getPaymentId(), event.getReference(), raw, event.getNanoTime()));
+    }
+
+    private CompletableFuture<? extends ResponseEntity<?>> deliverToBankB(BusMessage m) {
+        CompletableFuture<ResponseEntity<String>> response;
+        try {
+            response = m.flow == BusMessage.Flow.MT
+                    ? swiftController.receiveMt103AtBankB(m.payload)
+                    : isoController.receivePacs008AtBankB(m.payload);
+        } catch (RuntimeException e) {
+            reject(m);
+            throw e;
+        }
+        return response.thenApply(r -> {
+            if (r.getStatusCode().is2xxSuccessful() && r.getBody() != null) {
+                send(Leg.BANK_A, m.reply(r.getBody()));
+            } else {
+                // Bank B refused the instruction (e.g. answered with a pacs.002 reject)
+                reject(m);
+            }
+            return r;
+        });
+    }
+
+    private void reject(BusMessage m) {
+        Payment p = paymentStore.findById(m.paymentId);
+        if (p != null && stateMachine.moveTo(p, PaymentStatus.REJECTED)) {
+            paymentStore.save(p);
+        }
+    }
+
+    private CompletableFuture<? extends ResponseEntity<?>> deliverToBankA(BusMessage m) {
+        ResponseEntity<?> response = m.flow == BusMessage.Flow.MT
+                ? swiftController.receiveMt910AtBankA(m.payload)
+                : isoController.receiveCamt054AtBankA(m.payload);
+        if (response.getStatusCode().is2xxSuccessful()) {
+            lifecycle.get(m.flow).record(System.nanoTime() - m.startNanos, TimeUnit.NANOSECONDS);
+        }
+        return CompletableFuture.completedFuture(response);
+    }
+
+    private void send(Leg leg, BusMessage m) {
+        if (!inboxes.get(leg).offer(m)) {
+            dropped.get(leg).increment();
+            log.warn("[BUS] {} inbox full, dropped {} ({})", leg.tag, m.paymentId, m.reference);
+        }
+    }
+
+    private void startWorker(Leg leg, Function<BusMessage, CompletableFuture<? extends ResponseEntity<?>>> handler) {
+        BlockingQueue<BusMessage> inbox = inboxes.get(leg);
+        Thread t = new Thread(() -> {
+            while (running) {
+                BusMessage m;
+                try {
+                    m = inbox.take();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                try {
+                    handler.apply(m).whenComplete((response, e) -> {
+                        if (e != null) {
+                            countFailure(leg, m, e);
+                            return;
+                        }
+                        (response.getStatusCode().is2xxSuccessful() ? delivered : failed).get(leg).increment();
+                        if (!response.getStatusCode().is2xxSuccessful()) {
+                            log.warn("[BUS] {} answered {} for {} ({})", leg.tag, response.getStatusCode(), m.paymentId, m.reference);
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    countFailure(leg, m, e);
+                }
+            }
+        }, "bus-" + leg.tag);
+        t.setDaemon(true);
+        workers.put(leg, t);
+        t.start();
+    }
+
+    private void countFailure(Leg leg, BusMessage m, Throwable e) {
+        failed.get(leg).increment();
+        log.warn("[BUS] {} failed on {} ({}): {}", leg.tag, m.paymentId, m.reference, e.toString());
+    }
+
+    private static Counter counter(MeterRegistry registry, String name, Leg leg) {
+        return Counter.builder(name).tag("leg", leg.tag).register(registry);
+    }
+}
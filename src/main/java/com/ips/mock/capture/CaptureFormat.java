@@ -0,0 +1,138 @@
+package com.ips.mock.capture;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Binary capture log: a gzip stream holding a magic header followed by records of
+ * <pre>
+ * long epochMillis, long startNanos, long durationNanos,
+ * str method, str uri, short status,
+ * short n, n x (str name, str value)     request headers
+ * short n, n x (str name, str value)     response headers
+ * int len, len bytes                     request body
+ * int len, len bytes                     response body
+ * </pre>
+ * where {@code str} is an unsigned-short length plus UTF-8 bytes. Written with sync
+ * flushes, so a file is readable up to the last flushed batch even if the node dies.
+ */
+public final class CaptureFormat {
+
+    private static final int MAGIC = 0x49505343; // "IPSC"
+    private static final short VERSION = 1;
+
+    private CaptureFormat() {
+    }
+
+    public static DataOutputStream openWriter(OutputStream raw) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(raw, 64 * 1024, true), 64 * 1024));
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        return out;
+    }
+
+    public static DataInputStream openReader(InputStream raw) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(raw, 64 * 1024)));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not an IPS capture file");
+        }
+        short version = in.readShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported capture version: " + version);
+        }
+        return in;
+    }
+
+    public static void write(DataOutputStream out, CaptureRecord r) throws IOException {
+        out.writeLong(r.getEpochMillis());
+        out.writeLong(r.getStartNanos());
+        out.writeLong(r.getDurationNanos());
+        writeString(out, r.getMethod());
+        writeString(out, r.getUri());
+        out.writeShort(r.getStatus());
+        writeHeaders(out, r.getRequestHeaders());
+        writeHeaders(out, r.getResponseHeaders());
+        writeBytes(out, r.getRequestBody());
+        writeBytes(out, r.getResponseBody());
+    }
+
+    /**
+     * @return the next record, or null at the end of the log (including a truncated tail)
+     */
+    public static CaptureRecord read(DataInputStream in) throws IOException {
+        try {
+            long epochMillis = in.readLong();
+            long startNanos = in.readLong();
+            long durationNanos = in.readLong();
+            String method = readString(in);
+            String uri = readString(in);
+            int status = in.readUnsignedShort();
+            List<Map.Entry<String, String>> requestHeaders = readHeaders(in);
+            List<Map.Entry<String, String>> responseHeaders = readHeaders(in);
+            byte[] requestBody = readBytes(in);
+            byte[] responseBody = readBytes(in);
+            return new CaptureRecord(epochMillis, startNanos, durationNanos, method, uri, status,
+                    requestHeaders, responseHeaders, requestBody, responseBody);
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    // ------- Helpers -------
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = (s != null ? s : "").getBytes(StandardCharsets.UTF_8);
+        int len = Math.min(bytes.length, 0xFFFF);
+        out.writeShort(len);
+        out.write(bytes, 0, len);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readUnsignedShort()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeHeaders(DataOutputStream out, List<Map.Entry<String, String>> headers) throws IOException {
+        int n = Math.min(headers.size(), 0xFFFF);
+        out.writeShort(n);
+        for (int i = 0; i < n; i++) {
+            writeString(out, headers.get(i).getKey());
+            writeString(out, headers.get(i).getValue());
+        }
+    }
+
+    private static List<Map.Entry<String, String>> readHeaders(DataInputStream in) throws IOException {
+        int n = in.readUnsignedShort();
+        List<Map.Entry<String, String>> headers = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            headers.add(new AbstractMap.SimpleImmutableEntry<>(readString(in), readString(in)));
+        }
+        return headers;
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,53 @@
+package com.ips.mock.capture;
+
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One captured request/response exchange.
+ */
+@Getter
+public class CaptureRecord {
+
+    /** Wall clock time the request arrived, for humans. */
+    private final long epochMillis;
+    /** Monotonic arrival time (System.nanoTime of the capturing JVM), for pacing replays. */
+    private final long startNanos;
+    private final long durationNanos;
+    private final String method;
+    /** Path including the query string, if any. */
+    private final String uri;
+    private final int status;
+    private final List<Map.Entry<String, String>> requestHeaders;
+    private final List<Map.Entry<String, String>> responseHeaders;
+    private final byte[] requestBody;
+    private final byte[] responseBody;
+
+    public CaptureRecord(long epochMillis, long startNanos, long durationNanos,
+                         String method, String uri, int status,
+                         List<Map.Entry<String, String>> requestHeaders,
+                         List<Map.Entry<String, String>> responseHeaders,
+                         byte[] requestBody, byte[] responseBody) {
+        this.epochMillis = epochMillis;
+        this.startNanos = startNanos;
+        this.durationNanos = durationNanos;
+        this.method = method;
+        this.uri = uri;
+        this.status = status;
+        this.requestHeaders = requestHeaders;
+        this.responseHeaders = responseHeaders;
+        this.requestBody = requestBody;
+        this.responseBody = responseBody;
+    }
+
+    public String header(String name) {
+        for (Map.Entry<String, String> h : requestHeaders) {
+            if (h.getKey().equalsIgnoreCase(name)) {
+                return h.getValue();
+            }
+        }
+        return null;
+    }
+}
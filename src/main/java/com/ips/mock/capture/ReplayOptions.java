@@ -0,0 +1,78 @@
+package com.ips.mock.capture;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Command line options of the replay tool, given as {@code --name=value}.
+ * <pre>
+ * --file=capture/ips-20260101-120000.cap   (required)
+ * --base-url=http://localhost:8080
+ * --speed=1|10|max       1 = original pacing, N = N times faster, max = no pacing
+ * --concurrency=64       max requests in flight
+ * --diff=true            compare status and (normalized) body with the recording
+ * --mask=REGEX           extra regex to blank out before comparing (repeatable)
+ * --default-masks=true   mask generated ids, timestamps and dates
+ * --max-diffs=20         mismatches printed in full
+ * </pre>
+ */
+@Getter
+public class ReplayOptions {
+
+    /**
+     * Ids from MessageIdService (prefix + 10 char instance tag + sequence), ISO
+     * timestamps and dates, and the MT :32A: value date.
+     */
+    static final List<Pattern> DEFAULT_MASKS = List.of(
+            Pattern.compile("\\b(?:BM|CT-|E2E-|AVQ?-|BI-|RJ-|P-|REF\\d{8}-)[0-9A-Z]{11,}\\b"),
+            Pattern.compile("\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}(?:\\.\\d+)?(?:Z|[+-]\\d{2}:\\d{2})?"),
+            Pattern.compile("\\d{4}-\\d{2}-\\d{2}"),
+            Pattern.compile("(?<=:32A:)\\d{6}"));
+
+    private String file;
+    private String baseUrl = "http://localhost:8080";
+    /** Replay speed factor; 0 means as fast as possible. */
+    private double speed = 1;
+    private int concurrency = 64;
+    private boolean diff = true;
+    private final List<Pattern> masks = new ArrayList<>(DEFAULT_MASKS);
+    private int maxDiffs = 20;
+
+    public static ReplayOptions parse(String[] args) {
+        ReplayOptions o = new ReplayOptions();
+        List<Pattern> extra = new ArrayList<>();
+        boolean defaults = true;
+        for (String arg : args) {
+            if (!arg.startsWith("--") || arg.indexOf('=') < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            switch (name) {
+                case "file" -> o.file = value;
+                case "base-url" -> o.baseUrl = value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+                case "speed" -> o.speed = value.equalsIgnoreCase("max") ? 0 : Double.parseDouble(value);
+                case "concurrency" -> o.concurrency = Integer.parseInt(value);
+                case "diff" -> o.diff = Boolean.parseBoolean(value);
+                case "mask" -> extra.add(Pattern.compile(value));
+                case "default-masks" -> defaults = Boolean.parseBoolean(value);
+                case "max-diffs" -> o.maxDiffs = Integer.parseInt(value);
+                default -> throw new IllegalArgumentException("Unknown option: --" + name);
+            }
+        }
+        if (o.file == null) {
+            throw new IllegalArgumentException("--file is required");
+        }
+        if (o.speed < 0 || o.concurrency <= 0) {
+            throw new IllegalArgumentException("--speed must be >= 0 (or max) and --concurrency positive");
+        }
+        if (!defaults) {
+            o.masks.clear();
+        }
+        o.masks.addAll(extra);
+        return o;
+    }
+}
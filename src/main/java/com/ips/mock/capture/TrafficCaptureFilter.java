@@ -0,0 +1,144 @@
+package com.ips.mock.capture;
+
+import com.ips.mock.controller.PaymentStatusStreamController;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Records every exchange under {@code ips.capture.path-prefix} (default /api) when
+ * {@code ips.capture.enabled=true}. Bodies are buffered up to
+ * {@code ips.capture.max-body-bytes}; the response is still sent in full.
+ * Credentials (Authorization, Proxy-Authorization, Cookie, Set-Cookie) are written
+ * as {@value #REDACTED}. Servlet stack only.
+ */
+@Component
+@ConditionalOnProperty(prefix = "ips.capture", name = "enabled", havingValue = "true")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class TrafficCaptureFilter extends OncePerRequestFilter {
+
+    private static final String EPOCH_MILLIS = TrafficCaptureFilter.class.getName() + ".epochMillis";
+    private static final String START_NANOS = TrafficCaptureFilter.class.getName() + ".startNanos";
+
+    static final String REDACTED = "[redacted]";
+    private static final Set<String> REDACTED_HEADERS = Set.of(
+            "authorization", "proxy-authorization", "cookie", "set-cookie");
+
+    private final TrafficCaptureWriter writer;
+    private final String pathPrefix;
+    private final int maxBodyBytes;
+
+    public TrafficCaptureFilter(TrafficCaptureWriter writer,
+                                @Value("${ips.capture.path-prefix:/api}") String pathPrefix,
+                                @Value("${ips.capture.max-body-bytes:1048576}") int maxBodyBytes) {
+        this.writer = writer;
+        this.pathPrefix = pathPrefix;
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    // Event streams never end and would be buffered whole, so they are not captured
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return !uri.startsWith(pathPrefix) || uri.equals(PaymentStatusStreamController.EVENTS_PATH);
+    }
+
+    // Delayed responses (CompletableFuture handlers) finish in the async dispatch
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ContentCachingRequestWrapper req;
+        ContentCachingResponseWrapper resp;
+        long epochMillis;
+        long start;
+        if (isAsyncDispatch(request)) {
+            req = WebUtils.getNativeRequest(request, ContentCachingRequestWrapper.class);
+            resp = WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
+            epochMillis = (Long) request.getAttribute(EPOCH_MILLIS);
+            start = (Long) request.getAttribute(START_NANOS);
+            if (req == null || resp == null) {
+                chain.doFilter(request, response);
+                return;
+            }
+        } else {
+            req = new ContentCachingRequestWrapper(request, maxBodyBytes);
+            resp = new ContentCachingResponseWrapper(response);
+            epochMillis = System.currentTimeMillis();
+            start = System.nanoTime();
+        }
+        try {
+            chain.doFilter(req, resp);
+        } finally {
+            if (isAsyncStarted(req)) {
+                request.setAttribute(EPOCH_MILLIS, epochMillis);
+                request.setAttribute(START_NANOS, start);
+            } else {
+                record(request, req, resp, epochMillis, start);
+                resp.copyBodyToResponse();
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, ContentCachingRequestWrapper req,
+                        ContentCachingResponseWrapper resp, long epochMillis, long start) {
+        long duration = System.nanoTime() - start;
+        String uri = request.getQueryString() != null
+                ? request.getRequestURI() + "?" + request.getQueryString()
+                : request.getRequestURI();
+        writer.submit(new CaptureRecord(epochMillis, start, duration,
+                request.getMethod(), uri, resp.getStatus(),
+                requestHeaders(request), responseHeaders(resp),
+                req.getContentAsByteArray(), resp.getContentAsByteArray()));
+    }
+
+    private static List<Map.Entry<String, String>> requestHeaders(HttpServletRequest request) {
+        List<Map.Entry<String, String>> headers = new ArrayList<>();
+        for (String name : Collections.list(request.getHeaderNames())) {
+            for (String value : Collections.list(request.getHeaders(name))) {
+                headers.add(header(name, value));
+            }
+        }
+        return headers;
+    }
+
+    private static List<Map.Entry<String, String>> responseHeaders(HttpServletResponse response) {
+        List<Map.Entry<String, String>> headers = new ArrayList<>();
+        for (String name : response.getHeaderNames()) {
+            for (String value : response.getHeaders(name)) {
+                headers.add(header(name, value));
+            }
+        }
+        if (response.getContentType() != null && response.getHeader("Content-Type") == null) {
+            headers.add(new AbstractMap.SimpleImmutableEntry<>("Content-Type", response.getContentType()));
+        }
+        return headers;
+    }
+
+    private static Map.Entry<String, String> header(String name, String value) {
+        return new AbstractMap.SimpleImmutableEntry<>(name,
+                REDACTED_HEADERS.contains(name.toLowerCase(Locale.ROOT)) ? REDACTED : value);
+    }
+}
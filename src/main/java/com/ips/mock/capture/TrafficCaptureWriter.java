@@ -0,0 +1,101 @@
+package com.ips.mock.capture;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Appends captured exchanges to a capture log from a single background thread.
+ * Request threads only enqueue; when the queue is full the record is dropped and
+ * counted rather than slowing the request down.
+ */
+@Component
+@ConditionalOnProperty(prefix = "ips.capture", name = "enabled", havingValue = "true")
+@Slf4j
+public class TrafficCaptureWriter {
+
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final BlockingQueue<CaptureRecord> queue;
+    private final DataOutputStream out;
+    private final Path file;
+    private final Thread writer;
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean running = true;
+
+    public TrafficCaptureWriter(@Value("${ips.capture.dir:capture}") String dir,
+                                @Value("${ips.capture.queue-size:10000}") int queueSize) {
+        try {
+            Path directory = Paths.get(dir);
+            Files.createDirectories(directory);
+            this.file = directory.resolve("ips-" + LocalDateTime.now().format(FILE_TIME) + ".cap");
+            this.out = CaptureFormat.openWriter(new FileOutputStream(file.toFile()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open capture file in " + dir, e);
+        }
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.writer = new Thread(this::drain, "traffic-capture");
+        this.writer.setDaemon(true);
+        this.writer.start();
+        log.info("[CAPTURE] Recording traffic to {}", file.toAbsolutePath());
+    }
+
+    public void submit(CaptureRecord record) {
+        if (!queue.offer(record) && dropped.getAndIncrement() % 1000 == 0) {
+            log.warn("[CAPTURE] Queue full, dropped {} records so far", dropped.get());
+        }
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    private void drain() {
+        List<CaptureRecord> batch = new ArrayList<>(256);
+        try {
+            while (running || !queue.isEmpty()) {
+                CaptureRecord first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, 255);
+                for (CaptureRecord r : batch) {
+                    CaptureFormat.write(out, r);
+                }
+                batch.clear();
+                out.flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.error("[CAPTURE] Writing {} failed, capture stopped: {}", file, e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException, IOException {
+        running = false;
+        writer.join(5000);
+        out.close();
+        log.info("[CAPTURE] Closed {} ({} records dropped)", file, dropped.get());
+    }
+}
@@ -0,0 +1,213 @@
+package com.ips.mock.capture;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Pattern;
+
+/**
+ * Re-drives a capture log against a node, keeping the recorded inter-arrival gaps
+ * (scaled by the speed factor), and compares each response with the recorded one.
+ * <p>
+ * Bodies are compared after masking values that legitimately differ between runs
+ * (generated ids, timestamps). Flows that carry server-generated references from one
+ * request into the next (e.g. MT910 back to Bank A) will diverge on replay, since the
+ * replayed node hands out new references. Redacted credentials are not sent, so
+ * a node with participant auth answers 401 to the ISO endpoints.
+ */
+public class TrafficReplayer {
+
+    // Headers the JDK client sets itself or refuses, plus compression we could not diff
+    private static final Set<String> SKIPPED_HEADERS = Set.of(
+            "connection", "content-length", "expect", "host", "upgrade", "transfer-encoding", "accept-encoding");
+
+    private final ReplayOptions options;
+    private final PrintStream out;
+    private final HttpClient client;
+    private final ExecutorService httpExecutor;
+    private final Semaphore inFlight;
+
+    private final Map<String, Histogram> latencies = new ConcurrentHashMap<>();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong matched = new AtomicLong();
+    private final AtomicLong statusMismatches = new AtomicLong();
+    private final AtomicLong bodyMismatches = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicInteger printedDiffs = new AtomicInteger();
+
+    public TrafficReplayer(ReplayOptions options, PrintStream out) {
+        this.options = options;
+        this.out = out;
+        this.httpExecutor = Executors.newFixedThreadPool(Math.min(options.getConcurrency(), 32), r -> {
+            Thread t = new Thread(r, "replay-http");
+            t.setDaemon(true);
+            return t;
+        });
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(httpExecutor)
+                .build();
+        this.inFlight = new Semaphore(options.getConcurrency());
+    }
+
+    public void run() throws IOException, InterruptedException {
+        out.printf(Locale.ROOT, "Replay: %s -> %s speed=%s concurrency=%d diff=%s%n",
+                options.getFile(), options.getBaseUrl(),
+                options.getSpeed() == 0 ? "max" : options.getSpeed() + "x",
+                options.getConcurrency(), options.isDiff());
+
+        long replayStart = System.nanoTime();
+        long firstRecorded = Long.MIN_VALUE;
+        try (DataInputStream in = CaptureFormat.openReader(new FileInputStream(options.getFile()))) {
+            CaptureRecord r;
+            while ((r = CaptureFormat.read(in)) != null) {
+                if (firstRecorded == Long.MIN_VALUE) {
+                    firstRecorded = r.getStartNanos();
+                }
+                long intended = options.getSpeed() == 0
+                        ? System.nanoTime()
+                        : replayStart + (long) ((r.getStartNanos() - firstRecorded) / options.getSpeed());
+                waitUntil(intended);
+                send(r, intended);
+            }
+        }
+        inFlight.acquire(options.getConcurrency());
+        long elapsed = System.nanoTime() - replayStart;
+        printSummary(elapsed);
+        httpExecutor.shutdownNow();
+    }
+
+    private void send(CaptureRecord r, long intended) throws InterruptedException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(options.getBaseUrl() + r.getUri()))
+                .timeout(Duration.ofSeconds(30))
+                .method(r.getMethod(), r.getRequestBody().length == 0
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofByteArray(r.getRequestBody()));
+        for (Map.Entry<String, String> h : r.getRequestHeaders()) {
+            if (!SKIPPED_HEADERS.contains(h.getKey().toLowerCase(Locale.ROOT))
+                    && !TrafficCaptureFilter.REDACTED.equals(h.getValue())) {
+                builder.header(h.getKey(), h.getValue());
+            }
+        }
+        HttpRequest request = builder.build();
+        Histogram histogram = latencies.computeIfAbsent(endpoint(r.getUri()), k -> new ConcurrentHistogram(3));
+
+        inFlight.acquire();
+        sent.incrementAndGet();
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .whenComplete((response, error) -> {
+                    histogram.recordValue(Math.min(System.nanoTime() - intended, TimeUnit.MINUTES.toNanos(5)));
+                    inFlight.release();
+                    if (error != null) {
+                        failures.incrementAndGet();
+                        report(r, "request failed: " + error, null, null);
+                    } else if (options.isDiff()) {
+                        compare(r, response);
+                    }
+                });
+    }
+
+    private void compare(CaptureRecord r, HttpResponse<byte[]> response) {
+        if (response.statusCode() != r.getStatus()) {
+            statusMismatches.incrementAndGet();
+            report(r, "status " + r.getStatus() + " -> " + response.statusCode(), null, null);
+            return;
+        }
+        String expected = normalize(new String(r.getResponseBody(), StandardCharsets.UTF_8));
+        String actual = normalize(new String(response.body(), StandardCharsets.UTF_8));
+        if (expected.equals(actual)) {
+            matched.incrementAndGet();
+        } else {
+            bodyMismatches.incrementAndGet();
+            report(r, "body differs", expected, actual);
+        }
+    }
+
+    String normalize(String body) {
+        String s = body;
+        for (Pattern mask : options.getMasks()) {
+            s = mask.matcher(s).replaceAll("<masked>");
+        }
+        return s;
+    }
+
+    private void report(CaptureRecord r, String what, String expected, String actual) {
+        if (printedDiffs.incrementAndGet() > options.getMaxDiffs()) {
+            return;
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append("[DIFF] ").append(r.getMethod()).append(' ').append(r.getUri()).append(": ").append(what);
+        if (expected != null) {
+            String[] e = expected.split("\n", -1);
+            String[] a = actual.split("\n", -1);
+            int n = Math.max(e.length, a.length);
+            for (int i = 0; i < n; i++) {
+                String el = i < e.length ? e[i] : "<eof>";
+                String al = i < a.length ? a[i] : "<eof>";
+                if (!el.equals(al)) {
+                    sb.append("\n  line ").append(i + 1)
+                            .append("\n  - ").append(el.trim())
+                            .append("\n  + ").append(al.trim());
+                    break;
+                }
+            }
+        }
+        synchronized (out) {
+            out.println(sb);
+        }
+    }
+
+    private void printSummary(long elapsedNanos) {
+        out.println();
+        out.printf(Locale.ROOT, "%-40s %9s %9s %9s %9s %9s%n", "endpoint", "count", "req/s", "p50 ms", "p99 ms", "max ms");
+        for (Map.Entry<String, Histogram> e : new TreeMap<>(latencies).entrySet()) {
+            Histogram h = e.getValue();
+            out.printf(Locale.ROOT, "%-40s %9d %9.1f %9.2f %9.2f %9.2f%n",
+                    e.getKey(), h.getTotalCount(), h.getTotalCount() * 1e9 / elapsedNanos,
+                    h.getValueAtPercentile(50) / 1e6, h.getValueAtPercentile(99) / 1e6, h.getMaxValue() / 1e6);
+        }
+        out.printf(Locale.ROOT, "%nReplayed %d requests in %.1fs: %d matched, %d status mismatches, "
+                        + "%d body mismatches, %d failed%n",
+                sent.get(), elapsedNanos / 1e9, matched.get(), statusMismatches.get(),
+                bodyMismatches.get(), failures.get());
+    }
+
+    private static String endpoint(String uri) {
+        int q = uri.indexOf('?');
+        return q >= 0 ? uri.substring(0, q) : uri;
+    }
+
+    private static void waitUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    public boolean hasMismatches() {
+        return statusMismatches.get() + bodyMismatches.get() + failures.get() > 0;
+    }
+}
@@ -1,10 +1,14 @@
 package com.ips.mock.controller;
 
+import com.ips.mock.auth.ParticipantAuthenticator;
+import com.ips.mock.participant.Bic;
 import com.ips.mock.request.AccountVerificationRequestOld;
 import com.ips.mock.response.DefaultResponse;
 import com.ips.mock.service.AccountVerificationService;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -13,13 +17,25 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/api/account-verification")
 public class AccountVerificationController {
     private final AccountVerificationService accountVerificationService;
+    private final ParticipantAuthenticator authenticator;
 
-    public AccountVerificationController(AccountVerificationService accountVerificationService) {
+    public AccountVerificationController(AccountVerificationService accountVerificationService,
+                                         ParticipantAuthenticator authenticator) {
         this.accountVerificationService = accountVerificationService;
+        this.authenticator = authenticator;
     }
 
+    /**
+     * With ips.auth.enabled the initiator must be the authenticated participant.
+     */
     @PostMapping("/verify")
-    public ResponseEntity<DefaultResponse> verifyAccount(@RequestBody AccountVerificationRequestOld request) {
+    public ResponseEntity<DefaultResponse> verifyAccount(
+            @RequestBody AccountVerificationRequestOld request,
+            @RequestAttribute(name = ParticipantAuthenticator.PARTICIPANT_ATTRIBUTE, required = false) String participant
+    ) {
+        if (participant != null ? !Bic.sameParticipant(participant, request.getInitiator()) : authenticator.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
         return accountVerificationService.accountVerificationAppReq(request);
     }
 }
@@ -0,0 +1,79 @@
+package com.ips.mock.controller;
+
+import com.ips.mock.auth.ParticipantAuthenticator;
+import com.ips.mock.participant.Bic;
+import com.ips.mock.sse.PaymentStatusBroadcaster;
+import com.ips.mock.sse.SseDropPolicy;
+import com.ips.mock.sse.StatusFilter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Server-sent events of payment status transitions, e.g.
+ * {@code GET /api/payments/events?bic=BKAALKLX&status=SETTLED,REJECTED}.
+ * Each event is named "status", has the transition's sequence number as id and a
+ * JSON payload; idle streams get a keep-alive comment.
+ * <p>
+ * With ips.auth.enabled a stream only carries the authenticated participant's
+ * payments: the bic parameter defaults to it and any other participant is 403.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/payments")
+public class PaymentStatusStreamController {
+
+    public static final String EVENTS_PATH = "/api/payments/events";
+
+    private final PaymentStatusBroadcaster broadcaster;
+    private final ParticipantAuthenticator authenticator;
+
+    public PaymentStatusStreamController(PaymentStatusBroadcaster broadcaster, ParticipantAuthenticator authenticator) {
+        this.broadcaster = broadcaster;
+        this.authenticator = authenticator;
+    }
+
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public void statusEvents(
+            @RequestParam(required = false) String reference,
+            @RequestParam(required = false) String bic,
+            @RequestParam(required = false) List<String> status,
+            @RequestParam(required = false) String dropPolicy,
+            @RequestAttribute(name = ParticipantAuthenticator.PARTICIPANT_ATTRIBUTE, required = false) String participant,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        if (authenticator.isEnabled()) {
+            if (participant == null || (bic != null && !bic.isBlank() && !Bic.sameParticipant(participant, bic))) {
+                response.setStatus(HttpStatus.FORBIDDEN.value());
+                return;
+            }
+            bic = participant;
+        }
+
+        StatusFilter filter;
+        SseDropPolicy policy;
+        try {
+            filter = StatusFilter.of(reference, bic, status);
+            policy = SseDropPolicy.parse(dropPolicy);
+        } catch (IllegalArgumentException e) {
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            return;
+        }
+
+        // The broadcaster writes the stream itself, with non-blocking output
+        if (!broadcaster.subscribe(filter, policy, request, response)) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.ips.mock.controller;
+
+import com.ips.mock.auth.ParticipantAuthenticator;
+import com.ips.mock.participant.Bic;
+import com.ips.mock.reactive.ReactiveStatusPublisher;
+import com.ips.mock.service.payment.PaymentStatusEvent;
+import com.ips.mock.sse.SseDropPolicy;
+import com.ips.mock.sse.StatusFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+/**
+ * The events endpoint of {@link PaymentStatusStreamController} on the reactive
+ * stack: same path, parameters, event format and participant restriction, streamed
+ * without a thread per connection.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/payments")
+public class ReactiveStatusStreamController {
+
+    private final ReactiveStatusPublisher publisher;
+    private final ParticipantAuthenticator authenticator;
+
+    public ReactiveStatusStreamController(ReactiveStatusPublisher publisher, ParticipantAuthenticator authenticator) {
+        this.publisher = publisher;
+        this.authenticator = authenticator;
+    }
+
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<PaymentStatusEvent>> statusEvents(
+            @RequestParam(required = false) String reference,
+            @RequestParam(required = false) String bic,
+            @RequestParam(required = false) List<String> status,
+            @RequestParam(required = false) String dropPolicy,
+            @RequestAttribute(name = ParticipantAuthenticator.PARTICIPANT_ATTRIBUTE, required = false) String participant
+    ) {
+        if (authenticator.isEnabled()) {
+            if (participant == null || (bic != null && !bic.isBlank() && !Bic.sameParticipant(participant, bic))) {
+                throw new ResponseStatusException(HttpStatus.FORBIDDEN);
+            }
+            bic = participant;
+        }
+
+        StatusFilter filter;
+        SseDropPolicy policy;
+        try {
+            filter = StatusFilter.of(reference, bic, status);
+            policy = SseDropPolicy.parse(dropPolicy);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        Flux<ServerSentEvent<PaymentStatusEvent>> events = publisher.subscribe(filter, policy);
+        if (events == null) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        return events;
+    }
+}
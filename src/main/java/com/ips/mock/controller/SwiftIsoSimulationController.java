@@ -1,8 +1,19 @@
 package com.ips.mock.controller;
 
 import com.ips.mock.PaymentStatus;
+import com.ips.mock.admission.AdmissionControl;
+import com.ips.mock.fault.FaultEndpoint;
+import com.ips.mock.fault.FaultInjector;
+import com.ips.mock.money.Money;
 import com.ips.mock.request.Payment;
 import com.ips.mock.service.Iso20022PaymentService;
+import com.ips.mock.service.id.CachedClock;
+import com.ips.mock.service.id.MessageIdService;
+import com.ips.mock.service.payment.PaymentStateMachine;
+import com.ips.mock.service.payment.PaymentStore;
+import com.ips.mock.service.validation.IsoMessageType;
+import com.ips.mock.service.validation.IsoSchemaValidator;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -11,26 +22,37 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.math.BigDecimal;
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.util.Map;
-import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api")
 public class SwiftIsoSimulationController {
 
     private final Iso20022PaymentService isoService;
-
-    private final Map<String, Payment> paymentsById = new ConcurrentHashMap<>();
-    private final Map<String, Payment> paymentsByReference = new ConcurrentHashMap<>();
-
-    private static final DateTimeFormatter DATE_ID_FORMAT =
-            DateTimeFormatter.ofPattern("yyyyMMdd");
-
-    public SwiftIsoSimulationController(Iso20022PaymentService isoService) {
+    private final MessageIdService messageIdService;
+    private final CachedClock clock;
+    private final IsoSchemaValidator schemaValidator;
+    private final PaymentStore paymentStore;
+    private final PaymentStateMachine stateMachine;
+    private final FaultInjector faults;
+    private final AdmissionControl admission;
+
+    public SwiftIsoSimulationController(Iso20022PaymentService isoService,
+                                        MessageIdService messageIdService,
+                                        CachedClock clock,
+                                        IsoSchemaValidator schemaValidator,
+                                        PaymentStore paymentStore,
+                                        PaymentStateMachine stateMachine,
+                                        FaultInjector faults,
+                                        AdmissionControl admission) {
         this.isoService = isoService;
+        this.messageIdService = messageIdService;
+        this.clock = clock;
+        this.schemaValidator = schemaValidator;
+        this.paymentStore = paymentStore;
+        this.stateMachine = stateMachine;
+        this.faults = faults;
+        this.admission = admission;
     }
 
     // ---------- DTOs ----------
@@ -78,17 +100,9 @@ public class SwiftIsoSimulationController {
     ) {
 
         Payment p = new Payment();
-
-        String datePart = LocalDate.now().format(DATE_ID_FORMAT);
-        String randomPart = UUID.randomUUID().toString()
-                .replace("-", "")
-                .substring(0, 8)
-                .toUpperCase();
-        String reference = "REF" + datePart + "-" + randomPart;
-
-        p.setReference(reference);
-        p.setAmount(req.amount);
-        p.setCurrency(req.currency);
+        p.setId(messageIdService.nextPaymentId());
+        p.setReference(messageIdService.nextReference(clock.basicDate()));
+        p.setAmount(req.amount != null && req.currency != null ? Money.rounded(req.amount, req.currency) : null);
 
         p.setDebtorName(req.debtorName);
         p.setDebtorAccount(req.debtorAccount);
@@ -103,8 +117,9 @@ public class SwiftIsoSimulationController {
         // build pacs.008 XML
         String pacs008 = isoService.buildPacs008(p);
 
-        paymentsById.put(p.getId(), p);
-        paymentsByReference.put(p.getReference(), p);
+        // stored before it is marked sent, so whoever sees the transition can find it
+        paymentStore.save(p);
+        stateMachine.moveTo(p, PaymentStatus.SENT_MT103);
 
         CreatePaymentResponse resp = new CreatePaymentResponse();
         resp.paymentId = p.getId();
@@ -123,22 +138,57 @@ public class SwiftIsoSimulationController {
             consumes = MediaType.APPLICATION_XML_VALUE,
             produces = MediaType.APPLICATION_XML_VALUE
     )
-    public ResponseEntity<String> receivePacs008AtBankB(
+    public CompletableFuture<ResponseEntity<String>> receivePacs008AtBankB(
             @RequestBody String pacs008Xml
     ) {
-        Payment p = isoService.parsePacs008(pacs008Xml);
+        String violation = schemaValidator.validate(IsoMessageType.PACS_008, pacs008Xml);
+        if (violation != null && schemaValidator.isStrict()) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                    .contentType(MediaType.APPLICATION_XML)
+                    .body(isoService.buildPacs002Reject(pacs008Xml, "FF01", violation)));
+        }
+
+        Payment p;
+        try {
+            p = isoService.parsePacs008(pacs008Xml);
+        } catch (IllegalArgumentException e) {
+            // unparseable or out-of-range amounts are rejected like any other bad message
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                    .contentType(MediaType.APPLICATION_XML)
+                    .body(isoService.buildPacs002Reject(pacs008Xml, "AM12", e.getMessage())));
+        }
 
-        paymentsById.put(p.getId(), p);
-        paymentsByReference.put(p.getReference(), p);
+        return admission.admit(p.getDebtorAgentBic(),
+                () -> faults.apply(FaultEndpoint.PACS_008, p.getCreditorAgentBic(),
+                        () -> creditAtBankB(p),
+                        reason -> rejectAtBankB(p, pacs008Xml, reason)),
+                shed -> ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .contentType(MediaType.APPLICATION_XML)
+                        .body(isoService.buildPacs002Reject(pacs008Xml, "NARR", shed)));
+    }
 
+    private ResponseEntity<String> creditAtBankB(Payment p) {
         // accept & build camt.054 notification
+        stateMachine.moveTo(p, PaymentStatus.ACCEPTED);
         String camt054 = isoService.buildCamt054(p);
+        stateMachine.moveTo(p, PaymentStatus.CREDITED);
+
+        paymentStore.save(p);
 
         return ResponseEntity.ok()
                 .contentType(MediaType.APPLICATION_XML)
                 .body(camt054);
     }
 
+    private ResponseEntity<String> rejectAtBankB(Payment p, String pacs008Xml, String reason) {
+        stateMachine.moveTo(p, PaymentStatus.REJECTED);
+        paymentStore.save(p);
+
+        return ResponseEntity.badRequest()
+                .contentType(MediaType.APPLICATION_XML)
+                .body(isoService.buildPacs002Reject(pacs008Xml, reason, "Rejected by creditor agent."));
+    }
+
     // =========================================================
     //  /bankA/swift/camt054 (application/xml) → Bank A receives camt.054
     // =========================================================
@@ -150,6 +200,11 @@ public class SwiftIsoSimulationController {
     public ResponseEntity<PaymentStatusResponse> receiveCamt054AtBankA(
             @RequestBody String camt054Xml
     ) {
+        String violation = schemaValidator.validate(IsoMessageType.CAMT_054, camt054Xml);
+        if (violation != null && schemaValidator.isStrict()) {
+            return ResponseEntity.badRequest().build();
+        }
+
         // For simplicity, reuse parsePacs008 logic just to get reference & amount
         // or write a tiny camt.054 parser; here we only grab EndToEndId.
         String reference = extractBetween(camt054Xml, "<EndToEndId>", "</EndToEndId>");
@@ -157,19 +212,23 @@ public class SwiftIsoSimulationController {
             return ResponseEntity.badRequest().build();
         }
 
-        Payment p = paymentsByReference.get(reference);
+        Payment p = paymentStore.findByReference(reference);
         if (p == null) {
             return ResponseEntity.notFound().build();
         }
 
+        // the notification settles the payment; a duplicate one is a no-op
+        if (!stateMachine.moveTo(p, PaymentStatus.SETTLED)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
         p.setMt910Raw(camt054Xml);
-        p.setStatus(PaymentStatus.CREDITED);
+        paymentStore.save(p);
 
         PaymentStatusResponse resp = new PaymentStatusResponse();
         resp.paymentId = p.getId();
         resp.reference = p.getReference();
         resp.status = p.getStatus().name();
-        resp.amount = p.getAmount();
+        resp.amount = p.getAmount() != null ? p.getAmount().toBigDecimal() : null;
         resp.currency = p.getCurrency();
 
         return ResponseEntity.ok(resp);
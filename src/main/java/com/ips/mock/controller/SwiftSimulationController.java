@@ -1,8 +1,17 @@
 package com.ips.mock.controller;
 
 import com.ips.mock.PaymentStatus;
+import com.ips.mock.admission.AdmissionControl;
+import com.ips.mock.fault.FaultEndpoint;
+import com.ips.mock.fault.FaultInjector;
+import com.ips.mock.money.Money;
 import com.ips.mock.request.Payment;
 import com.ips.mock.service.SwiftMTService;
+import com.ips.mock.service.id.CachedClock;
+import com.ips.mock.service.id.MessageIdService;
+import com.ips.mock.service.payment.PaymentStateMachine;
+import com.ips.mock.service.payment.PaymentStore;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -11,26 +20,33 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.math.BigDecimal;
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.util.Map;
-import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/swift")
 public class SwiftSimulationController {
     private final SwiftMTService swiftMtFactoryService;
-
-    // simple in-memory storage
-    private final Map<String, Payment> paymentsById = new ConcurrentHashMap<>();
-    private final Map<String, Payment> paymentsByReference = new ConcurrentHashMap<>();
-
-    private static final DateTimeFormatter DATE_ID_FORMAT =
-            DateTimeFormatter.ofPattern("yyyyMMdd");
-
-    public SwiftSimulationController(SwiftMTService swiftMtFactoryService) {
+    private final MessageIdService messageIdService;
+    private final CachedClock clock;
+    private final PaymentStore paymentStore;
+    private final PaymentStateMachine stateMachine;
+    private final FaultInjector faults;
+    private final AdmissionControl admission;
+
+    public SwiftSimulationController(SwiftMTService swiftMtFactoryService,
+                                     MessageIdService messageIdService,
+                                     CachedClock clock,
+                                     PaymentStore paymentStore,
+                                     PaymentStateMachine stateMachine,
+                                     FaultInjector faults,
+                                     AdmissionControl admission) {
         this.swiftMtFactoryService = swiftMtFactoryService;
+        this.messageIdService = messageIdService;
+        this.clock = clock;
+        this.paymentStore = paymentStore;
+        this.stateMachine = stateMachine;
+        this.faults = faults;
+        this.admission = admission;
     }
 
     // ---------- DTOs for JSON ----------
@@ -78,18 +94,11 @@ public class SwiftSimulationController {
     ) {
 
         Payment p = new Payment();
+        p.setId(messageIdService.nextPaymentId());
 
-        // generate reference like REF20251209-AB12CD34
-        String datePart = LocalDate.now().format(DATE_ID_FORMAT);
-        String randomPart = UUID.randomUUID().toString()
-                .replace("-", "")
-                .substring(0, 8)
-                .toUpperCase();
-        String reference = "REF" + datePart + "-" + randomPart;
-
-        p.setReference(reference);
-        p.setAmount(req.amount);
-        p.setCurrency(req.currency);
+        // generate reference like REF20251209-<unique id>
+        p.setReference(messageIdService.nextReference(clock.basicDate()));
+        p.setAmount(req.amount != null && req.currency != null ? Money.rounded(req.amount, req.currency) : null);
 
         p.setDebtorName(req.debtorName);
         p.setDebtorAccount(req.debtorAccount);
@@ -101,12 +110,12 @@ public class SwiftSimulationController {
 
         p.setRemittanceInfo(req.remittanceInfo);
 
-        // build MT103 (also sets mt103Raw + status SENT_MT103)
+        // build MT103 (also sets mt103Raw)
         String mt103 = swiftMtFactoryService.buildMt103(p);
 
-        // store in-memory
-        paymentsById.put(p.getId(), p);
-        paymentsByReference.put(p.getReference(), p);
+        // stored before it is marked sent, so whoever sees the transition can find it
+        paymentStore.save(p);
+        stateMachine.moveTo(p, PaymentStatus.SENT_MT103);
 
         CreatePaymentResponse resp = new CreatePaymentResponse();
         resp.paymentId = p.getId();
@@ -125,24 +134,52 @@ public class SwiftSimulationController {
             consumes = MediaType.TEXT_PLAIN_VALUE,
             produces = MediaType.TEXT_PLAIN_VALUE
     )
-    public ResponseEntity<String> receiveMt103AtBankB(
+    public CompletableFuture<ResponseEntity<String>> receiveMt103AtBankB(
             @RequestBody String rawMt103
     ) {
-        // parse MT103 into a Payment-like object
-        Payment p = swiftMtFactoryService.parseMt103(rawMt103);
+        // parse MT103 into a Payment-like object; a malformed message is the sender's fault
+        Payment p;
+        try {
+            p = swiftMtFactoryService.parseMt103(rawMt103);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                    .contentType(MediaType.TEXT_PLAIN)
+                    .body("RJCT AM12 " + e.getMessage()));
+        }
 
-        // In a real “Bank B” we might assign a different id, but for simulation this is fine
-        paymentsById.put(p.getId(), p);
-        paymentsByReference.put(p.getReference(), p);
+        return admission.admit(p.getDebtorAgentBic(),
+                () -> faults.apply(FaultEndpoint.MT103, p.getCreditorAgentBic(),
+                        () -> creditAtBankB(p),
+                        reason -> rejectAtBankB(p, reason)),
+                shed -> ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .body("RJCT NARR " + shed));
+    }
 
+    private ResponseEntity<String> creditAtBankB(Payment p) {
         // accept and generate MT910 confirmation
+        stateMachine.moveTo(p, PaymentStatus.ACCEPTED);
         String mt910 = swiftMtFactoryService.buildMt910(p);
+        stateMachine.moveTo(p, PaymentStatus.CREDITED);
+
+        // In a real “Bank B” we might assign a different id, but for simulation this is fine
+        paymentStore.save(p);
 
         return ResponseEntity.ok()
                 .contentType(MediaType.TEXT_PLAIN)
                 .body(mt910);
     }
 
+    // MT has no status report here, so a refusal is a plain-text reason code
+    private ResponseEntity<String> rejectAtBankB(Payment p, String reason) {
+        stateMachine.moveTo(p, PaymentStatus.REJECTED);
+        paymentStore.save(p);
+
+        return ResponseEntity.badRequest()
+                .contentType(MediaType.TEXT_PLAIN)
+                .body("RJCT " + reason);
+    }
+
     // =========================================================
     //  /bankA/swift/mt910  (text/plain) → Bank A receives MT910
     // =========================================================
@@ -160,20 +197,24 @@ public class SwiftSimulationController {
             return ResponseEntity.badRequest().build();
         }
 
-        Payment p = paymentsByReference.get(reference);
+        Payment p = paymentStore.findByReference(reference);
         if (p == null) {
             // not found in Bank A records
             return ResponseEntity.notFound().build();
         }
 
+        // the confirmation settles the payment; a duplicate one is a no-op
+        if (!stateMachine.moveTo(p, PaymentStatus.SETTLED)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
         p.setMt910Raw(rawMt910);
-        p.setStatus(PaymentStatus.CREDITED);
+        paymentStore.save(p);
 
         PaymentStatusResponse resp = new PaymentStatusResponse();
         resp.paymentId = p.getId();
         resp.reference = p.getReference();
         resp.status = p.getStatus().name();
-        resp.amount = p.getAmount();
+        resp.amount = p.getAmount() != null ? p.getAmount().toBigDecimal() : null;
         resp.currency = p.getCurrency();
 
         return ResponseEntity.ok(resp);
@@ -1,23 +1,46 @@
 package com.ips.mock.controller;
 
+import com.ips.mock.admission.AdmissionControl;
+import com.ips.mock.auth.ParticipantAuthenticator;
+import com.ips.mock.fault.FaultEndpoint;
+import com.ips.mock.fault.FaultInjector;
+import com.ips.mock.participant.Bic;
 import com.ips.mock.request.AccountVerificationRequest;
 import com.ips.mock.request.CreditTransferRequest;
 import com.ips.mock.service.TransactionService;
+import com.ips.mock.service.validation.IsoMessageType;
+import com.ips.mock.service.validation.IsoSchemaValidator;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api/iso")
 public class TransactionController {
 
     private final TransactionService transactionService;
+    private final IsoSchemaValidator schemaValidator;
+    private final FaultInjector faults;
+    private final AdmissionControl admission;
+    private final ParticipantAuthenticator authenticator;
 
-    public TransactionController(TransactionService transactionService) {
+    public TransactionController(TransactionService transactionService,
+                                 IsoSchemaValidator schemaValidator,
+                                 FaultInjector faults,
+                                 AdmissionControl admission,
+                                 ParticipantAuthenticator authenticator) {
         this.transactionService = transactionService;
+        this.schemaValidator = schemaValidator;
+        this.faults = faults;
+        this.admission = admission;
+        this.authenticator = authenticator;
     }
 
     /**
@@ -29,8 +52,14 @@ public class TransactionController {
             consumes = MediaType.APPLICATION_JSON_VALUE,
             produces = MediaType.APPLICATION_XML_VALUE
     )
-    public ResponseEntity<String> verifyAccount(@RequestBody AccountVerificationRequest request) {
-        return transactionService.verifyAccount(request);
+    public CompletableFuture<ResponseEntity<String>> verifyAccount(
+            @RequestBody AccountVerificationRequest request,
+            @RequestAttribute(name = ParticipantAuthenticator.PARTICIPANT_ATTRIBUTE, required = false) String participant
+    ) {
+        if (!actsFor(participant, request.getRequestingBankBic())) {
+            return forbidden();
+        }
+        return verifyAccountTrusted(request);
     }
 
     /**
@@ -42,8 +71,14 @@ public class TransactionController {
             consumes = MediaType.APPLICATION_JSON_VALUE,
             produces = MediaType.APPLICATION_XML_VALUE
     )
-    public ResponseEntity<String> creditTransfer(@RequestBody CreditTransferRequest request) {
-        return transactionService.processCreditTransfer(request);
+    public CompletableFuture<ResponseEntity<String>> creditTransfer(
+            @RequestBody CreditTransferRequest request,
+            @RequestAttribute(name = ParticipantAuthenticator.PARTICIPANT_ATTRIBUTE, required = false) String participant
+    ) {
+        if (!actsFor(participant, request.getInitiatorBic())) {
+            return forbidden();
+        }
+        return creditTransferTrusted(request);
     }
 
     /**
@@ -55,8 +90,52 @@ public class TransactionController {
             consumes = MediaType.APPLICATION_JSON_VALUE,
             produces = MediaType.APPLICATION_XML_VALUE
     )
-    public ResponseEntity<String> balanceInquiry(@RequestBody AccountVerificationRequest dto) {
-        return transactionService.balanceInquiryFromIsoXml(dto);
+    public CompletableFuture<ResponseEntity<String>> balanceInquiry(
+            @RequestBody AccountVerificationRequest dto,
+            @RequestAttribute(name = ParticipantAuthenticator.PARTICIPANT_ATTRIBUTE, required = false) String participant
+    ) {
+        if (!actsFor(participant, dto.getRequestingBankBic())) {
+            return forbidden();
+        }
+        return balanceInquiryTrusted(dto);
+    }
+
+    // Trusted in-process entry points (framed endpoint, tests): no participant check,
+    // the caller vouches for the BICs in the request
+
+    public CompletableFuture<ResponseEntity<String>> verifyAccountTrusted(AccountVerificationRequest request) {
+        return admission.admit(request.getRequestingBankBic(),
+                () -> faults.apply(FaultEndpoint.ACCOUNT_VERIFICATION, request.getTargetBankBic(),
+                        () -> schemaValidator.checkResponse(IsoMessageType.CAMT_004,
+                                transactionService.verifyAccount(request)),
+                        reason -> transactionService.rejectAccountQuery(request, reason)));
+    }
+
+    public CompletableFuture<ResponseEntity<String>> creditTransferTrusted(CreditTransferRequest request) {
+        return admission.admit(request.getInitiatorBic(),
+                () -> faults.apply(FaultEndpoint.CREDIT_TRANSFER, request.getRecipientBic(),
+                        () -> schemaValidator.checkResponse(IsoMessageType.PACS_002,
+                                transactionService.processCreditTransfer(request)),
+                        reason -> transactionService.rejectCreditTransfer(request, reason)),
+                shed -> transactionService.rejectCreditTransfer(request, "NARR", shed));
     }
 
-}
\ No newline at end of file
+    public CompletableFuture<ResponseEntity<String>> balanceInquiryTrusted(AccountVerificationRequest dto) {
+        return admission.admit(dto.getRequestingBankBic(),
+                () -> faults.apply(FaultEndpoint.BALANCE_INQUIRY, dto.getTargetBankBic(),
+                        () -> schemaValidator.checkResponse(IsoMessageType.CAMT_004,
+                                transactionService.balanceInquiryFromIsoXml(dto)),
+                        reason -> transactionService.rejectAccountQuery(dto, reason)));
+    }
+
+    // ------- Helpers -------
+
+    // Without an authenticated participant only when auth is off
+    private boolean actsFor(String participant, String bic) {
+        return participant != null ? Bic.sameParticipant(participant, bic) : !authenticator.isEnabled();
+    }
+
+    private static CompletableFuture<ResponseEntity<String>> forbidden() {
+        return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.FORBIDDEN).build());
+    }
+}
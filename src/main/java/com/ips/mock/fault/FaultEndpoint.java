@@ -0,0 +1,20 @@
+package com.ips.mock.fault;
+
+/**
+ * Endpoints a {@link FaultProfile} can slow down or fail, each answering for the
+ * participant named in the request.
+ */
+public enum FaultEndpoint {
+    /** camt.004 account verification, for the target bank. */
+    ACCOUNT_VERIFICATION,
+    /** pacs.008 / pacs.002 credit transfer, for the recipient bank. */
+    CREDIT_TRANSFER,
+    /** camt.004 balance inquiry, for the target bank. */
+    BALANCE_INQUIRY,
+    /** MT103 received at Bank B, for the creditor agent. */
+    MT103,
+    /** pacs.008 received at Bank B, for the creditor agent. */
+    PACS_008;
+
+    final String tag = name().toLowerCase().replace('_', '-');
+}
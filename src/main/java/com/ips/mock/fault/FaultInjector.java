@@ -0,0 +1,177 @@
+package com.ips.mock.fault;
+
+import com.ips.mock.participant.ParticipantDirectory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Applies the configured {@link FaultProfile}s to endpoint responses.
+ * <p>
+ * A delayed response is not slept on: the request is handled right away and its
+ * future is completed later by a single timer thread, so any number of slow
+ * participants cost one scheduled task each rather than a thread. Requests without
+ * a matching profile get an already completed future.
+ * <p>
+ * The most specific profile wins: one naming the participant over one for any BIC,
+ * and within those the first declared. Profile and request BICs are both resolved
+ * through the {@link ParticipantDirectory}, so case, branch code and aliases do not
+ * matter. A response that goes through undelayed counts as a pass-through.
+ */
+@Service
+@Slf4j
+public class FaultInjector {
+
+    enum Outcome {
+        PASS,
+        DELAY,
+        TIMEOUT,
+        ERROR,
+        REJECT;
+
+        final String tag = name().toLowerCase();
+    }
+
+    private final Map<FaultEndpoint, Map<String, FaultProfile>> byBic = new EnumMap<>(FaultEndpoint.class);
+    private final Map<FaultEndpoint, FaultProfile> anyBic = new EnumMap<>(FaultEndpoint.class);
+    private final ParticipantDirectory directory;
+    private final boolean active;
+    private final ScheduledThreadPoolExecutor timer;
+    private final Map<FaultEndpoint, Map<Outcome, Counter>> injected = new EnumMap<>(FaultEndpoint.class);
+
+    public FaultInjector(FaultProperties properties, ParticipantDirectory directory, MeterRegistry registry) {
+        this.directory = directory;
+        for (FaultEndpoint endpoint : FaultEndpoint.values()) {
+            byBic.put(endpoint, new HashMap<>());
+            Map<Outcome, Counter> counters = new EnumMap<>(Outcome.class);
+            for (Outcome outcome : Outcome.values()) {
+                counters.put(outcome, Counter.builder("ips.faults.injected")
+                        .description("Responses delayed or failed by a fault profile")
+                        .tag("endpoint", endpoint.tag)
+                        .tag("outcome", outcome.tag)
+                        .register(registry));
+            }
+            injected.put(endpoint, counters);
+        }
+        properties.getProfiles().forEach((name, profile) -> {
+            List<FaultEndpoint> endpoints = profile.getEndpoints().isEmpty()
+                    ? List.of(FaultEndpoint.values())
+                    : profile.getEndpoints();
+            for (FaultEndpoint endpoint : endpoints) {
+                if (profile.getBics().isEmpty()) {
+                    anyBic.putIfAbsent(endpoint, profile);
+                }
+                for (String bic : profile.getBics()) {
+                    byBic.get(endpoint).putIfAbsent(directory.canonical(bic), profile);
+                }
+            }
+            log.info("[FAULTS] Profile {}: bics={} endpoints={} latency={} timeout={} error={} reject={}",
+                    name, profile.getBics(), endpoints, profile.getLatency(),
+                    profile.getTimeoutRate(), profile.getErrorRate(), profile.getRejectRate());
+        });
+        this.active = !properties.getProfiles().isEmpty();
+
+        this.timer = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "fault-timer");
+            t.setDaemon(true);
+            return t;
+        });
+        timer.setRemoveOnCancelPolicy(true);
+        Gauge.builder("ips.faults.pending", timer, t -> t.getQueue().size())
+                .description("Responses waiting out an injected delay or timeout")
+                .register(registry);
+    }
+
+    /**
+     * The response of {@code call} for a request to {@code bic}, delayed or replaced
+     * as its profile says. {@code reject} renders the business reject for a reason
+     * code such as AC04. Without a profile the call runs and the future is already done.
+     */
+    public <T> CompletableFuture<ResponseEntity<T>> apply(FaultEndpoint endpoint, String bic,
+                                                          Supplier<ResponseEntity<T>> call,
+                                                          Function<String, ResponseEntity<T>> reject) {
+        FaultProfile profile = active ? find(endpoint, bic) : null;
+        if (profile == null) {
+            return CompletableFuture.completedFuture(call.get());
+        }
+
+        Random random = ThreadLocalRandom.current();
+        double draw = random.nextDouble();
+        Outcome outcome;
+        ResponseEntity<T> response;
+        long delayMillis;
+        if (draw < profile.getTimeoutRate()) {
+            outcome = Outcome.TIMEOUT;
+            response = ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).build();
+            delayMillis = profile.getTimeout().toMillis();
+        } else {
+            draw -= profile.getTimeoutRate();
+            if (draw < profile.getErrorRate()) {
+                outcome = Outcome.ERROR;
+                response = ResponseEntity.status(profile.getErrorStatus()).build();
+            } else if (draw - profile.getErrorRate() < profile.getRejectRate() && !profile.getRejectReasons().isEmpty()) {
+                outcome = Outcome.REJECT;
+                List<String> reasons = profile.getRejectReasons();
+                response = reject.apply(reasons.get(random.nextInt(reasons.size())));
+            } else {
+                outcome = Outcome.DELAY;
+                response = call.get();
+            }
+            delayMillis = sampleDelayMillis(profile, random);
+            if (outcome == Outcome.DELAY && delayMillis <= 0) {
+                outcome = Outcome.PASS;
+            }
+        }
+
+        injected.get(endpoint).get(outcome).increment();
+        if (delayMillis <= 0) {
+            return CompletableFuture.completedFuture(response);
+        }
+        CompletableFuture<ResponseEntity<T>> future = new CompletableFuture<>();
+        timer.schedule(() -> future.complete(response), delayMillis, TimeUnit.MILLISECONDS);
+        return future;
+    }
+
+    @PreDestroy
+    public void close() {
+        timer.shutdownNow();
+    }
+
+    // ------- Helpers -------
+
+    private FaultProfile find(FaultEndpoint endpoint, String bic) {
+        Map<String, FaultProfile> profiles = byBic.get(endpoint);
+        if (bic != null && !profiles.isEmpty()) {
+            FaultProfile p = profiles.get(directory.canonical(bic));
+            if (p != null) {
+                return p;
+            }
+        }
+        return anyBic.get(endpoint);
+    }
+
+    private static long sampleDelayMillis(FaultProfile profile, Random random) {
+        if (profile.getLatency() == null) {
+            return 0;
+        }
+        double millis = profile.getLatency().sampleMillis(profile, random);
+        return (long) Math.max(0, Math.min(millis, profile.getLatencyMax().toMillis()));
+    }
+}
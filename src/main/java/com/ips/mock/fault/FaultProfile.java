@@ -0,0 +1,42 @@
+package com.ips.mock.fault;
+
+import lombok.Data;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * How one simulated participant misbehaves, bound from
+ * {@code ips.faults.profiles.<name>.*}. Empty {@code bics} or {@code endpoints}
+ * match every participant or endpoint.
+ * <p>
+ * Each request draws one outcome: a timeout with timeout-rate, an HTTP error with
+ * error-rate, a business reject (one of reject-reasons) with reject-rate, otherwise
+ * the real response. Everything but the timeout is delayed by the latency
+ * distribution, capped at latency-max.
+ */
+@Data
+public class FaultProfile {
+
+    private List<String> bics = new ArrayList<>();
+    private List<FaultEndpoint> endpoints = new ArrayList<>();
+
+    /** No added delay when unset. */
+    private LatencyDistribution latency;
+    /** Fixed delay, normal mean or long-tail median. */
+    private Duration latencyMean = Duration.ZERO;
+    private Duration latencyStddev = Duration.ZERO;
+    private double latencySigma = 1.0;
+    private Duration latencyMax = Duration.ofSeconds(60);
+
+    private double timeoutRate;
+    /** How long a timed-out request is held before it is answered with 504. */
+    private Duration timeout = Duration.ofSeconds(30);
+
+    private double errorRate;
+    private int errorStatus = 503;
+
+    private double rejectRate;
+    private List<String> rejectReasons = new ArrayList<>(List.of("AC04", "AM04"));
+}
@@ -0,0 +1,24 @@
+package com.ips.mock.fault;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Named fault profiles, e.g.
+ * {@code ips.faults.profiles.slow-bank.bics=PMFTSL1K} with
+ * {@code ips.faults.profiles.slow-bank.latency=long-tail}. No profiles means no
+ * injection at all.
+ */
+@Component
+@ConfigurationProperties(prefix = "ips.faults")
+@Getter
+@Setter
+public class FaultProperties {
+
+    private Map<String, FaultProfile> profiles = new LinkedHashMap<>();
+}
@@ -0,0 +1,35 @@
+package com.ips.mock.fault;
+
+import java.util.Random;
+
+/**
+ * Shape of the delay a {@link FaultProfile} adds to each response.
+ */
+public enum LatencyDistribution {
+    /** Always latency-mean. */
+    FIXED {
+        @Override
+        double sampleMillis(FaultProfile p, Random random) {
+            return p.getLatencyMean().toMillis();
+        }
+    },
+    /** Gaussian around latency-mean with latency-stddev, never below zero. */
+    NORMAL {
+        @Override
+        double sampleMillis(FaultProfile p, Random random) {
+            return p.getLatencyMean().toMillis() + random.nextGaussian() * p.getLatencyStddev().toMillis();
+        }
+    },
+    /**
+     * Log-normal with latency-mean as the median and latency-sigma as the shape:
+     * most responses near the median, a few orders of magnitude slower.
+     */
+    LONG_TAIL {
+        @Override
+        double sampleMillis(FaultProfile p, Random random) {
+            return p.getLatencyMean().toMillis() * Math.exp(random.nextGaussian() * p.getLatencySigma());
+        }
+    };
+
+    abstract double sampleMillis(FaultProfile profile, Random random);
+}
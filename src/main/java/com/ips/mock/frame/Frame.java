@@ -0,0 +1,72 @@
+package com.ips.mock.frame;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * One message on the framed endpoint. On the wire:
+ * <pre>
+ * int  length           bytes that follow (big-endian), at least 9
+ * byte type             {@link FrameType} code
+ * long correlationId    chosen by the client, echoed on the reply
+ * length - 9 bytes      UTF-8 payload (the XML or MT text)
+ * </pre>
+ * Replies may come back in any order; the correlation id ties them to their request.
+ */
+public final class Frame {
+
+    /** Bytes of a frame before the payload: length, type and correlation id. */
+    public static final int HEADER_BYTES = 4 + 1 + 8;
+
+    private final FrameType type;
+    private final long correlationId;
+    private final String payload;
+
+    public Frame(FrameType type, long correlationId, String payload) {
+        this.type = type;
+        this.correlationId = correlationId;
+        this.payload = payload;
+    }
+
+    public FrameType getType() {
+        return type;
+    }
+
+    public long getCorrelationId() {
+        return correlationId;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    /**
+     * The whole frame, length prefix included, ready to be written.
+     */
+    public ByteBuffer encode() {
+        byte[] body = payload != null ? payload.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        ByteBuffer buf = ByteBuffer.allocate(HEADER_BYTES + body.length);
+        buf.putInt(body.length + HEADER_BYTES - 4);
+        buf.put(type.code);
+        buf.putLong(correlationId);
+        buf.put(body);
+        return buf.flip();
+    }
+
+    /**
+     * Read one frame of {@code length} bytes (the prefix already consumed) from the
+     * buffer. The type is null for an unknown code.
+     */
+    static Frame decode(ByteBuffer buf, int length) {
+        FrameType type = FrameType.fromCode(buf.get());
+        long correlationId = buf.getLong();
+        byte[] body = new byte[length - 9];
+        buf.get(body);
+        return new Frame(type, correlationId, new String(body, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public String toString() {
+        return "Frame{" + type + ", correlationId=" + correlationId + ", " + (payload != null ? payload.length() : 0) + " chars}";
+    }
+}
@@ -0,0 +1,35 @@
+package com.ips.mock.frame;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * State of one client connection. The read buffer, the replies being written, the
+ * in-flight count and the selection key are only touched by the I/O thread; workers
+ * append replies to {@link #outbound} and hand the connection back to the I/O thread.
+ */
+final class FrameConnection {
+
+    final long id;
+    final SocketChannel channel;
+    final SelectionKey key;
+    final Queue<ByteBuffer> outbound = new ConcurrentLinkedQueue<>();
+
+    final ArrayDeque<ByteBuffer> writing = new ArrayDeque<>();
+    ByteBuffer in;
+    // Requests read whose reply has not been completely written yet
+    int inFlight;
+    boolean readPaused;
+    volatile boolean closed;
+
+    FrameConnection(long id, SocketChannel channel, SelectionKey key, int bufferSize) {
+        this.id = id;
+        this.channel = channel;
+        this.key = key;
+        this.in = ByteBuffer.allocate(bufferSize);
+    }
+}
@@ -0,0 +1,119 @@
+package com.ips.mock.frame;
+
+import com.ips.mock.controller.SwiftSimulationController;
+import com.ips.mock.controller.TransactionController;
+import com.ips.mock.request.AccountVerificationRequest;
+import com.ips.mock.request.CreditTransferRequest;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Turns a request frame into its reply by handing it to the same controller method
+ * the HTTP endpoint uses, so both paths share validation, state and metrics:
+ * <ul>
+ *   <li>pacs.008 -&gt; credit transfer -&gt; pacs.002</li>
+ *   <li>camt.003 -&gt; balance inquiry -&gt; camt.004</li>
+ *   <li>MT103 -&gt; received at Bank B -&gt; MT910</li>
+ * </ul>
+ * The reply may complete later, e.g. when a fault profile delays the participant.
+ * The ISO messages are read the way the rest of the mock reads them: a handful of
+ * elements picked out by tag, not a schema-bound parse. A camt.003 is expected to
+ * carry the account in {@code <Acct>}, its servicer BIC in {@code <Svcr>} and the
+ * requesting BIC in {@code <ReqngPty>}.
+ */
+final class FrameHandler {
+
+    private final TransactionController transactionController;
+    private final SwiftSimulationController swiftController;
+
+    FrameHandler(TransactionController transactionController, SwiftSimulationController swiftController) {
+        this.transactionController = transactionController;
+        this.swiftController = swiftController;
+    }
+
+    CompletableFuture<Frame> handle(Frame request) {
+        FrameType type = request.getType();
+        if (type == null || type.replyType() == null) {
+            return CompletableFuture.completedFuture(error(request, "Unsupported frame type"));
+        }
+        String payload = request.getPayload();
+        if (payload == null || payload.isBlank()) {
+            return CompletableFuture.completedFuture(error(request, "Empty " + type.tag));
+        }
+        CompletableFuture<ResponseEntity<String>> response = switch (type) {
+            case PACS_008 -> transactionController.creditTransferTrusted(creditTransfer(payload));
+            case CAMT_003 -> transactionController.balanceInquiryTrusted(balanceInquiry(payload));
+            case MT103 -> swiftController.receiveMt103AtBankB(payload);
+            default -> throw new IllegalStateException(type.name());
+        };
+        return response.thenApply(r -> {
+            if (r.getBody() == null) {
+                return error(request, "No " + type.replyType().tag + " (HTTP " + r.getStatusCode().value() + ")");
+            }
+            // A rejecting pacs.002 / camt.004 error is still the regular reply
+            return new Frame(type.replyType(), request.getCorrelationId(), r.getBody());
+        });
+    }
+
+    static Frame error(Frame request, String reason) {
+        return new Frame(FrameType.ERROR, request.getCorrelationId(), reason);
+    }
+
+    // ------- Helpers -------
+
+    private static CreditTransferRequest creditTransfer(String xml) {
+        CreditTransferRequest r = new CreditTransferRequest();
+        r.setInitiatorBic(bic(extractBetween(xml, "<DbtrAgt>", "</DbtrAgt>")));
+        r.setInitiatorAccountNumber(accountId(extractBetween(xml, "<DbtrAcct>", "</DbtrAcct>")));
+        r.setRecipientBic(bic(extractBetween(xml, "<CdtrAgt>", "</CdtrAgt>")));
+        r.setRecipientAccountNumber(accountId(extractBetween(xml, "<CdtrAcct>", "</CdtrAcct>")));
+        r.setEndToEndId(extractBetween(xml, "<EndToEndId>", "</EndToEndId>"));
+
+        int amtTag = xml.indexOf("<IntrBkSttlmAmt");
+        if (amtTag >= 0) {
+            r.setCurrency(extractBetween(xml.substring(amtTag), "Ccy=\"", "\""));
+            String amount = extractBetween(xml.substring(amtTag), ">", "</IntrBkSttlmAmt>");
+            try {
+                r.setAmount(amount != null ? new BigDecimal(amount) : null);
+            } catch (NumberFormatException e) {
+                // left null; the credit transfer rejects it as an invalid amount
+            }
+        }
+        return r;
+    }
+
+    private static AccountVerificationRequest balanceInquiry(String xml) {
+        AccountVerificationRequest r = new AccountVerificationRequest();
+        r.setReference(extractBetween(xml, "<MsgId>", "</MsgId>"));
+        r.setRequestingBankBic(bic(extractBetween(xml, "<ReqngPty>", "</ReqngPty>")));
+        r.setTargetBankBic(bic(extractBetween(xml, "<Svcr>", "</Svcr>")));
+        r.setAccountNumber(accountId(extractBetween(xml, "<Acct>", "</Acct>")));
+        return r;
+    }
+
+    private static String bic(String block) {
+        if (block == null) return null;
+        String bic = extractBetween(block, "<BICFI>", "</BICFI>");
+        return bic != null ? bic : extractBetween(block, "<AnyBIC>", "</AnyBIC>");
+    }
+
+    // Othr/Id or IBAN inside an account block
+    private static String accountId(String block) {
+        if (block == null) return null;
+        String iban = extractBetween(block, "<IBAN>", "</IBAN>");
+        if (iban != null) return iban;
+        String othr = extractBetween(block, "<Othr>", "</Othr>");
+        return extractBetween(othr != null ? othr : block, "<Id>", "</Id>");
+    }
+
+    private static String extractBetween(String text, String startTag, String endTag) {
+        int s = text.indexOf(startTag);
+        if (s < 0) return null;
+        s += startTag.length();
+        int e = text.indexOf(endTag, s);
+        if (e < 0) return null;
+        return text.substring(s, e).trim();
+    }
+}
@@ -0,0 +1,55 @@
+package com.ips.mock.frame;
+
+/**
+ * Message types of the framed endpoint, with their one-byte wire codes. Each request
+ * type names the type of its reply.
+ */
+public enum FrameType {
+
+    PACS_008(1),
+    PACS_002(2),
+    CAMT_003(3),
+    CAMT_004(4),
+    MT103(5),
+    MT910(6),
+    /** Reply to a frame that could not be handled; the payload is a short reason. */
+    ERROR(127);
+
+    private static final FrameType[] BY_CODE = new FrameType[128];
+
+    static {
+        for (FrameType t : values()) {
+            BY_CODE[t.code] = t;
+        }
+    }
+
+    final byte code;
+    final String tag = name().toLowerCase().replace('_', '.');
+
+    FrameType(int code) {
+        this.code = (byte) code;
+    }
+
+    /**
+     * The reply type for a request type, or null when this type is not a request.
+     */
+    public FrameType replyType() {
+        return switch (this) {
+            case PACS_008 -> PACS_002;
+            case CAMT_003 -> CAMT_004;
+            case MT103 -> MT910;
+            default -> null;
+        };
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    /**
+     * @return the type with the given wire code, or null if there is none
+     */
+    public static FrameType fromCode(byte code) {
+        return code >= 0 ? BY_CODE[code] : null;
+    }
+}
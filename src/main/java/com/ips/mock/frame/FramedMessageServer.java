@@ -0,0 +1,367 @@
+package com.ips.mock.frame;
+
+import com.ips.mock.auth.ParticipantAuthenticator;
+import com.ips.mock.controller.SwiftSimulationController;
+import com.ips.mock.controller.TransactionController;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TCP endpoint for participants that keep a connection open and exchange
+ * length-prefixed {@link Frame}s instead of making an HTTP request per message.
+ * <p>
+ * One I/O thread runs the selector: it accepts connections, cuts the byte stream
+ * into frames and writes replies back with gathering writes. Each frame is handled
+ * on one of ips.frames.worker-threads by {@link FrameHandler}, so a connection can
+ * pipeline many requests and gets the replies in completion order, matched by
+ * correlation id. A request counts as in flight until its reply has been written
+ * to the socket, and once a connection has ips.frames.max-in-flight of them the
+ * server stops reading from it, so a client that does not read its replies cannot
+ * make them pile up. A frame longer than
+ * ips.frames.max-frame-size closes the connection.
+ * <p>
+ * Frames carry no credentials: the BICs in a message are taken at their word, as
+ * for a trusted in-process caller. The server therefore refuses to start while
+ * participant authentication (ips.auth.enabled) is on.
+ */
+@Component
+@ConditionalOnProperty(prefix = "ips.frames", name = "enabled", havingValue = "true")
+@Slf4j
+public class FramedMessageServer {
+
+    private static final int READ_BUFFER = 64 * 1024;
+    private static final int WRITE_BATCH = 64;
+
+    private final FrameHandler handler;
+    private final int maxFrameSize;
+    private final int maxInFlight;
+
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final ExecutorService workers;
+    private final Thread ioThread;
+    private final Map<Long, FrameConnection> connections = new ConcurrentHashMap<>();
+    private final Queue<FrameConnection> ready = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean wakeupPending = new AtomicBoolean();
+    private final AtomicLong ids = new AtomicLong();
+    // I/O thread only
+    private final ByteBuffer[] gather = new ByteBuffer[WRITE_BATCH];
+    private volatile boolean running = true;
+
+    private final Map<FrameType, Counter> received = new EnumMap<>(FrameType.class);
+    private final Map<FrameType, Timer> handled = new EnumMap<>(FrameType.class);
+    private final Counter errors;
+
+    public FramedMessageServer(TransactionController transactionController,
+                               SwiftSimulationController swiftController,
+                               ParticipantAuthenticator authenticator,
+                               MeterRegistry registry,
+                               @Value("${ips.frames.port:9400}") int port,
+                               @Value("${ips.frames.worker-threads:8}") int workerThreads,
+                               @Value("${ips.frames.max-frame-size:1048576}") int maxFrameSize,
+                               @Value("${ips.frames.max-in-flight:256}") int maxInFlight) {
+        if (authenticator.isEnabled()) {
+            throw new IllegalStateException("The framed endpoint does not authenticate participants;"
+                    + " set ips.frames.enabled=false while ips.auth.enabled=true");
+        }
+        this.handler = new FrameHandler(transactionController, swiftController);
+        this.maxFrameSize = maxFrameSize;
+        this.maxInFlight = maxInFlight;
+
+        for (FrameType type : FrameType.values()) {
+            if (type.replyType() == null) {
+                continue;
+            }
+            received.put(type, Counter.builder("ips.frames.received")
+                    .description("Request frames received on the framed endpoint")
+                    .tag("type", type.tag)
+                    .register(registry));
+            handled.put(type, Timer.builder("ips.frames.handled")
+                    .description("Time from a request frame being read to its reply being queued")
+                    .tag("type", type.tag)
+                    .register(registry));
+        }
+        this.errors = Counter.builder("ips.frames.errors")
+                .description("Frames answered with an error frame, and connections closed for a bad frame")
+                .register(registry);
+        Gauge.builder("ips.frames.connections", connections, Map::size)
+                .description("Open connections on the framed endpoint")
+                .register(registry);
+
+        try {
+            this.selector = Selector.open();
+            this.server = ServerSocketChannel.open();
+            server.bind(new InetSocketAddress(port));
+            server.configureBlocking(false);
+            server.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not listen for frames on port " + port, e);
+        }
+
+        AtomicInteger workerIds = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerThreads, r -> daemon(r, "frames-worker-" + workerIds.incrementAndGet()));
+        this.ioThread = daemon(this::run, "frames-io");
+        ioThread.start();
+        log.info("[FRAMES] Listening on port {} ({} workers, max {} in flight per connection)",
+                getPort(), workerThreads, maxInFlight);
+    }
+
+    /**
+     * The port actually bound, e.g. when ips.frames.port is 0.
+     */
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        running = false;
+        selector.wakeup();
+        ioThread.join(TimeUnit.SECONDS.toMillis(5));
+        workers.shutdownNow();
+    }
+
+    // ------- Helpers -------
+
+    private void run() {
+        try {
+            while (running) {
+                selector.select();
+                wakeupPending.set(false);
+                FrameConnection c;
+                while ((c = ready.poll()) != null) {
+                    flush(c);
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        try {
+                            accept();
+                        } catch (IOException e) {
+                            log.warn("[FRAMES] Accept failed: {}", e.toString());
+                        }
+                        continue;
+                    }
+                    c = (FrameConnection) key.attachment();
+                    if (key.isReadable()) {
+                        read(c);
+                    }
+                    if (!c.closed && key.isWritable()) {
+                        write(c);
+                    }
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            log.error("[FRAMES] Selector failed, endpoint stopped", e);
+        } finally {
+            connections.values().forEach(this::close);
+            closeQuietly(server);
+            closeQuietly(selector);
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            FrameConnection c = new FrameConnection(ids.incrementAndGet(), channel, key, READ_BUFFER);
+            key.attach(c);
+            connections.put(c.id, c);
+            log.debug("[FRAMES] Connection {} from {}", c.id, channel.getRemoteAddress());
+        }
+    }
+
+    private void read(FrameConnection c) {
+        int n;
+        try {
+            n = c.channel.read(c.in);
+        } catch (IOException e) {
+            close(c);
+            return;
+        }
+        if (n < 0) {
+            close(c);
+            return;
+        }
+
+        ByteBuffer in = c.in.flip();
+        int needed = 0;
+        while (in.remaining() >= 4) {
+            int length = in.getInt(in.position());
+            if (length < Frame.HEADER_BYTES - 4 || length > maxFrameSize) {
+                errors.increment();
+                log.warn("[FRAMES] Connection {} sent a frame of {} bytes, closing", c.id, length);
+                close(c);
+                return;
+            }
+            if (in.remaining() < 4 + length) {
+                needed = 4 + length;
+                break;
+            }
+            in.getInt();
+            dispatch(c, Frame.decode(in, length));
+        }
+        if (needed > in.capacity()) {
+            c.in = ByteBuffer.allocate(needed).put(in);
+        } else {
+            in.compact();
+        }
+
+        if (c.inFlight >= maxInFlight && !c.readPaused) {
+            c.readPaused = true;
+            c.key.interestOps(c.key.interestOps() & ~SelectionKey.OP_READ);
+        }
+    }
+
+    private void dispatch(FrameConnection c, Frame request) {
+        long start = System.nanoTime();
+        Counter counter = request.getType() != null ? received.get(request.getType()) : null;
+        if (counter != null) {
+            counter.increment();
+        }
+        c.inFlight++;
+        workers.execute(() -> {
+            CompletableFuture<Frame> reply;
+            try {
+                reply = handler.handle(request);
+            } catch (RuntimeException e) {
+                reply = CompletableFuture.failedFuture(e);
+            }
+            reply.whenComplete((frame, e) -> {
+                if (e != null) {
+                    log.warn("[FRAMES] {} on connection {} failed: {}", request, c.id, e.toString());
+                    frame = FrameHandler.error(request, "Failed: " + e.getClass().getSimpleName());
+                }
+                if (counter != null) {
+                    handled.get(request.getType()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+                reply(c, frame);
+            });
+        });
+    }
+
+    // On a worker, or on the thread completing a delayed reply
+    private void reply(FrameConnection c, Frame reply) {
+        if (reply.getType() == FrameType.ERROR) {
+            errors.increment();
+        }
+        c.outbound.add(reply.encode());
+        ready.add(c);
+        if (wakeupPending.compareAndSet(false, true)) {
+            selector.wakeup();
+        }
+    }
+
+    private void flush(FrameConnection c) {
+        if (!c.closed) {
+            write(c);
+        }
+    }
+
+    private void write(FrameConnection c) {
+        ByteBuffer b;
+        while ((b = c.outbound.poll()) != null) {
+            c.writing.add(b);
+        }
+        try {
+            while (!c.writing.isEmpty()) {
+                int n = 0;
+                for (ByteBuffer pending : c.writing) {
+                    gather[n++] = pending;
+                    if (n == WRITE_BATCH) {
+                        break;
+                    }
+                }
+                c.channel.write(gather, 0, n);
+                while (!c.writing.isEmpty() && !c.writing.peek().hasRemaining()) {
+                    c.writing.poll();
+                    c.inFlight--;
+                }
+                if (gather[n - 1].hasRemaining()) {
+                    break; // socket buffer full
+                }
+            }
+        } catch (IOException e) {
+            close(c);
+            return;
+        } finally {
+            Arrays.fill(gather, null);
+        }
+        int ops = c.writing.isEmpty() ? c.key.interestOps() & ~SelectionKey.OP_WRITE : c.key.interestOps() | SelectionKey.OP_WRITE;
+        // Only read more once replies have actually gone out
+        if (c.readPaused && c.inFlight < maxInFlight) {
+            c.readPaused = false;
+            ops |= SelectionKey.OP_READ;
+        }
+        c.key.interestOps(ops);
+    }
+
+    private void close(FrameConnection c) {
+        if (c.closed) {
+            return;
+        }
+        c.closed = true;
+        c.key.cancel();
+        closeQuietly(c.channel);
+        connections.remove(c.id);
+        log.debug("[FRAMES] Connection {} closed", c.id);
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // already gone
+        }
+    }
+
+    private static Thread daemon(Runnable r, String name) {
+        Thread t = new Thread(r, name);
+        t.setDaemon(true);
+        return t;
+    }
+}
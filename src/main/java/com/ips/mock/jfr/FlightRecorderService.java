@@ -0,0 +1,131 @@
+package com.ips.mock.jfr;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Optional always-on flight recording (ips.jfr.enabled) kept as a rolling window on
+ * disk, dumped on demand or automatically when a single payment takes longer than
+ * ips.jfr.spike-threshold-ms. Automatic dumps are rate limited to one per
+ * ips.jfr.spike-cooldown and are written off the request thread.
+ */
+@Service
+@Slf4j
+public class FlightRecorderService {
+
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final boolean enabled;
+    private final Path dumpDir;
+    private final long spikeThresholdNanos;
+    private final long spikeCooldownNanos;
+
+    private final AtomicLong lastSpikeDump = new AtomicLong(Long.MIN_VALUE / 2);
+    private Recording recording;
+    private ExecutorService dumper;
+
+    public FlightRecorderService(@Value("${ips.jfr.enabled:false}") boolean enabled,
+                                 @Value("${ips.jfr.dump-dir:jfr-dumps}") String dumpDir,
+                                 @Value("${ips.jfr.max-age:10m}") Duration maxAge,
+                                 @Value("${ips.jfr.max-size-mb:256}") long maxSizeMb,
+                                 @Value("${ips.jfr.settings:default}") String settings,
+                                 @Value("${ips.jfr.spike-threshold-ms:0}") long spikeThresholdMs,
+                                 @Value("${ips.jfr.spike-cooldown:1m}") Duration spikeCooldown) {
+        this.enabled = enabled;
+        this.dumpDir = Paths.get(dumpDir);
+        this.spikeThresholdNanos = TimeUnit.MILLISECONDS.toNanos(spikeThresholdMs);
+        this.spikeCooldownNanos = spikeCooldown.toNanos();
+
+        if (enabled) {
+            try {
+                recording = new Recording(Configuration.getConfiguration(settings));
+                recording.setName("ips-mock-always-on");
+                recording.setToDisk(true);
+                recording.setMaxAge(maxAge);
+                recording.setMaxSize(maxSizeMb * 1024 * 1024);
+                recording.enable(PaymentStageEvent.class);
+                recording.start();
+                dumper = Executors.newSingleThreadExecutor(r -> {
+                    Thread t = new Thread(r, "jfr-dumper");
+                    t.setDaemon(true);
+                    return t;
+                });
+                log.info("[JFR] Always-on recording started (settings={}, maxAge={}, maxSize={}MB)",
+                        settings, maxAge, maxSizeMb);
+            } catch (IOException | ParseException e) {
+                log.error("[JFR] Could not start recording: {}", e.getMessage(), e);
+                recording = null;
+            }
+        }
+    }
+
+    public boolean isRecording() {
+        return recording != null;
+    }
+
+    /**
+     * Dump the current window of the always-on recording.
+     *
+     * @return the file written, or null if no recording is running
+     */
+    public Path dump(String reason) throws IOException {
+        if (recording == null) {
+            return null;
+        }
+        Files.createDirectories(dumpDir);
+        Path file = dumpDir.resolve("ips-mock-" + LocalDateTime.now().format(FILE_TIME)
+                + "-" + reason.replaceAll("[^A-Za-z0-9_.-]", "_") + ".jfr");
+        recording.dump(file);
+        log.info("[JFR] Recording dumped to {}", file.toAbsolutePath());
+        return file;
+    }
+
+    /**
+     * Report the end-to-end processing time of a payment; dumps the recording in the
+     * background if it crosses the spike threshold.
+     */
+    public void onPaymentCompleted(String msgId, long elapsedNanos) {
+        if (recording == null || spikeThresholdNanos <= 0 || elapsedNanos < spikeThresholdNanos) {
+            return;
+        }
+        long now = System.nanoTime();
+        long last = lastSpikeDump.get();
+        if (now - last < spikeCooldownNanos || !lastSpikeDump.compareAndSet(last, now)) {
+            return;
+        }
+        log.warn("[JFR] Payment {} took {} ms, dumping recording", msgId,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        dumper.execute(() -> {
+            try {
+                dump("spike-" + msgId);
+            } catch (IOException e) {
+                log.error("[JFR] Dump failed: {}", e.getMessage(), e);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (recording != null) {
+            dumper.shutdown();
+            recording.close();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.ips.mock.jfr;
+
+/**
+ * Identifiers of the payment the current thread is working on, so that code further
+ * down (e.g. storage flushes) can tag its JFR events without taking extra parameters.
+ */
+public final class PaymentContext {
+
+    private static final ThreadLocal<PaymentContext> CURRENT = new ThreadLocal<>();
+
+    final String msgId;
+    final String endToEndId;
+    final String debtorBic;
+    final String creditorBic;
+    final Object amount;
+
+    public PaymentContext(String msgId, String endToEndId, String debtorBic, String creditorBic, Object amount) {
+        this.msgId = msgId;
+        this.endToEndId = endToEndId;
+        this.debtorBic = debtorBic;
+        this.creditorBic = creditorBic;
+        this.amount = amount;
+    }
+
+    public static PaymentContext current() {
+        return CURRENT.get();
+    }
+
+    public void attach() {
+        CURRENT.set(this);
+    }
+
+    public static void detach() {
+        CURRENT.remove();
+    }
+
+    public String getMsgId() {
+        return msgId;
+    }
+}
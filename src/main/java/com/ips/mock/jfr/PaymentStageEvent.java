@@ -0,0 +1,102 @@
+package com.ips.mock.jfr;
+
+import com.ips.mock.request.Payment;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for one stage of processing a payment message.
+ * <p>
+ * {@code stage} is one of parse, lookup, settle, render, persist; {@code step} names
+ * the concrete operation (e.g. payer_lookup, buildMt103, accounts). Payment fields are
+ * only filled in when the event is actually going to be recorded.
+ */
+@Name("com.ips.mock.PaymentStage")
+@Label("Payment Stage")
+@Description("One stage of processing a payment message")
+@Category({"IPS Mock", "Payments"})
+@StackTrace(false)
+public class PaymentStageEvent extends Event {
+
+    public static final String PARSE = "parse";
+    public static final String LOOKUP = "lookup";
+    public static final String SETTLE = "settle";
+    public static final String RENDER = "render";
+    public static final String PERSIST = "persist";
+
+    @Label("Stage")
+    String stage;
+
+    @Label("Step")
+    String step;
+
+    @Label("Message Id")
+    String msgId;
+
+    @Label("End To End Id")
+    String endToEndId;
+
+    @Label("Debtor Agent BIC")
+    String debtorBic;
+
+    @Label("Creditor Agent BIC")
+    String creditorBic;
+
+    @Label("Amount")
+    String amount;
+
+    /**
+     * Start timing a stage; what it was is only filled in on completion.
+     */
+    public static PaymentStageEvent start() {
+        PaymentStageEvent event = new PaymentStageEvent();
+        event.begin();
+        return event;
+    }
+
+    public void complete(String stage, String step,
+                         String msgId, String endToEndId, String debtorBic, String creditorBic, Object amount) {
+        end();
+        if (shouldCommit()) {
+            this.stage = stage;
+            this.step = step;
+            this.msgId = msgId;
+            this.endToEndId = endToEndId;
+            this.debtorBic = debtorBic;
+            this.creditorBic = creditorBic;
+            this.amount = amount != null ? amount.toString() : null;
+            commit();
+        }
+    }
+
+    public void complete(String stage, String step, PaymentContext context) {
+        if (context == null) {
+            complete(stage, step, null, null, null, null, null);
+        } else {
+            complete(stage, step, context.msgId, context.endToEndId,
+                    context.debtorBic, context.creditorBic, context.amount);
+        }
+    }
+
+    /**
+     * Complete an event for a Payment-based message; its reference doubles as
+     * message id and end-to-end id in this simulation.
+     */
+    public void complete(String stage, String step, Payment p, String debtorBic, String creditorBic) {
+        end();
+        if (shouldCommit()) {
+            this.stage = stage;
+            this.step = step;
+            this.msgId = p.getReference();
+            this.endToEndId = p.getReference();
+            this.debtorBic = debtorBic;
+            this.creditorBic = creditorBic;
+            this.amount = p.getAmount() != null ? p.getAmount().toString() : null;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.ips.mock.loadgen;
+
+import com.ips.mock.dto.Account;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * Picks accounts uniformly or with a Zipf distribution, where a handful of hot
+ * accounts receive most of the traffic. Ranks are assigned to a seeded shuffle of the
+ * accounts so the hot set is not just the head of the file.
+ */
+public class AccountPicker {
+
+    private final List<Account> accounts;
+    private final double[] cumulative; // null for uniform
+
+    public AccountPicker(List<Account> accounts, LoadGeneratorOptions.Skew skew, double exponent, long seed) {
+        if (accounts.size() < 2) {
+            throw new IllegalArgumentException("Need at least two accounts to generate load");
+        }
+        List<Account> shuffled = new ArrayList<>(accounts);
+        Collections.shuffle(shuffled, new Random(seed));
+        this.accounts = shuffled;
+
+        if (skew == LoadGeneratorOptions.Skew.ZIPF) {
+            int n = shuffled.size();
+            cumulative = new double[n];
+            double sum = 0;
+            for (int rank = 0; rank < n; rank++) {
+                sum += 1.0 / Math.pow(rank + 1, exponent);
+                cumulative[rank] = sum;
+            }
+            for (int rank = 0; rank < n; rank++) {
+                cumulative[rank] /= sum;
+            }
+        } else {
+            cumulative = null;
+        }
+    }
+
+    public Account pick(SplittableRandom random) {
+        if (cumulative == null) {
+            return accounts.get(random.nextInt(accounts.size()));
+        }
+        double u = random.nextDouble();
+        int lo = 0;
+        int hi = cumulative.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (cumulative[mid] < u) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return accounts.get(lo);
+    }
+
+    /**
+     * A second account, different from {@code first}.
+     */
+    public Account pickOther(Account first, SplittableRandom random) {
+        Account other;
+        do {
+            other = pick(random);
+        } while (other == first);
+        return other;
+    }
+}
@@ -0,0 +1,229 @@
+package com.ips.mock.loadgen;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ips.mock.dto.Account;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator for the simulation endpoints.
+ * <p>
+ * Arrivals are scheduled at fixed (or Poisson) intended times regardless of how fast
+ * the server answers. Latency is measured from the intended send time, so queueing
+ * behind a slow response (coordinated omission) shows up in the percentiles instead of
+ * silently lowering the offered rate. The uncorrected service time, measured from the
+ * actual send, is reported next to it.
+ */
+public class LoadGenerator {
+
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    private final LoadGeneratorOptions options;
+    private final AccountPicker picker;
+    private final HttpClient client;
+    private final ExecutorService httpExecutor;
+    private final Semaphore inFlight;
+    private final PrintStream out;
+
+    private final Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+    private final Operation[] weighted;
+    private volatile long measureFrom;
+
+    public LoadGenerator(LoadGeneratorOptions options, PrintStream out) throws IOException {
+        this.options = options;
+        this.out = out;
+
+        List<Account> accounts = new ObjectMapper().readValue(new File(options.getAccountsFile()),
+                new TypeReference<List<Account>>() {
+                });
+        this.picker = new AccountPicker(accounts, options.getSkew(), options.getZipfExponent(), options.getSeed());
+
+        this.httpExecutor = Executors.newFixedThreadPool(Math.min(options.getConcurrency(), 32), r -> {
+            Thread t = new Thread(r, "loadgen-http");
+            t.setDaemon(true);
+            return t;
+        });
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(httpExecutor)
+                .build();
+        this.inFlight = new Semaphore(options.getConcurrency());
+
+        int total = 0;
+        for (Map.Entry<Operation, Integer> e : options.getMix().entrySet()) {
+            if (e.getValue() > 0) {
+                stats.put(e.getKey(), new Stats());
+                total += e.getValue();
+            }
+        }
+        weighted = new Operation[total];
+        int i = 0;
+        for (Map.Entry<Operation, Integer> e : options.getMix().entrySet()) {
+            for (int w = 0; w < e.getValue(); w++) {
+                weighted[i++] = e.getKey();
+            }
+        }
+    }
+
+    public void run() throws InterruptedException {
+        SplittableRandom random = new SplittableRandom(options.getSeed());
+        double meanIntervalNanos = 1_000_000_000.0 / options.getRate();
+        long warmupNanos = options.getWarmup().toNanos();
+        long runNanos = warmupNanos + options.getDuration().toNanos();
+        long reportNanos = options.getReportInterval().toNanos();
+
+        out.printf(Locale.ROOT, "Load: %s rate=%.0f/s arrival=%s concurrency=%d skew=%s mix=%s warmup=%ds duration=%ds%n",
+                options.getBaseUrl(), options.getRate(), options.getArrival(), options.getConcurrency(),
+                options.getSkew(), options.getMix(), options.getWarmup().toSeconds(), options.getDuration().toSeconds());
+
+        long start = System.nanoTime();
+        long nextReport = start + reportNanos;
+        boolean measuring = warmupNanos == 0;
+        measureFrom = start + warmupNanos;
+        double offset = 0;
+
+        while (true) {
+            long intended = start + (long) offset;
+            if (intended - start >= runNanos) {
+                break;
+            }
+            waitUntil(intended);
+
+            long now = System.nanoTime();
+            if (!measuring && now - start >= warmupNanos) {
+                measuring = true;
+                out.println("-- warmup done, measuring --");
+                nextReport = now + reportNanos;
+            }
+            if (now >= nextReport) {
+                printInterval(reportNanos);
+                nextReport += reportNanos;
+            }
+
+            Operation op = weighted[random.nextInt(weighted.length)];
+            Account a = picker.pick(random);
+            Account b = picker.pickOther(a, random);
+            send(op, op.body(a, b, random), intended);
+
+            offset += options.getArrival() == LoadGeneratorOptions.Arrival.POISSON
+                    ? -Math.log(1.0 - random.nextDouble()) * meanIntervalNanos
+                    : meanIntervalNanos;
+        }
+
+        // Drain in-flight requests before the final report
+        inFlight.acquire(options.getConcurrency());
+        long elapsed = System.nanoTime() - start - warmupNanos;
+        printSummary(elapsed);
+        httpExecutor.shutdownNow();
+    }
+
+    private void send(Operation op, String body, long intended) throws InterruptedException {
+        Stats s = stats.get(op);
+        // Blocking here delays the actual send, not the intended time: the wait is part of the latency
+        inFlight.acquire();
+        long sent = System.nanoTime();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(options.getBaseUrl() + op.getPath()))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    long done = System.nanoTime();
+                    inFlight.release();
+                    long latency = Math.min(done - intended, MAX_LATENCY_NANOS);
+                    s.interval.recordValue(latency);
+                    if (intended - measureFrom < 0) {
+                        return; // warmup
+                    }
+                    s.corrected.recordValue(latency);
+                    s.service.recordValue(Math.min(done - sent, MAX_LATENCY_NANOS));
+                    if (error != null || response.statusCode() >= 500) {
+                        s.failed.incrementAndGet();
+                    } else if (response.statusCode() >= 400) {
+                        s.rejected.incrementAndGet();
+                    } else {
+                        s.ok.incrementAndGet();
+                    }
+                });
+    }
+
+    private static void waitUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    // ------- Reporting -------
+
+    private void printInterval(long intervalNanos) {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<Operation, Stats> e : stats.entrySet()) {
+            Histogram h = e.getValue().interval.getIntervalHistogram();
+            sb.append(String.format(Locale.ROOT, " %s=%.0f/s p99=%.2fms",
+                    e.getKey().getKey(), h.getTotalCount() * 1e9 / intervalNanos, ms(h.getValueAtPercentile(99))));
+        }
+        out.println("[interval]" + sb + " inFlight=" + (options.getConcurrency() - inFlight.availablePermits()));
+    }
+
+    private void printSummary(long elapsedNanos) {
+        out.println();
+        out.printf(Locale.ROOT, "%-14s %9s %8s %8s %8s %9s %9s %9s %9s %9s %12s%n",
+                "operation", "count", "2xx", "4xx", "5xx/err", "req/s",
+                "p50 ms", "p99 ms", "p999 ms", "max ms", "p99 svc ms");
+        for (Map.Entry<Operation, Stats> e : stats.entrySet()) {
+            Stats s = e.getValue();
+            Histogram c = s.corrected;
+            Histogram v = s.service;
+            out.printf(Locale.ROOT, "%-14s %9d %8d %8d %8d %9.1f %9.2f %9.2f %9.2f %9.2f %12.2f%n",
+                    e.getKey().getKey(), c.getTotalCount(), s.ok.get(), s.rejected.get(), s.failed.get(),
+                    c.getTotalCount() * 1e9 / elapsedNanos,
+                    ms(c.getValueAtPercentile(50)), ms(c.getValueAtPercentile(99)),
+                    ms(c.getValueAtPercentile(99.9)), ms(c.getMaxValue()),
+                    ms(v.getValueAtPercentile(99)));
+        }
+        out.println("Latencies are from the intended send time (coordinated-omission corrected); "
+                + "'p99 svc' is measured from the actual send.");
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    /**
+     * Per-operation latencies: everything for the interval lines, only post-warmup
+     * arrivals for the totals.
+     */
+    private static final class Stats {
+        final Recorder interval = new Recorder(3);
+        final Histogram corrected = new ConcurrentHistogram(3);
+        final Histogram service = new ConcurrentHistogram(3);
+        final AtomicLong ok = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+    }
+}
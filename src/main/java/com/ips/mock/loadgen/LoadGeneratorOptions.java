@@ -0,0 +1,110 @@
+package com.ips.mock.loadgen;
+
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Command line options of the load generator, given as {@code --name=value}.
+ * <pre>
+ * --base-url=http://localhost:8080
+ * --rate=200                 target arrivals per second (open loop)
+ * --arrival=uniform|poisson  spacing of arrivals
+ * --duration=60s --warmup=10s
+ * --concurrency=64           max requests in flight
+ * --mix=transfer:60,verify:25,balance:15,swift-payment:0,iso-payment:0
+ * --skew=uniform|zipf --zipf-exponent=1.1
+ * --accounts-file=src/main/java/com/ips/mock/data/Accounts.json
+ * --report-interval=5s
+ * --seed=42
+ * </pre>
+ */
+@Getter
+public class LoadGeneratorOptions {
+
+    public enum Arrival { UNIFORM, POISSON }
+
+    public enum Skew { UNIFORM, ZIPF }
+
+    private String baseUrl = "http://localhost:8080";
+    private double rate = 200;
+    private Arrival arrival = Arrival.UNIFORM;
+    private Duration duration = Duration.ofSeconds(60);
+    private Duration warmup = Duration.ofSeconds(10);
+    private int concurrency = 64;
+    private final Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+    private Skew skew = Skew.UNIFORM;
+    private double zipfExponent = 1.1;
+    private String accountsFile = "src/main/java/com/ips/mock/data/Accounts.json";
+    private Duration reportInterval = Duration.ofSeconds(5);
+    private long seed = 42;
+
+    public LoadGeneratorOptions() {
+        mix.put(Operation.TRANSFER, 60);
+        mix.put(Operation.VERIFY, 25);
+        mix.put(Operation.BALANCE, 15);
+    }
+
+    public static LoadGeneratorOptions parse(String[] args) {
+        LoadGeneratorOptions o = new LoadGeneratorOptions();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || arg.indexOf('=') < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            switch (name) {
+                case "base-url" -> o.baseUrl = value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+                case "rate" -> o.rate = Double.parseDouble(value);
+                case "arrival" -> o.arrival = Arrival.valueOf(value.toUpperCase());
+                case "duration" -> o.duration = parseDuration(value);
+                case "warmup" -> o.warmup = parseDuration(value);
+                case "concurrency" -> o.concurrency = Integer.parseInt(value);
+                case "mix" -> o.parseMix(value);
+                case "skew" -> o.skew = Skew.valueOf(value.toUpperCase());
+                case "zipf-exponent" -> o.zipfExponent = Double.parseDouble(value);
+                case "accounts-file" -> o.accountsFile = value;
+                case "report-interval" -> o.reportInterval = parseDuration(value);
+                case "seed" -> o.seed = Long.parseLong(value);
+                default -> throw new IllegalArgumentException("Unknown option: --" + name);
+            }
+        }
+        if (o.rate <= 0 || o.concurrency <= 0) {
+            throw new IllegalArgumentException("--rate and --concurrency must be positive");
+        }
+        if (o.mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("--mix needs at least one operation with a positive weight");
+        }
+        return o;
+    }
+
+    private void parseMix(String value) {
+        mix.clear();
+        for (String part : value.split(",")) {
+            String[] kv = part.split(":");
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("Bad mix entry: " + part);
+            }
+            mix.put(Operation.fromKey(kv[0].trim()), Integer.parseInt(kv[1].trim()));
+        }
+    }
+
+    /**
+     * Accepts 500ms, 30s, 5m or plain seconds.
+     */
+    static Duration parseDuration(String value) {
+        String v = value.trim().toLowerCase();
+        if (v.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(v.substring(0, v.length() - 2)));
+        }
+        if (v.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(v.substring(0, v.length() - 1)));
+        }
+        if (v.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(v.substring(0, v.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(v));
+    }
+}
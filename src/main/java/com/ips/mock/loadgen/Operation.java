@@ -0,0 +1,91 @@
+package com.ips.mock.loadgen;
+
+import com.ips.mock.dto.Account;
+
+import java.util.SplittableRandom;
+
+/**
+ * Requests the load generator can send; each one builds its own JSON body from the
+ * accounts picked for it.
+ */
+public enum Operation {
+
+    VERIFY("verify", "/api/iso/account-verification") {
+        @Override
+        String body(Account a, Account b, SplittableRandom random) {
+            return "{\"requestingBankBic\":\"" + b.getBankCode() + "\",\"targetBankBic\":\"" + a.getBankCode()
+                    + "\",\"accountNumber\":\"" + a.getAccountNumber() + "\"}";
+        }
+    },
+    BALANCE("balance", "/api/iso/balance-inquiry") {
+        @Override
+        String body(Account a, Account b, SplittableRandom random) {
+            return VERIFY.body(a, b, random);
+        }
+    },
+    TRANSFER("transfer", "/api/iso/credit-transfer") {
+        @Override
+        String body(Account a, Account b, SplittableRandom random) {
+            return "{\"initiatorBic\":\"" + a.getBankCode() + "\",\"initiatorAccountNumber\":\"" + a.getAccountNumber()
+                    + "\",\"recipientBic\":\"" + b.getBankCode() + "\",\"recipientAccountNumber\":\"" + b.getAccountNumber()
+                    + "\",\"amount\":" + amount(random) + ",\"currency\":\"" + a.getCurrency() + "\"}";
+        }
+    },
+    SWIFT_PAYMENT("swift-payment", "/api/swift/bankA/payments") {
+        @Override
+        String body(Account a, Account b, SplittableRandom random) {
+            return paymentBody(a, b, random);
+        }
+    },
+    ISO_PAYMENT("iso-payment", "/api/bankA/payments") {
+        @Override
+        String body(Account a, Account b, SplittableRandom random) {
+            return paymentBody(a, b, random);
+        }
+    };
+
+    private final String key;
+    private final String path;
+
+    Operation(String key, String path) {
+        this.key = key;
+        this.path = path;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * @param a the account the operation is about (payer for transfers)
+     * @param b a second account (payee for transfers, requesting bank for lookups)
+     */
+    abstract String body(Account a, Account b, SplittableRandom random);
+
+    public static Operation fromKey(String key) {
+        for (Operation op : values()) {
+            if (op.key.equals(key)) {
+                return op;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation: " + key);
+    }
+
+    // Small amounts (1.00 - 99.99) so long runs don't drain the sample balances
+    private static String amount(SplittableRandom random) {
+        int cents = 100 + random.nextInt(9900);
+        return (cents / 100) + "." + (cents % 100 < 10 ? "0" : "") + (cents % 100);
+    }
+
+    private static String paymentBody(Account a, Account b, SplittableRandom random) {
+        return "{\"amount\":" + amount(random) + ",\"currency\":\"" + a.getCurrency()
+                + "\",\"debtorName\":\"" + a.getAccountHolderName() + "\",\"debtorAccount\":\"" + a.getAccountNumber()
+                + "\",\"debtorAddress\":\"Load Street 1\",\"creditorName\":\"" + b.getAccountHolderName()
+                + "\",\"creditorAccount\":\"" + b.getAccountNumber()
+                + "\",\"creditorAddress\":\"Load Street 2\",\"remittanceInfo\":\"loadgen\"}";
+    }
+}
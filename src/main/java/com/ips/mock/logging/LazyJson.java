@@ -0,0 +1,33 @@
+package com.ips.mock.logging;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Log argument that serializes its value to JSON only when the event is actually
+ * rendered: {@code log.debug("Incoming request: {}", LazyJson.of(request))} costs
+ * nothing when DEBUG is off, sampled out, or dropped by the log budget.
+ */
+public final class LazyJson {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Object value;
+
+    private LazyJson(Object value) {
+        this.value = value;
+    }
+
+    public static LazyJson of(Object value) {
+        return new LazyJson(value);
+    }
+
+    @Override
+    public String toString() {
+        try {
+            return MAPPER.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            return String.valueOf(value);
+        }
+    }
+}
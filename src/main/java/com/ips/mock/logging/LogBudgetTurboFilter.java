@@ -0,0 +1,64 @@
+package com.ips.mock.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hard per-second cap on log events, configured in logback-spring.xml from
+ * {@code ips.logging.budget-per-second} (0 disables the cap).
+ * <p>
+ * Events at or above {@code exemptLevel} (WARN by default) always pass; everything
+ * else beyond the budget is denied before a LoggingEvent is even created. When a new
+ * second starts, the number of events dropped in the previous one is reported once.
+ */
+public class LogBudgetTurboFilter extends TurboFilter {
+
+    private static final Marker BUDGET_REPORT = MarkerFactory.getMarker("LOG_BUDGET");
+
+    private int maxPerSecond;
+    private Level exemptLevel = Level.WARN;
+
+    private final AtomicLong window = new AtomicLong();
+    private final AtomicLong used = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // format is null for isXxxEnabled() checks; levels below the logger's are discarded anyway
+        if (maxPerSecond <= 0 || format == null || marker == BUDGET_REPORT
+                || level.isGreaterOrEqual(exemptLevel)
+                || !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+
+        long second = System.currentTimeMillis() / 1000;
+        long current = window.get();
+        if (second != current && window.compareAndSet(current, second)) {
+            used.set(0);
+            long lost = dropped.getAndSet(0);
+            if (lost > 0) {
+                logger.warn(BUDGET_REPORT, "Log budget of {}/s exceeded, {} events dropped", maxPerSecond, lost);
+            }
+        }
+
+        if (used.incrementAndGet() <= maxPerSecond) {
+            return FilterReply.NEUTRAL;
+        }
+        dropped.incrementAndGet();
+        return FilterReply.DENY;
+    }
+
+    public void setMaxPerSecond(int maxPerSecond) {
+        this.maxPerSecond = maxPerSecond;
+    }
+
+    public void setExemptLevel(String exemptLevel) {
+        this.exemptLevel = Level.toLevel(exemptLevel, Level.WARN);
+    }
+}
@@ -0,0 +1,44 @@
+package com.ips.mock.logging;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 1-in-N sampling of hot-path log lines per category, e.g.
+ * {@code ips.logging.sample.ct-success=100} logs every 100th settled transfer.
+ * Categories without a rate are always logged, so rejects and errors are never
+ * sampled out unless configured explicitly.
+ */
+@Component
+@ConfigurationProperties(prefix = "ips.logging")
+public class LogSampler {
+
+    public static final String CT_SUCCESS = "ct-success";
+    public static final String ACCOUNT_VERIFY = "account-verify";
+    public static final String BALANCE_INQUIRY = "balance-inquiry";
+
+    /**
+     * Category → N (log one event out of every N). Missing or &lt;= 1 means log everything.
+     */
+    @Getter
+    @Setter
+    private Map<String, Integer> sample = new HashMap<>();
+
+    private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+
+    public boolean sample(String category) {
+        Integer rate = sample.get(category);
+        if (rate == null || rate <= 1) {
+            return true;
+        }
+        long n = counters.computeIfAbsent(category, c -> new AtomicLong()).getAndIncrement();
+        return n % rate == 0;
+    }
+}
@@ -0,0 +1,39 @@
+package com.ips.mock.metrics;
+
+import com.ips.mock.PaymentStatus;
+import com.ips.mock.service.payment.PaymentEventStream;
+import com.ips.mock.service.payment.PaymentStatusEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts payment status transitions by from/to status, fed from the
+ * {@link PaymentEventStream} rather than from the payment path itself.
+ */
+@Component
+public class PaymentTransitionMetrics {
+
+    private final Counter[][] transitions;
+
+    public PaymentTransitionMetrics(PaymentEventStream events, MeterRegistry registry) {
+        PaymentStatus[] statuses = PaymentStatus.values();
+        this.transitions = new Counter[statuses.length][statuses.length];
+        for (PaymentStatus from : statuses) {
+            for (PaymentStatus to : statuses) {
+                if (from.canMoveTo(to)) {
+                    transitions[from.ordinal()][to.ordinal()] = Counter.builder("ips.payments.transitions")
+                            .description("Payment status transitions")
+                            .tag("from", from.name())
+                            .tag("to", to.name())
+                            .register(registry);
+                }
+            }
+        }
+        events.subscribe("metrics", this::record);
+    }
+
+    private void record(PaymentStatusEvent event) {
+        transitions[event.getPrevious().ordinal()][event.getStatus().ordinal()].increment();
+    }
+}
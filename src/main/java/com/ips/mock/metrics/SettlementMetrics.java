@@ -0,0 +1,134 @@
+package com.ips.mock.metrics;
+
+import com.ips.mock.jfr.FlightRecorderService;
+import com.ips.mock.jfr.PaymentContext;
+import com.ips.mock.jfr.PaymentStageEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers for each stage of the credit transfer settlement path and counters per
+ * outcome (ACSC, or RJCT with its reason code).
+ * <p>
+ * Usage is a per-request {@link Trace}: {@code trace.stage(Stage.PAYER_LOOKUP)} records
+ * the time since the previous stage, both as a timer and as a JFR
+ * {@link PaymentStageEvent}, and {@code trace.outcome(...)} closes the request.
+ */
+@Component
+public class SettlementMetrics {
+
+    public enum Stage {
+        PARSE(PaymentStageEvent.PARSE),
+        PAYER_LOOKUP(PaymentStageEvent.LOOKUP),
+        LIQUIDITY_HOLD(PaymentStageEvent.SETTLE),
+        PAYEE_LOOKUP(PaymentStageEvent.LOOKUP),
+        POSTINGS(PaymentStageEvent.SETTLE),
+        RENDER(PaymentStageEvent.RENDER);
+
+        final String tag = name().toLowerCase();
+        final String jfrStage;
+
+        Stage(String jfrStage) {
+            this.jfrStage = jfrStage;
+        }
+    }
+
+    private final MeterRegistry registry;
+    private final FlightRecorderService flightRecorder;
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+    private final Map<String, Counter> outcomes = new ConcurrentHashMap<>();
+
+    public SettlementMetrics(MeterRegistry registry, FlightRecorderService flightRecorder) {
+        this.registry = registry;
+        this.flightRecorder = flightRecorder;
+        for (Stage stage : Stage.values()) {
+            stageTimers.put(stage, Timer.builder("ips.settlement.stage")
+                    .description("Time spent in each stage of processCreditTransfer")
+                    .tag("stage", stage.tag)
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+    }
+
+    public Trace start() {
+        return new Trace();
+    }
+
+    /**
+     * Count a settlement outcome, e.g. ("ACSC", null) or ("RJCT", "AC04").
+     */
+    public void outcome(String status, String reasonCode) {
+        String reason = reasonCode != null ? reasonCode : "none";
+        outcomes.computeIfAbsent(status + '/' + reason, k -> Counter.builder("ips.settlement.outcome")
+                        .description("Credit transfers by pacs.002 status and reason code")
+                        .tag("status", status)
+                        .tag("reason", reason)
+                        .register(registry))
+                .increment();
+    }
+
+    /**
+     * Timer for full rewrites of a JSON storage file.
+     */
+    public static Timer flushTimer(MeterRegistry registry, String store) {
+        return Timer.builder("ips.storage.flush")
+                .description("Time to rewrite a storage file")
+                .tag("store", store)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /**
+     * Timing of one credit transfer. Not thread-safe; lives on the request thread.
+     */
+    public final class Trace {
+
+        private final long startNanos;
+        private long mark;
+        private PaymentStageEvent event;
+        private PaymentContext context;
+
+        private Trace() {
+            startNanos = System.nanoTime();
+            mark = startNanos;
+            event = PaymentStageEvent.start();
+        }
+
+        /**
+         * Attach the payment identifiers to this trace and to the current thread, so
+         * that nested work (storage flushes) is tagged with them too.
+         */
+        public void identify(String msgId, String endToEndId, String debtorBic, String creditorBic, Object amount) {
+            context = new PaymentContext(msgId, endToEndId, debtorBic, creditorBic, amount);
+            context.attach();
+        }
+
+        /**
+         * Record the time since the previous stage against {@code stage}.
+         */
+        public void stage(Stage stage) {
+            long now = System.nanoTime();
+            stageTimers.get(stage).record(now - mark, TimeUnit.NANOSECONDS);
+            event.complete(stage.jfrStage, stage.tag, context);
+            event = PaymentStageEvent.start();
+            mark = now;
+        }
+
+        /**
+         * Count the outcome and end the trace.
+         */
+        public void outcome(String status, String reasonCode) {
+            SettlementMetrics.this.outcome(status, reasonCode);
+            PaymentContext.detach();
+            flightRecorder.onPaymentCompleted(context != null ? context.getMsgId() : null,
+                    System.nanoTime() - startNanos);
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.ips.mock.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fixed-point amount: a long count of minor units plus an ISO 4217 currency.
+ * <p>
+ * The number of minor units per major unit comes from the currency exponent
+ * (MVR, USD, LKR and EUR are 2; JPY is 0; BHD is 3, ...), never from the scale
+ * of whatever BigDecimal the amount arrived in. Rendering writes digits straight
+ * into the caller's StringBuilder, in ISO 20022 (dot) or SWIFT (comma) form.
+ */
+public final class Money {
+
+    private static final long[] POW10 = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L
+    };
+
+    // Currencies we settle in; anything else falls back to java.util.Currency
+    private static final Map<String, Integer> EXPONENTS = new ConcurrentHashMap<>(Map.of(
+            "MVR", 2,
+            "USD", 2,
+            "LKR", 2,
+            "EUR", 2
+    ));
+
+    private final long minor;
+    private final String currency;
+    private final int exponent;
+
+    private Money(long minor, String currency, int exponent) {
+        this.minor = minor;
+        this.currency = currency;
+        this.exponent = exponent;
+    }
+
+    /**
+     * Strict conversion: fails if the amount has more decimals than the currency allows.
+     *
+     * @throws IllegalArgumentException for an unknown currency or an amount that does not fit
+     */
+    public static Money of(BigDecimal amount, String currency) {
+        return of(amount, currency, RoundingMode.UNNECESSARY);
+    }
+
+    /**
+     * Conversion that rounds half-up to the currency exponent, for stored balances.
+     */
+    public static Money rounded(BigDecimal amount, String currency) {
+        return of(amount, currency, RoundingMode.HALF_UP);
+    }
+
+    public static Money ofMinor(long minor, String currency) {
+        return new Money(minor, currency, exponent(currency));
+    }
+
+    /**
+     * Parses a plain decimal amount between {@code start} and {@code end}. Both '.' and ','
+     * are accepted as decimal separator and a trailing separator ("1000,") is allowed, so
+     * this reads ISO 20022 as well as SWIFT field values.
+     *
+     * @throws IllegalArgumentException if the text is not a valid amount for the currency
+     */
+    public static Money parse(CharSequence text, int start, int end, String currency) {
+        int exp = exponent(currency);
+        int i = start;
+        boolean negative = false;
+        if (i < end && text.charAt(i) == '-') {
+            negative = true;
+            i++;
+        }
+        long units = 0;
+        int digits = 0;
+        int decimals = -1;
+        for (; i < end; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (decimals >= 0) {
+                    if (decimals == exp) {
+                        if (c != '0') {
+                            throw new IllegalArgumentException("Too many decimals for " + currency + ": " + text.subSequence(start, end));
+                        }
+                        continue;
+                    }
+                    decimals++;
+                }
+                if (units > (Long.MAX_VALUE - 9) / 10) {
+                    throw outOfRange(text, start, end);
+                }
+                units = units * 10 + (c - '0');
+                digits++;
+            } else if ((c == '.' || c == ',') && decimals < 0) {
+                decimals = 0;
+            } else {
+                throw new IllegalArgumentException("Invalid amount: " + text.subSequence(start, end));
+            }
+        }
+        if (digits == 0) {
+            throw new IllegalArgumentException("Invalid amount: " + text.subSequence(start, end));
+        }
+        long scale = POW10[exp - Math.max(decimals, 0)];
+        if (units > Long.MAX_VALUE / scale) {
+            throw outOfRange(text, start, end);
+        }
+        long minor = units * scale;
+        return new Money(negative ? -minor : minor, currency, exp);
+    }
+
+    private static IllegalArgumentException outOfRange(CharSequence text, int start, int end) {
+        return new IllegalArgumentException("Amount out of range: " + text.subSequence(start, end));
+    }
+
+    public static Money parse(CharSequence text, String currency) {
+        return parse(text, 0, text.length(), currency);
+    }
+
+    /**
+     * Number of minor-unit digits for the currency.
+     *
+     * @throws IllegalArgumentException for a code that is not an ISO 4217 currency
+     */
+    public static int exponent(String currency) {
+        if (currency == null) {
+            throw new IllegalArgumentException("Currency must be set");
+        }
+        Integer exp = EXPONENTS.get(currency);
+        if (exp == null) {
+            int digits;
+            try {
+                digits = Currency.getInstance(currency).getDefaultFractionDigits();
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown currency: " + currency, e);
+            }
+            exp = Math.max(digits, 0);
+            EXPONENTS.put(currency, exp);
+        }
+        return exp;
+    }
+
+    private static Money of(BigDecimal amount, String currency, RoundingMode rounding) {
+        if (amount == null) {
+            throw new IllegalArgumentException("Amount must be set");
+        }
+        int exp = exponent(currency);
+        try {
+            long minor = amount.setScale(exp, rounding).unscaledValue().longValueExact();
+            return new Money(minor, currency, exp);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount " + amount.toPlainString()
+                    + " is not valid for " + currency + " (" + exp + " decimals)", e);
+        }
+    }
+
+    // ------- Arithmetic -------
+
+    public Money plus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.addExact(minor, other.minor), currency, exponent);
+    }
+
+    public Money minus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.subtractExact(minor, other.minor), currency, exponent);
+    }
+
+    public boolean isPositive() {
+        return minor > 0;
+    }
+
+    public boolean isNegative() {
+        return minor < 0;
+    }
+
+    public long getMinor() {
+        return minor;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public int getExponent() {
+        return exponent;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minor, exponent);
+    }
+
+    // ------- Rendering -------
+
+    /**
+     * ISO 20022 form: dot separator, exactly {@code exponent} decimals ("1000.00").
+     */
+    public StringBuilder appendIso(StringBuilder out) {
+        return append(out, '.', false);
+    }
+
+    /**
+     * SWIFT MT form: comma separator, always present ("1000,00", "1000,").
+     */
+    public StringBuilder appendSwift(StringBuilder out) {
+        return append(out, ',', true);
+    }
+
+    public String toIsoString() {
+        return appendIso(new StringBuilder(24)).toString();
+    }
+
+    public String toSwiftString() {
+        return appendSwift(new StringBuilder(24)).toString();
+    }
+
+    private StringBuilder append(StringBuilder out, char separator, boolean alwaysSeparator) {
+        long value = minor;
+        if (value < 0) {
+            out.append('-');
+            value = -value;
+        }
+        long scale = POW10[exponent];
+        out.append(value / scale);
+        if (exponent > 0 || alwaysSeparator) {
+            out.append(separator);
+        }
+        long fraction = value % scale;
+        for (int i = exponent - 1; i >= 0; i--) {
+            out.append((char) ('0' + (fraction / POW10[i]) % 10));
+        }
+        return out;
+    }
+
+    private void requireSameCurrency(Money other) {
+        if (!currency.equals(other.currency)) {
+            throw new IllegalArgumentException("Currency mismatch: " + currency + " vs " + other.currency);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Money)) return false;
+        Money other = (Money) o;
+        return minor == other.minor && currency.equals(other.currency);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(minor) + currency.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return currency + " " + toIsoString();
+    }
+}
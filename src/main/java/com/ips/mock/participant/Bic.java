@@ -0,0 +1,56 @@
+package com.ips.mock.participant;
+
+import java.util.Locale;
+
+/**
+ * BIC spelling rules. A participant is its BIC8 (institution, country, location);
+ * the branch code of a BIC11, "XXX" or otherwise, does not make another participant.
+ */
+public final class Bic {
+
+    private Bic() {
+    }
+
+    /**
+     * The upper-case BIC8 of {@code bic}, or null for null/blank input. Only an
+     * 11-character BIC loses its branch code; any other length is just upper-cased,
+     * so it names no participant. Returns {@code bic} itself when it is already
+     * canonical, so the common case allocates nothing.
+     */
+    public static String canonical(String bic) {
+        if (bic == null) {
+            return null;
+        }
+        if (bic.length() == 8 && isCanonical(bic)) {
+            return bic;
+        }
+        String s = bic.trim();
+        if (s.isEmpty()) {
+            return null;
+        }
+        if (s.length() == 11) {
+            s = s.substring(0, 8);
+        }
+        return isCanonical(s) ? s : s.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Whether both name the same participant, e.g. PMFTSL1K and PMFTSL1KXXX.
+     */
+    public static boolean sameParticipant(String a, String b) {
+        String ca = canonical(a);
+        return ca != null && ca.equals(canonical(b));
+    }
+
+    // ------- Helpers -------
+
+    private static boolean isCanonical(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (!(c >= 'A' && c <= 'Z' || c >= '0' && c <= '9')) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,32 @@
+package com.ips.mock.participant;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * One entry of the {@link ParticipantDirectory}. The id is dense (0 to size - 1) so
+ * per-participant state can live in arrays; the BIC is the interned BIC8.
+ */
+@Getter
+public final class Participant {
+
+    private final int id;
+    private final String bic;
+    private final String name;
+    private final List<String> aliases;
+    private final boolean suspended;
+
+    Participant(int id, String bic, String name, List<String> aliases, boolean suspended) {
+        this.id = id;
+        this.bic = bic;
+        this.name = name;
+        this.aliases = aliases;
+        this.suspended = suspended;
+    }
+
+    @Override
+    public String toString() {
+        return bic + "#" + id;
+    }
+}
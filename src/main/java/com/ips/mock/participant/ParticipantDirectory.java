@@ -0,0 +1,107 @@
+package com.ips.mock.participant;
+
+import com.ips.mock.dto.Bank;
+import com.ips.mock.service.storage.BankStorageService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Every participant of the scheme, built once at startup from Banks.json plus
+ * {@link ParticipantProperties}: the banks in file order, then participants only
+ * configured, each with a dense integer id.
+ * <p>
+ * {@link #resolve} takes any spelling a message carries (BIC8, BIC11, lower case, an
+ * alias) and answers with one map lookup; the spellings seen in practice (BIC8 and
+ * BIC8 + "XXX") are indexed as-is, so they resolve without normalizing. Services
+ * resolve a message's BICs once and pass the interned {@link Participant#getBic()}
+ * on, which later string comparisons short-circuit on.
+ */
+@Service
+@Slf4j
+public class ParticipantDirectory {
+
+    private final Participant[] byId;
+    private final Map<String, Participant> byCode = new HashMap<>();
+
+    public ParticipantDirectory(BankStorageService bankStorageService, ParticipantProperties properties) {
+        Map<String, ParticipantProperties.Settings> settings = new HashMap<>();
+        properties.getParticipants().forEach((bic, s) -> settings.put(Bic.canonical(bic), s));
+
+        Map<String, String> names = new LinkedHashMap<>();
+        for (Bank bank : bankStorageService.getBanks()) {
+            names.putIfAbsent(Bic.canonical(bank.getBankCode()), bank.getBankName());
+        }
+        settings.keySet().forEach(bic -> names.putIfAbsent(bic, null));
+
+        List<Participant> participants = new ArrayList<>(names.size());
+        names.forEach((bic, bankName) -> {
+            ParticipantProperties.Settings s = settings.get(bic);
+            String name = s != null && s.getName() != null ? s.getName() : bankName;
+            List<String> aliases = new ArrayList<>();
+            if (s != null) {
+                s.getAliases().forEach(a -> aliases.add(Bic.canonical(a)));
+            }
+            Participant p = new Participant(participants.size(), bic.intern(), name != null ? name : bic,
+                    List.copyOf(aliases), s != null && s.isSuspended());
+            participants.add(p);
+            index(p.getBic(), p);
+            aliases.forEach(a -> index(a, p));
+        });
+        this.byId = participants.toArray(new Participant[0]);
+        log.info("[DIRECTORY] {} participants: {}", byId.length, participants);
+    }
+
+    /**
+     * The participant {@code bic} names, or null when it is not one.
+     */
+    public Participant resolve(String bic) {
+        if (bic == null) {
+            return null;
+        }
+        Participant p = byCode.get(bic);
+        if (p == null) {
+            String canonical = Bic.canonical(bic);
+            // the same instance was just looked up
+            p = canonical != null && canonical != bic ? byCode.get(canonical) : null;
+        }
+        return p;
+    }
+
+    /**
+     * The participant's interned BIC8 when {@code bic} is known, otherwise its
+     * canonical spelling (which no stored bank or account will match).
+     */
+    public String canonical(String bic) {
+        Participant p = resolve(bic);
+        return p != null ? p.getBic() : Bic.canonical(bic);
+    }
+
+    public Participant byId(int id) {
+        return byId[id];
+    }
+
+    public int size() {
+        return byId.length;
+    }
+
+    public List<Participant> all() {
+        return List.of(byId);
+    }
+
+    // ------- Helpers -------
+
+    private void index(String bic, Participant p) {
+        Participant previous = byCode.putIfAbsent(bic, p);
+        if (previous != null && previous != p) {
+            log.warn("[DIRECTORY] {} already names {}, ignored for {}", bic, previous, p);
+            return;
+        }
+        byCode.putIfAbsent(bic + "XXX", p);
+    }
+}
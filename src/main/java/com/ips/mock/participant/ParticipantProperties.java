@@ -0,0 +1,36 @@
+package com.ips.mock.participant;
+
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-participant settings on top of Banks.json, e.g.
+ * {@code ips.directory.participants.PMFTSL1K.aliases=PMFTSL1X} for a legacy code,
+ * or a participant the bank file does not list, such as
+ * {@code ips.directory.participants.HNBLSLFR.name=HNB}.
+ */
+@Component
+@ConfigurationProperties(prefix = "ips.directory")
+@Getter
+@Setter
+public class ParticipantProperties {
+
+    private Map<String, Settings> participants = new LinkedHashMap<>();
+
+    @Data
+    public static class Settings {
+        private String name;
+        /** Other BICs that resolve to this participant. */
+        private List<String> aliases = new ArrayList<>();
+        /** Credit transfers to or from a suspended participant are rejected. */
+        private boolean suspended;
+    }
+}
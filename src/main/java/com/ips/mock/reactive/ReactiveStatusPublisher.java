@@ -0,0 +1,128 @@
+package com.ips.mock.reactive;
+
+import com.ips.mock.service.payment.PaymentEventStream;
+import com.ips.mock.service.payment.PaymentStatusEvent;
+import com.ips.mock.sse.SseDropPolicy;
+import com.ips.mock.sse.StatusFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import reactor.core.Exceptions;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reactive counterpart of {@code PaymentStatusBroadcaster}: one subscription to the
+ * {@link PaymentEventStream} feeds a multicast sink, and each open stream is a
+ * filtered view of it with its own bounded buffer of ips.sse.queue-size events.
+ * Netty's demand drains the buffer, so no thread is held per stream; when a buffer
+ * is full the stream's {@link SseDropPolicy} decides what gives, as on the servlet stack.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Slf4j
+public class ReactiveStatusPublisher {
+
+    private final int queueSize;
+    private final int maxSubscribers;
+    private final Duration heartbeat;
+    private final Duration timeout;
+    private final SseDropPolicy defaultDropPolicy;
+
+    // Only the event stream's dispatch thread emits, so the sink needs no serialization
+    private final Sinks.Many<PaymentStatusEvent> sink = Sinks.many().multicast().directBestEffort();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final Map<SseDropPolicy, Counter> dropped = new EnumMap<>(SseDropPolicy.class);
+    private final PaymentEventStream.Subscription subscription;
+
+    public ReactiveStatusPublisher(PaymentEventStream events,
+                                   MeterRegistry registry,
+                                   @Value("${ips.sse.queue-size:256}") int queueSize,
+                                   @Value("${ips.sse.max-subscribers:10000}") int maxSubscribers,
+                                   @Value("${ips.sse.heartbeat:15s}") Duration heartbeat,
+                                   @Value("${ips.sse.timeout:30m}") Duration timeout,
+                                   @Value("${ips.sse.drop-policy:drop-oldest}") SseDropPolicy defaultDropPolicy) {
+        this.queueSize = queueSize;
+        this.maxSubscribers = maxSubscribers;
+        this.heartbeat = heartbeat;
+        this.timeout = timeout;
+        this.defaultDropPolicy = defaultDropPolicy;
+
+        Gauge.builder("ips.sse.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Open payment status streams")
+                .register(registry);
+        for (SseDropPolicy policy : SseDropPolicy.values()) {
+            dropped.put(policy, Counter.builder("ips.sse.dropped")
+                    .description("Status events not delivered to a slow subscriber")
+                    .tag("policy", policy.name())
+                    .register(registry));
+        }
+        this.subscription = events.subscribe("sse-reactive", sink::tryEmitNext);
+    }
+
+    /**
+     * A stream of status changes matching the filter, with keep-alive comments in
+     * between. Returns null when ips.sse.max-subscribers streams are already open.
+     */
+    public Flux<ServerSentEvent<PaymentStatusEvent>> subscribe(StatusFilter filter, SseDropPolicy dropPolicy) {
+        if (subscriberCount.get() >= maxSubscribers) {
+            return null;
+        }
+        SseDropPolicy policy = dropPolicy != null ? dropPolicy : defaultDropPolicy;
+
+        Flux<ServerSentEvent<PaymentStatusEvent>> statuses = sink.asFlux()
+                .filter(filter::matches)
+                .onBackpressureBuffer(queueSize, e -> dropped.get(policy).increment(), overflowStrategy(policy))
+                .map(e -> ServerSentEvent.builder(e)
+                        .id(Long.toString(e.getSequence()))
+                        .event("status")
+                        .build());
+        Flux<ServerSentEvent<PaymentStatusEvent>> keepAlive = Flux.interval(heartbeat, heartbeat)
+                .map(t -> ServerSentEvent.<PaymentStatusEvent>builder().comment("keep-alive").build());
+
+        return Flux.merge(statuses, keepAlive)
+                .take(timeout)
+                // DISCONNECT: an overflowing buffer ends the stream instead of failing it
+                .onErrorComplete(Exceptions::isOverflow)
+                .doOnSubscribe(s -> {
+                    subscriberCount.incrementAndGet();
+                    log.debug("[SSE] Reactive subscriber opened ({})", filter);
+                })
+                .doFinally(signal -> {
+                    subscriberCount.decrementAndGet();
+                    log.debug("[SSE] Reactive subscriber closed ({})", signal);
+                });
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @PreDestroy
+    public void close() {
+        subscription.close();
+        sink.tryEmitComplete();
+    }
+
+    // ------- Helpers -------
+
+    private static BufferOverflowStrategy overflowStrategy(SseDropPolicy policy) {
+        return switch (policy) {
+            case DROP_OLDEST -> BufferOverflowStrategy.DROP_OLDEST;
+            case DROP_NEWEST -> BufferOverflowStrategy.DROP_LATEST;
+            case DISCONNECT -> BufferOverflowStrategy.ERROR;
+        };
+    }
+}
@@ -0,0 +1,52 @@
+package com.ips.mock.reactive;
+
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.reactive.config.BlockingExecutionConfigurer;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+/**
+ * Reactive mode (profile "reactive", WebFlux on Netty). The same controllers and
+ * services serve both stacks; here the controller methods that return plain values
+ * or futures (and so may touch the synchronized, file-backed storage) are run on a
+ * bounded pool of ips.reactive.blocking-threads, so Netty's event loops only ever
+ * do I/O. Controllers returning Mono/Flux stay on the event loop.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Slf4j
+public class ReactiveWebConfig implements WebFluxConfigurer {
+
+    private static final String CONTROLLER_PACKAGE = "com.ips.mock.";
+
+    private final int blockingThreads;
+    private final int blockingQueueSize;
+
+    public ReactiveWebConfig(@Value("${ips.reactive.blocking-threads:32}") int blockingThreads,
+                             @Value("${ips.reactive.blocking-queue-size:10000}") int blockingQueueSize) {
+        this.blockingThreads = blockingThreads;
+        this.blockingQueueSize = blockingQueueSize;
+    }
+
+    @Override
+    public void configureBlockingExecution(BlockingExecutionConfigurer configurer) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(blockingThreads);
+        executor.setMaxPoolSize(blockingThreads);
+        executor.setQueueCapacity(blockingQueueSize);
+        executor.setThreadNamePrefix("ips-blocking-");
+        executor.setDaemon(true);
+        executor.initialize();
+
+        configurer.setExecutor(executor);
+        // CompletableFuture handlers do their storage work before returning the future
+        configurer.setControllerMethodPredicate(method ->
+                method.getBeanType().getName().startsWith(CONTROLLER_PACKAGE)
+                        && !Publisher.class.isAssignableFrom(method.getReturnType().getParameterType()));
+        log.info("[REACTIVE] Blocking controller methods run on {} threads", blockingThreads);
+    }
+}
@@ -1,19 +1,32 @@
 package com.ips.mock.request;
 
 import com.ips.mock.PaymentStatus;
+import com.ips.mock.money.Money;
+import com.ips.mock.service.archive.ArchivedMessage;
+import com.ips.mock.service.archive.RawMessageArchive;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 
-import java.math.BigDecimal;
-import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 @Data
+@ToString(doNotUseGetters = true)
+@EqualsAndHashCode(doNotUseGetters = true)
 public class Payment {
 
+    private static final AtomicReferenceFieldUpdater<Payment, PaymentStatus> STATUS =
+            AtomicReferenceFieldUpdater.newUpdater(Payment.class, PaymentStatus.class, "status");
+
     private String id;
     private String reference;
 
-    private BigDecimal amount;
-    private String currency;
+    // Fixed-point from parsing on, so rendering MT/ISO never goes through BigDecimal.
+    // Carries the currency too, so there is no separate field that could disagree with it.
+    private Money amount;
 
     private String debtorName;
     private String debtorAccount;
@@ -25,13 +38,74 @@ public class Payment {
 
     private String remittanceInfo;
 
-    private PaymentStatus status;
+    private String debtorAgentBic;
+    private String creditorAgentBic;
+
+    // Changed only through PaymentStateMachine
+    @Setter(AccessLevel.NONE)
+    private volatile PaymentStatus status;
 
+    // Instruction (MT103 / pacs.008) and confirmation (MT910 / camt.054) as received or built.
+    // Held as text until archived, after which only the archive handle is kept.
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
     private String mt103Raw;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
     private String mt910Raw;
 
+    @Setter(AccessLevel.NONE)
+    private ArchivedMessage mt103Archived;
+    @Setter(AccessLevel.NONE)
+    private ArchivedMessage mt910Archived;
+
     public Payment() {
-        this.id = UUID.randomUUID().toString();
         this.status = PaymentStatus.NEW;
     }
+
+    public String getCurrency() {
+        return amount != null ? amount.getCurrency() : null;
+    }
+
+    public boolean compareAndSetStatus(PaymentStatus expected, PaymentStatus status) {
+        return STATUS.compareAndSet(this, expected, status);
+    }
+
+    /**
+     * The raw instruction; read back from the archive if it has been archived.
+     */
+    public synchronized String getMt103Raw() {
+        return mt103Archived != null ? mt103Archived.read() : mt103Raw;
+    }
+
+    public synchronized void setMt103Raw(String raw) {
+        this.mt103Raw = raw;
+        this.mt103Archived = null;
+    }
+
+    /**
+     * The raw confirmation; read back from the archive if it has been archived.
+     */
+    public synchronized String getMt910Raw() {
+        return mt910Archived != null ? mt910Archived.read() : mt910Raw;
+    }
+
+    public synchronized void setMt910Raw(String raw) {
+        this.mt910Raw = raw;
+        this.mt910Archived = null;
+    }
+
+    /**
+     * Move raw messages still held as text into the archive. A message that could
+     * not be archived is kept as text. Synchronized with the raw accessors, so two
+     * concurrent saves of the same payment append each message only once.
+     */
+    public synchronized void archiveRawMessages(RawMessageArchive archive) {
+        if (mt103Raw != null && (mt103Archived = archive.append(mt103Raw)) != null) {
+            mt103Raw = null;
+        }
+        if (mt910Raw != null && (mt910Archived = archive.append(mt910Raw)) != null) {
+            mt910Raw = null;
+        }
+    }
 }
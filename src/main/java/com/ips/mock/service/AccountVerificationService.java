@@ -1,12 +1,12 @@
 package com.ips.mock.service;
 
 import com.ips.mock.dto.Account;
-import com.ips.mock.dto.Bank;
+import com.ips.mock.participant.Participant;
+import com.ips.mock.participant.ParticipantDirectory;
 import com.ips.mock.request.AccountVerificationRequestOld;
 import com.ips.mock.response.AccountVerificationResponse;
 import com.ips.mock.response.DefaultResponse;
-import com.ips.mock.service.storage.AccountStorageService;
-import com.ips.mock.service.storage.BankStorageService;
+import com.ips.mock.service.storage.AccountVerificationCache;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -15,17 +15,17 @@ import org.springframework.stereotype.Service;
 @Service
 @Slf4j
 public class AccountVerificationService {
-    private final BankStorageService bankStorageService;
-    private final AccountStorageService accountStorageService;
+    private final ParticipantDirectory directory;
+    private final AccountVerificationCache verificationCache;
 
-    public AccountVerificationService(BankStorageService bankStorageService, AccountStorageService accountStorageService) {
-        this.bankStorageService = bankStorageService;
-        this.accountStorageService = accountStorageService;
+    public AccountVerificationService(ParticipantDirectory directory, AccountVerificationCache verificationCache) {
+        this.directory = directory;
+        this.verificationCache = verificationCache;
     }
 
     public ResponseEntity<DefaultResponse> accountVerificationAppReq(AccountVerificationRequestOld request) {
         try {
-            Bank initiatorBank = getBankByCode(request.getInitiator());
+            Participant initiatorBank = directory.resolve(request.getInitiator());
             if (initiatorBank == null) {
                 DefaultResponse response = DefaultResponse.builder()
                         .status(HttpStatus.NOT_FOUND.value())
@@ -37,7 +37,7 @@ public class AccountVerificationService {
                 return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
             }
 
-            Bank senderBank = getBankByCode(request.getSender());
+            Participant senderBank = directory.resolve(request.getSender());
             if (senderBank == null) {
                 DefaultResponse response = DefaultResponse.builder()
                         .status(HttpStatus.NOT_FOUND.value())
@@ -49,7 +49,7 @@ public class AccountVerificationService {
                 return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
             }
 
-            Bank receiverBank = getBankByCode(request.getReceiver());
+            Participant receiverBank = directory.resolve(request.getReceiver());
             if (receiverBank == null) {
                 DefaultResponse response = DefaultResponse.builder()
                         .status(HttpStatus.NOT_FOUND.value())
@@ -62,7 +62,7 @@ public class AccountVerificationService {
             }
 
             log.info("[ASSUMPTION] CALLING TO RECEIVER BANK SYSTEM TO VERIFY THE ACCOUNT DETAILS");
-            Account recipeientAccount = accountStorageService.getAccountByAccountNumberAndBankCode(request.getAccountNumber(), request.getReceiver());
+            Account recipeientAccount = verificationCache.lookup(request.getAccountNumber(), receiverBank.getBic());
             log.info("[ASSUMPTION] RECEIVED RESPONSE FROM RECEIVER BANK SYSTEM");
             if (recipeientAccount == null) {
                 DefaultResponse response = DefaultResponse.builder()
@@ -81,8 +81,8 @@ public class AccountVerificationService {
                     .data(AccountVerificationResponse.builder()
                             .accountNumber(recipeientAccount.getAccountNumber())
                             .accountHolderName(recipeientAccount.getAccountHolderName())
-                            .bankName(receiverBank.getBankName())
-                            .bankCode(receiverBank.getBankCode())
+                            .bankName(receiverBank.getName())
+                            .bankCode(receiverBank.getBic())
                             .build())
                     .messageId(request.getMessageId())
                     .messageType("camt.004")
@@ -100,8 +100,4 @@ public class AccountVerificationService {
             return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
-
-    private Bank getBankByCode(String bankCode) {
-        return bankStorageService.getBankByCode(bankCode);
-    }
 }
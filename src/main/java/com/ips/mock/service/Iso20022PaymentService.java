@@ -1,38 +1,45 @@
 package com.ips.mock.service;
 
 
-import com.ips.mock.PaymentStatus;
+import com.ips.mock.jfr.PaymentStageEvent;
+import com.ips.mock.money.Money;
 import com.ips.mock.request.Payment;
+import com.ips.mock.service.id.CachedClock;
+import com.ips.mock.service.id.MessageIdService;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 
 @Service
 public class Iso20022PaymentService {
 
     private static final String SENDER_BIC = "BKAALKLX";
     private static final String RECEIVER_BIC = "BKBKDEFF";
-    private static final DateTimeFormatter ISO_DATE = DateTimeFormatter.ISO_LOCAL_DATE;
+
+    private final MessageIdService messageIdService;
+    private final CachedClock clock;
+
+    public Iso20022PaymentService(MessageIdService messageIdService, CachedClock clock) {
+        this.messageIdService = messageIdService;
+        this.clock = clock;
+    }
 
     /**
      * Build a simplified ISO 20022 pacs.008.001.08 FIToFICstmrCdtTrf message.
      */
     public String buildPacs008(Payment p) {
+        PaymentStageEvent event = PaymentStageEvent.start();
         if (p.getReference() == null || p.getReference().isEmpty()) {
             throw new IllegalArgumentException("Payment reference must be set before building pacs.008");
         }
-        if (p.getCurrency() == null || p.getAmount() == null) {
+        if (p.getAmount() == null) {
             throw new IllegalArgumentException("Currency and amount must be set before building pacs.008");
         }
 
-        String today = LocalDate.now().format(ISO_DATE);
+        String today = clock.isoDate();
         String msgId = p.getReference();
         String instrId = "INST-" + p.getReference();
         String txId = "TX-" + p.getReference();
-        String amountStr = formatAmount(p.getAmount());
+        String amountStr = formatAmount(p);
 
         String xml =
                 "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
@@ -96,8 +103,10 @@ public class Iso20022PaymentService {
                         "  </FIToFICstmrCdtTrf>" +
                         "</Document>";
 
-        p.setStatus(PaymentStatus.SENT_MT103); // reuse status name; logically "sent"
         p.setMt103Raw(xml); // reuse the field to store XML if you want
+        p.setDebtorAgentBic(SENDER_BIC);
+        p.setCreditorAgentBic(RECEIVER_BIC);
+        event.complete(PaymentStageEvent.RENDER, "pacs.008", p, SENDER_BIC, RECEIVER_BIC);
         return xml;
     }
 
@@ -105,10 +114,11 @@ public class Iso20022PaymentService {
      * Build a simplified camt.054.001.08 credit notification for the Payment.
      */
     public String buildCamt054(Payment p) {
-        String today = LocalDate.now().format(ISO_DATE);
+        PaymentStageEvent event = PaymentStageEvent.start();
+        String today = clock.isoDate();
         String msgId = "NOTIF-" + p.getReference();
         String notifId = "N-" + p.getReference();
-        String amountStr = formatAmount(p.getAmount());
+        String amountStr = formatAmount(p);
 
         String xml =
                 "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
@@ -148,11 +158,47 @@ public class Iso20022PaymentService {
                         "  </BkToCstmrDbtCdtNtfctn>\n" +
                         "</Document>\n";
 
-        p.setStatus(PaymentStatus.CREDITED);
         p.setMt910Raw(xml); // reuse field if you like
+        event.complete(PaymentStageEvent.RENDER, "camt.054", p, SENDER_BIC, RECEIVER_BIC);
         return xml;
     }
 
+    /**
+     * Build a simplified pacs.002.001.12 rejecting an inbound pacs.008 that could not be processed.
+     */
+    public String buildPacs002Reject(String pacs008Xml, String reasonCode, String additionalInfo) {
+        String originalMsgId = pacs008Xml != null ? extractBetween(pacs008Xml, "<MsgId>", "</MsgId>") : null;
+        String originalEndToEndId = pacs008Xml != null ? extractBetween(pacs008Xml, "<EndToEndId>", "</EndToEndId>") : null;
+        String info = additionalInfo != null && additionalInfo.length() > 105
+                ? additionalInfo.substring(0, 105)
+                : additionalInfo;
+
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                "<Document xmlns=\"urn:iso:std:iso:20022:tech:xsd:pacs.002.001.12\">\n" +
+                "  <FIToFIPmtStsRpt>\n" +
+                "    <GrpHdr>\n" +
+                "      <MsgId>" + esc(messageIdService.nextMsgId("RJ-")) + "</MsgId>\n" +
+                "      <CreDtTm>" + clock.isoDateTimeUtc() + "</CreDtTm>\n" +
+                "    </GrpHdr>\n" +
+                "    <OrgnlGrpInfAndSts>\n" +
+                "      <OrgnlMsgId>" + esc(originalMsgId) + "</OrgnlMsgId>\n" +
+                "      <OrgnlMsgNmId>pacs.008.001.08</OrgnlMsgNmId>\n" +
+                "      <GrpSts>RJCT</GrpSts>\n" +
+                "    </OrgnlGrpInfAndSts>\n" +
+                "    <OrgnlPmtInfAndSts>\n" +
+                "      <TxInfAndSts>\n" +
+                "        <OrgnlEndToEndId>" + esc(originalEndToEndId) + "</OrgnlEndToEndId>\n" +
+                "        <TxSts>RJCT</TxSts>\n" +
+                "        <StsRsnInf>\n" +
+                "          <Rsn><Cd>" + esc(reasonCode) + "</Cd></Rsn>\n" +
+                "          <AddtlInf>" + esc(info) + "</AddtlInf>\n" +
+                "        </StsRsnInf>\n" +
+                "      </TxInfAndSts>\n" +
+                "    </OrgnlPmtInfAndSts>\n" +
+                "  </FIToFIPmtStsRpt>\n" +
+                "</Document>\n";
+    }
+
     /**
      * Very simple pacs.008 parser – only extracts fields needed for the simulation.
      * NOT production-grade, just string-based.
@@ -162,8 +208,12 @@ public class Iso20022PaymentService {
             throw new IllegalArgumentException("pacs.008 XML cannot be null or empty");
         }
 
+        PaymentStageEvent event = PaymentStageEvent.start();
         Payment p = new Payment();
+        p.setId(messageIdService.nextPaymentId());
         p.setMt103Raw(xml);
+        p.setDebtorAgentBic(SENDER_BIC);
+        p.setCreditorAgentBic(RECEIVER_BIC);
 
         // Reference from EndToEndId
         String ref = extractBetween(xml, "<EndToEndId>", "</EndToEndId>");
@@ -172,21 +222,22 @@ public class Iso20022PaymentService {
         // Currency & amount from IntrBkSttlmAmt
         int amtTagStart = xml.indexOf("<IntrBkSttlmAmt");
         if (amtTagStart >= 0) {
+            String ccy = null;
             int ccyStart = xml.indexOf("Ccy=\"", amtTagStart);
             if (ccyStart >= 0) {
                 ccyStart += 5;
                 int ccyEnd = xml.indexOf("\"", ccyStart);
                 if (ccyEnd > ccyStart) {
-                    String ccy = xml.substring(ccyStart, ccyEnd);
-                    p.setCurrency(ccy);
+                    ccy = xml.substring(ccyStart, ccyEnd);
                 }
             }
             int closeStart = xml.indexOf(">", amtTagStart);
             int closeEnd = xml.indexOf("</IntrBkSttlmAmt>", closeStart);
             if (closeStart >= 0 && closeEnd > closeStart) {
                 String amtStr = xml.substring(closeStart + 1, closeEnd).trim();
-                BigDecimal amount = new BigDecimal(amtStr);
-                p.setAmount(amount);
+                if (ccy != null) {
+                    p.setAmount(Money.parse(amtStr, ccy));
+                }
             }
         }
 
@@ -221,16 +272,14 @@ public class Iso20022PaymentService {
         String rmt = extractBetween(xml, "<Ustrd>", "</Ustrd>");
         p.setRemittanceInfo(rmt);
 
-        if (p.getReference() != null) {
-            p.setStatus(PaymentStatus.SENT_MT103);
-        }
+        event.complete(PaymentStageEvent.PARSE, "pacs.008", p, SENDER_BIC, RECEIVER_BIC);
         return p;
     }
 
     // --------- helpers ----------
 
-    private String formatAmount(BigDecimal amount) {
-        return amount.setScale(2, RoundingMode.HALF_UP).toPlainString();
+    private String formatAmount(Payment p) {
+        return p.getAmount().toIsoString();
     }
 
     private String esc(String v) {
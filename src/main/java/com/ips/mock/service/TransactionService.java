@@ -1,11 +1,19 @@
 package com.ips.mock.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ips.mock.dto.Account;
+import com.ips.mock.logging.LazyJson;
+import com.ips.mock.logging.LogSampler;
+import com.ips.mock.metrics.SettlementMetrics;
+import com.ips.mock.metrics.SettlementMetrics.Stage;
+import com.ips.mock.money.Money;
+import com.ips.mock.participant.Participant;
+import com.ips.mock.participant.ParticipantDirectory;
 import com.ips.mock.request.AccountVerificationRequest;
 import com.ips.mock.request.CreditTransferRequest;
+import com.ips.mock.service.id.CachedClock;
+import com.ips.mock.service.id.MessageIdService;
 import com.ips.mock.service.storage.AccountStorageService;
+import com.ips.mock.service.storage.AccountVerificationCache;
 import com.ips.mock.service.storage.BankStorageService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -14,26 +22,36 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.time.OffsetDateTime;
-import java.time.ZoneOffset;
-import java.time.format.DateTimeFormatter;
-import java.util.UUID;
 
 @Service
 @Slf4j
 public class TransactionService {
 
-    private static final DateTimeFormatter ISO_OFFSET =
-            DateTimeFormatter.ISO_OFFSET_DATE_TIME;
     private final AccountStorageService accountStorageService;
+    private final AccountVerificationCache verificationCache;
     private final BankStorageService bankStorageService;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ParticipantDirectory directory;
+    private final MessageIdService messageIdService;
+    private final CachedClock clock;
+    private final LogSampler logSampler;
+    private final SettlementMetrics settlementMetrics;
 
     public TransactionService(AccountStorageService accountStorageService,
-                              BankStorageService bankStorageService) {
+                              AccountVerificationCache verificationCache,
+                              BankStorageService bankStorageService,
+                              ParticipantDirectory directory,
+                              MessageIdService messageIdService,
+                              CachedClock clock,
+                              LogSampler logSampler,
+                              SettlementMetrics settlementMetrics) {
         this.accountStorageService = accountStorageService;
+        this.verificationCache = verificationCache;
         this.bankStorageService = bankStorageService;
+        this.directory = directory;
+        this.messageIdService = messageIdService;
+        this.clock = clock;
+        this.logSampler = logSampler;
+        this.settlementMetrics = settlementMetrics;
     }
 
     // ========================================================================
@@ -41,23 +59,20 @@ public class TransactionService {
     // ========================================================================
     public ResponseEntity<String> verifyAccount(AccountVerificationRequest request) {
 
-        String msgId = "AV-" + OffsetDateTime.now(ZoneOffset.UTC)
-                .format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
+        String msgId = messageIdService.nextMsgId("AV-");
         String queryRef = request.getReference() != null
                 ? request.getReference()
-                : "AVQ-" + UUID.randomUUID().toString().replace("-", "").substring(0, 10);
+                : messageIdService.nextMsgId("AVQ-");
 
         String requestingBic = request.getRequestingBankBic(); // e.g. HNBLSLFRXXX
         String targetBic = request.getTargetBankBic();     // e.g. DEUTDEFFXXX
 
         try {
-            log.info("[ACCOUNT-VERIFY] Incoming request: {}",
-                    objectMapper.writeValueAsString(request));
+            if (logSampler.sample(LogSampler.ACCOUNT_VERIFY)) {
+                log.info("[ACCOUNT-VERIFY] Incoming request: {}", LazyJson.of(request));
+            }
 
-            Account account = accountStorageService.getAccountByAccountNumberAndBankCode(
-                    request.getAccountNumber(),
-                    targetBic
-            );
+            Account account = verificationCache.lookup(request.getAccountNumber(), directory.canonical(targetBic));
 
             boolean exists = account != null;
 
@@ -67,7 +82,7 @@ public class TransactionService {
                     requestingBic,
                     targetBic,
                     request.getAccountNumber(),
-                    account.getAccountHolderName().toUpperCase(),
+                    exists ? account.getAccountHolderName().toUpperCase() : null,
                     exists
             );
 
@@ -77,7 +92,7 @@ public class TransactionService {
                     .contentType(MediaType.APPLICATION_XML)
                     .body(xml);
 
-        } catch (JsonProcessingException e) {
+        } catch (RuntimeException e) {
             log.error("[ACCOUNT-VERIFY] Error: {}", e.getMessage(), e);
 
             String xml = buildCamt004Error(
@@ -105,7 +120,7 @@ public class TransactionService {
                                 String accountHolderName,
                                 boolean exists) {
 
-        String now = OffsetDateTime.now(ZoneOffset.UTC).format(ISO_OFFSET);
+        String now = clock.isoDateTimeUtc();
 
         StringBuilder xml = new StringBuilder();
         xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
@@ -163,7 +178,7 @@ public class TransactionService {
                                      String accountNumber,
                                      String errCode,
                                      String errDesc) {
-        String now = OffsetDateTime.now(ZoneOffset.UTC).format(ISO_OFFSET);
+        String now = clock.isoDateTimeUtc();
 
         String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
                 "<Document xmlns=\"urn:iso:std:iso:20022:tech:xsd:camt.004.001.08\">\n" +
@@ -188,26 +203,94 @@ public class TransactionService {
     // 2) CREDIT TRANSFER (pacs.008 in / pacs.002 out)
     // ========================================================================
     public ResponseEntity<String> processCreditTransfer(CreditTransferRequest request) {
-        String businessMessageId = "BM" + OffsetDateTime.now(ZoneOffset.UTC)
-                .format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
-        String originalMessageId = "CT-" + UUID.randomUUID().toString().replace("-", "").substring(0, 12);
+        SettlementMetrics.Trace trace = settlementMetrics.start();
+        String businessMessageId = messageIdService.nextMsgId("BM");
+        String originalMessageId = messageIdService.nextMsgId("CT-");
         String endToEndId = request.getEndToEndId() != null
                 ? request.getEndToEndId()
-                : "E2E-" + request.getInitiatorAccountNumber() + "-" + request.getRecipientAccountNumber();
+                : messageIdService.nextEndToEndId();
 
         String debtorAgentBic = request.getInitiatorBic();   // e.g. "HNBLSLFRXXX"
         String creditorAgentBic = request.getRecipientBic();   // e.g. "DEUTDEFFXXX"
         String currency = request.getCurrency() != null ? request.getCurrency() : "LKR";
 
+        // Amount must be positive and fit the currency exponent (e.g. no 3rd decimal for USD)
+        Money amount;
+        try {
+            amount = Money.of(request.getAmount(), currency);
+        } catch (IllegalArgumentException e) {
+            amount = null;
+        }
+        trace.identify(originalMessageId, endToEndId, debtorAgentBic, creditorAgentBic,
+                amount != null ? amount : request.getAmount());
+        trace.stage(Stage.PARSE);
+
+        if (amount == null || !amount.isPositive()) {
+            log.warn("[CT] Invalid amount: amount={} currency={}", request.getAmount(), currency);
+
+            String xml = buildPacs002(
+                    businessMessageId,
+                    originalMessageId,
+                    endToEndId,
+                    debtorAgentBic,
+                    creditorAgentBic,
+                    "RJCT",
+                    "AM12",
+                    "Invalid amount for currency " + currency + ".",
+                    null,
+                    currency,
+                    request.getInitiatorAccountNumber(),
+                    request.getRecipientAccountNumber()
+            );
+            trace.stage(Stage.RENDER);
+            trace.outcome("RJCT", "AM12");
+
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .contentType(MediaType.APPLICATION_XML)
+                    .body(xml);
+        }
+
+        // One directory lookup per agent; storage lookups are keyed by the BIC8
+        Participant debtor = directory.resolve(debtorAgentBic);
+        Participant creditor = directory.resolve(creditorAgentBic);
+        String debtorCode = debtor != null ? debtor.getBic() : directory.canonical(debtorAgentBic);
+        String creditorCode = creditor != null ? creditor.getBic() : directory.canonical(creditorAgentBic);
+
+        if (debtor != null && debtor.isSuspended() || creditor != null && creditor.isSuspended()) {
+            Participant suspended = debtor != null && debtor.isSuspended() ? debtor : creditor;
+            log.warn("[CT] Participant suspended: {}", suspended.getBic());
+
+            String xml = buildPacs002(
+                    businessMessageId,
+                    originalMessageId,
+                    endToEndId,
+                    debtorAgentBic,
+                    creditorAgentBic,
+                    "RJCT",
+                    "AG01",
+                    "Participant " + suspended.getBic() + " is suspended.",
+                    amount,
+                    currency,
+                    request.getInitiatorAccountNumber(),
+                    request.getRecipientAccountNumber()
+            );
+            trace.stage(Stage.RENDER);
+            trace.outcome("RJCT", "AG01");
+
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .contentType(MediaType.APPLICATION_XML)
+                    .body(xml);
+        }
+
         try {
-            log.info("[CT] IPS RECEIVES pacs.008 CREDIT TRANSFER REQUEST");
-            log.info("[CT] Incoming request: {}", objectMapper.writeValueAsString(request));
+            log.debug("[CT] Incoming request: {}", LazyJson.of(request));
 
             // 1. Validate debtor account
             Account payer = accountStorageService.getAccountByAccountNumberAndBankCode(
                     request.getInitiatorAccountNumber(),
-                    debtorAgentBic
+                    debtorCode
             );
+            trace.stage(Stage.PAYER_LOOKUP);
 
             if (payer == null) {
                 log.warn("[CT] Initiator account not found: bank={} account={}",
@@ -222,11 +305,13 @@ public class TransactionService {
                         "RJCT",
                         "AC04",
                         "Initiator account not found at debtor agent.",
-                        request.getAmount(),
+                        amount,
                         currency,
                         request.getInitiatorAccountNumber(),
                         request.getRecipientAccountNumber()
                 );
+                trace.stage(Stage.RENDER);
+                trace.outcome("RJCT", "AC04");
 
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                         .contentType(MediaType.APPLICATION_XML)
@@ -235,23 +320,25 @@ public class TransactionService {
 
             // 2. Hold liquidity at debtor agent
             bankStorageService.updateLiquidityBalance(
-                    debtorAgentBic,
-                    request.getAmount(),
+                    debtorCode,
+                    amount,
                     "DEBIT"
             );
+            trace.stage(Stage.LIQUIDITY_HOLD);
 
             // 3. Validate creditor account
             Account payee = accountStorageService.getAccountByAccountNumberAndBankCode(
                     request.getRecipientAccountNumber(),
-                    creditorAgentBic
+                    creditorCode
             );
+            trace.stage(Stage.PAYEE_LOOKUP);
 
             if (payee == null) {
                 log.warn("[CT] Payee account not found: bank={} account={}",
                         creditorAgentBic, request.getRecipientAccountNumber());
 
-                // Optional: release liquidity hold
-                // bankStorageService.updateLiquidityBalance(debtorAgentBic, request.getAmount(), "CREDIT");
+                // Release the liquidity hold, otherwise the debtor agent loses it for good
+                bankStorageService.updateLiquidityBalance(debtorCode, amount, "CREDIT");
 
                 String xml = buildPacs002(
                         businessMessageId,
@@ -262,11 +349,13 @@ public class TransactionService {
                         "RJCT",
                         "AC04",
                         "Recipient account not found at creditor agent.",
-                        request.getAmount(),
+                        amount,
                         currency,
                         request.getInitiatorAccountNumber(),
                         request.getRecipientAccountNumber()
                 );
+                trace.stage(Stage.RENDER);
+                trace.outcome("RJCT", "AC04");
 
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                         .contentType(MediaType.APPLICATION_XML)
@@ -275,22 +364,29 @@ public class TransactionService {
 
             // 4. Clear & settle
             bankStorageService.updateLiquidityBalance(
-                    creditorAgentBic,
-                    request.getAmount(),
+                    creditorCode,
+                    amount,
                     "CREDIT"
             );
 
             accountStorageService.updateAccountBalance(
                     payer,
-                    request.getAmount(),
+                    amount,
                     "DEBIT"
             );
 
             accountStorageService.updateAccountBalance(
                     payee,
-                    request.getAmount(),
+                    amount,
                     "CREDIT"
             );
+            trace.stage(Stage.POSTINGS);
+
+            if (logSampler.sample(LogSampler.CT_SUCCESS)) {
+                log.info("[CT] Settled: endToEndId={} {} {} -> {} {}",
+                        endToEndId, debtorAgentBic, request.getInitiatorAccountNumber(),
+                        creditorAgentBic, amount);
+            }
 
             String xml = buildPacs002(
                     businessMessageId,
@@ -301,17 +397,19 @@ public class TransactionService {
                     "ACSC",  // AcceptedSettlementCompleted
                     null,
                     "Transaction successfully settled through IPS.",
-                    request.getAmount(),
+                    amount,
                     currency,
                     request.getInitiatorAccountNumber(),
                     request.getRecipientAccountNumber()
             );
+            trace.stage(Stage.RENDER);
+            trace.outcome("ACSC", null);
 
             return ResponseEntity.status(HttpStatus.OK)
                     .contentType(MediaType.APPLICATION_XML)
                     .body(xml);
 
-        } catch (JsonProcessingException e) {
+        } catch (RuntimeException e) {
             log.error("[CT] Error processing transaction: {}", e.getMessage(), e);
 
             String xml = buildPacs002(
@@ -323,11 +421,12 @@ public class TransactionService {
                     "RJCT",
                     "U999",
                     "Internal server error while processing credit transfer.",
-                    request.getAmount(),
+                    amount,
                     currency,
                     request.getInitiatorAccountNumber(),
                     request.getRecipientAccountNumber()
             );
+            trace.outcome("RJCT", "U999");
 
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .contentType(MediaType.APPLICATION_XML)
@@ -335,21 +434,63 @@ public class TransactionService {
         }
     }
 
-    // Build pacs.002.001.12 FIToFIPmtStsRpt
-    private String buildPacs002(String businessMessageId,
-                                String originalMessageId,
-                                String endToEndId,
-                                String debtorAgentBic,
-                                String creditorAgentBic,
-                                String txStatus,
-                                String reasonCode,
-                                String additionalInfo,
-                                BigDecimal amount,
-                                String currency,
-                                String debtorAccount,
-                                String creditorAccount) {
-
-        String now = OffsetDateTime.now(ZoneOffset.UTC).format(ISO_OFFSET);
+    /**
+     * pacs.002 RJCT for a credit transfer the creditor agent refuses outright, e.g. an
+     * injected AC04 from a fault profile. Nothing is posted.
+     */
+    public ResponseEntity<String> rejectCreditTransfer(CreditTransferRequest request, String reasonCode) {
+        return rejectCreditTransfer(request, reasonCode, "Rejected by creditor agent.");
+    }
+
+    /**
+     * pacs.002 RJCT for a transfer turned away before being processed, with
+     * {@code additionalInfo} as the status reason's narrative.
+     */
+    public ResponseEntity<String> rejectCreditTransfer(CreditTransferRequest request, String reasonCode,
+                                                       String additionalInfo) {
+        String currency = request.getCurrency() != null ? request.getCurrency() : "LKR";
+        Money amount;
+        try {
+            amount = Money.of(request.getAmount(), currency);
+        } catch (IllegalArgumentException e) {
+            amount = null;
+        }
+        String xml = buildPacs002(
+                messageIdService.nextMsgId("BM"),
+                messageIdService.nextMsgId("CT-"),
+                request.getEndToEndId() != null ? request.getEndToEndId() : messageIdService.nextEndToEndId(),
+                request.getInitiatorBic(),
+                request.getRecipientBic(),
+                "RJCT",
+                reasonCode,
+                additionalInfo,
+                amount,
+                currency,
+                request.getInitiatorAccountNumber(),
+                request.getRecipientAccountNumber()
+        );
+        settlementMetrics.outcome("RJCT", reasonCode);
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .contentType(MediaType.APPLICATION_XML)
+                .body(xml);
+    }
+
+    // Build pacs.002.001.12 FIToFIPmtStsRpt (package-private for the JMH benchmarks)
+    String buildPacs002(String businessMessageId,
+                        String originalMessageId,
+                        String endToEndId,
+                        String debtorAgentBic,
+                        String creditorAgentBic,
+                        String txStatus,
+                        String reasonCode,
+                        String additionalInfo,
+                        Money amount,
+                        String currency,
+                        String debtorAccount,
+                        String creditorAccount) {
+
+        String now = clock.isoDateTimeUtc();
         String msgName = "pacs.008.001.08";
 
         StringBuilder xml = new StringBuilder();
@@ -391,9 +532,8 @@ public class TransactionService {
         if (amount != null) {
             xml.append("        <OrgnlTxRef>\n");
             xml.append("          <Amt>\n");
-            xml.append("            <InstdAmt Ccy=\"").append(esc(currency)).append("\">")
-                    .append(amount.setScale(2, RoundingMode.HALF_UP).toPlainString())
-                    .append("</InstdAmt>\n");
+            xml.append("            <InstdAmt Ccy=\"").append(esc(currency)).append("\">");
+            amount.appendIso(xml).append("</InstdAmt>\n");
             xml.append("          </Amt>\n");
             if (debtorAccount != null) {
                 xml.append("          <DbtrAcct><Id><Othr><Id>")
@@ -437,19 +577,20 @@ public class TransactionService {
 
         String msgId = request.getReference() != null
                 ? request.getReference()
-                : "BI-" + OffsetDateTime.now(ZoneOffset.UTC)
-                .format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
+                : messageIdService.nextMsgId("BI-");
 
         String requestingBic = request.getRequestingBankBic(); // e.g. HNBLSLFRXXX
         String targetBic = request.getTargetBankBic();     // e.g. DEUTDEFFXXX
 
         try {
-            log.info("[BAL-INQ] Incoming request: requestingBankBic={}, targetBankBic={}, account={}",
-                    requestingBic, targetBic, request.getAccountNumber());
+            if (logSampler.sample(LogSampler.BALANCE_INQUIRY)) {
+                log.info("[BAL-INQ] Incoming request: requestingBankBic={}, targetBankBic={}, account={}",
+                        requestingBic, targetBic, request.getAccountNumber());
+            }
 
             Account account = accountStorageService.getAccountByAccountNumberAndBankCode(
                     request.getAccountNumber(),
-                    targetBic
+                    directory.canonical(targetBic)
             );
 
             if (account == null) {
@@ -514,19 +655,42 @@ public class TransactionService {
         }
     }
 
-    // In TransactionService
+    /**
+     * camt.004 error for an account verification or balance inquiry the target bank
+     * refuses outright, e.g. an injected AC04 from a fault profile.
+     */
+    public ResponseEntity<String> rejectAccountQuery(AccountVerificationRequest request, String errCode) {
+        String msgId = request.getReference() != null
+                ? request.getReference()
+                : messageIdService.nextMsgId("AV-");
+        String xml = buildCamt004Error(
+                msgId,
+                msgId,
+                request.getRequestingBankBic(),
+                request.getTargetBankBic(),
+                request.getAccountNumber(),
+                errCode,
+                "Rejected by target agent."
+        );
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .contentType(MediaType.APPLICATION_XML)
+                .body(xml);
+    }
+
+    // In TransactionService (package-private for the JMH benchmarks)
 
-    private String buildCamt004WithBalance(String msgId,
-                                           String requestingBic,
-                                           String targetBic,
-                                           String accountNumber,
-                                           BigDecimal balance,
-                                           String currency) {
-        String now = OffsetDateTime.now(ZoneOffset.UTC).format(ISO_OFFSET);
+    String buildCamt004WithBalance(String msgId,
+                                   String requestingBic,
+                                   String targetBic,
+                                   String accountNumber,
+                                   BigDecimal balance,
+                                   String currency) {
+        String now = clock.isoDateTimeUtc();
 
         String balStr = balance != null
-                ? balance.setScale(2, RoundingMode.HALF_UP).toPlainString()
-                : "0.00";
+                ? Money.rounded(balance, currency).toIsoString()
+                : Money.ofMinor(0, currency).toIsoString();
 
         String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
                 "<Document xmlns=\"urn:iso:std:iso:20022:tech:xsd:camt.004.001.08\">\n" +
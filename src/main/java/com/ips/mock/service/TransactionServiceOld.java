@@ -3,6 +3,7 @@ package com.ips.mock.service;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ips.mock.dto.Account;
+import com.ips.mock.money.Money;
 import com.ips.mock.request.CreditTransferRequestOld;
 import com.ips.mock.response.DefaultResponse;
 import com.ips.mock.service.storage.AccountStorageService;
@@ -40,8 +41,11 @@ public class TransactionServiceOld {
                 return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
             }
 
+            // legacy requests carry no currency; settle in the payer account currency
+            Money amount = Money.rounded(request.getAmount(), payer.getCurrency());
+
             //debit liquidity from debtor agent
-            bankStorageService.updateLiquidityBalance(request.getInitiator(), request.getAmount(),"DEBIT");
+            bankStorageService.updateLiquidityBalance(request.getInitiator(), amount,"DEBIT");
 
             log.info("[STEP 003] FORWARDS THE PACS.008 REQUEST TO THE CREDITOR AGENT");
             log.info("[STEP 004] CREDITOR AGENT VALIDATES THE PACS.008 AND VERIFIES THE PAYEE DETAILS");
@@ -60,16 +64,16 @@ public class TransactionServiceOld {
             log.info("[STEP 005] CREDITOR AGENT SENDS PACS.002");
             log.info("[STEP 006] IPS VALIDATES THE PACS.002 AND CLEARS THE TRANSACTION ACROSS PARTICIPANTS ACCOUNTS");
 
-            bankStorageService.updateLiquidityBalance(request.getRecipient(), request.getAmount(), "CREDIT");
+            bankStorageService.updateLiquidityBalance(request.getRecipient(), amount, "CREDIT");
 
             log.info("[STEP 007] IPS SENDS PACS.002 DEBTOR AGENT AND DEBTOR AGENT DEBITS THE FUNDS FROM PAYER");
             //debit funds from payer account
-            accountStorageService.updateAccountBalance(payer, request.getAmount(), "DEBIT");
+            accountStorageService.updateAccountBalance(payer, amount, "DEBIT");
 
             log.info("[STEP 008] IPS SENDS PACS.002 DEBTOR CREDITOR AND CREDITOR AGENT CREDITS THE FUNDS TO PAYER");
             //credit funds from payee account
             log.info("payee details: {}",objectMapper.writeValueAsString(payee));
-            accountStorageService.updateAccountBalance(payee, request.getAmount(), "CREDIT");
+            accountStorageService.updateAccountBalance(payee, amount, "CREDIT");
 
             DefaultResponse response = DefaultResponse.builder()
                     .status(HttpStatus.OK.value())
@@ -0,0 +1,48 @@
+package com.ips.mock.service.archive;
+
+/**
+ * Handle to a raw message in the {@link RawMessageArchive}: the archive and the
+ * record's position (segment number in the high bits, byte offset in the low bits).
+ * The text is only read back and inflated when {@link #read()} is called.
+ */
+public final class ArchivedMessage {
+
+    private final RawMessageArchive archive;
+    private final long position;
+
+    ArchivedMessage(RawMessageArchive archive, long position) {
+        this.archive = archive;
+        this.position = position;
+    }
+
+    /**
+     * The archived text, or null if its segment has been dropped by retention
+     * or could not be read.
+     */
+    public String read() {
+        return archive.read(position);
+    }
+
+    public int getSegment() {
+        return RawMessageArchive.segmentOf(position);
+    }
+
+    public long getOffset() {
+        return RawMessageArchive.offsetOf(position);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof ArchivedMessage other && other.archive == archive && other.position == position;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(position);
+    }
+
+    @Override
+    public String toString() {
+        return "ArchivedMessage[segment=" + getSegment() + ", offset=" + getOffset() + "]";
+    }
+}
@@ -0,0 +1,358 @@
+package com.ips.mock.service.archive;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Append-only archive of raw MT / ISO 20022 messages on local disk, so payments
+ * only need to keep a small {@link ArchivedMessage} handle instead of the text.
+ * <p>
+ * Messages are deflated one by one (with a preset dictionary of common MT / XML
+ * fragments, which matters for messages this small) and appended to the current
+ * segment file; a new segment is started once it reaches ips.archive.segment-size-mb,
+ * and only the newest ips.archive.max-segments are kept, counting segments left by
+ * earlier runs. Appends are serialized and reuse their buffers; reads are positional
+ * and lock-free. With ips.archive.enabled=false nothing is written and payments keep
+ * their raw text.
+ * <p>
+ * Segment layout: an 8-byte header ("IPSA" + format version), then records of
+ * [int raw length][int compressed length][deflated UTF-8 bytes].
+ */
+@Service
+@Slf4j
+public class RawMessageArchive {
+
+    private static final int MAGIC = 0x49505341; // "IPSA"
+    private static final int VERSION = 1;
+    private static final int SEGMENT_HEADER = 8;
+    private static final int RECORD_HEADER = 8;
+
+    private static final int OFFSET_BITS = 40;
+    private static final long OFFSET_MASK = (1L << OFFSET_BITS) - 1;
+
+    // Most likely matches go last: deflate prefers the closest back-reference
+    private static final byte[] DICTIONARY = (
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                    + "<Document xmlns=\"urn:iso:std:iso:20022:tech:xsd:camt.054.001.08\">"
+                    + "<BkToCstmrDbtCdtNtfctn><Ntfctn><Acct><Othr><Ntry><Amt Ccy=\"EUR\"></Amt>"
+                    + "<CdtDbtInd>CRDT</CdtDbtInd><BookgDt><Dt></Dt></BookgDt><NtryDtls><TxDtls><Refs>"
+                    + "<RltdPties><Dbtr><Nm></Nm></Dbtr><Cdtr><Nm></Nm></Cdtr></RltdPties>"
+                    + "<Document xmlns=\"urn:iso:std:iso:20022:tech:xsd:pacs.008.001.08\">"
+                    + "<FIToFICstmrCdtTrf><GrpHdr><MsgId></MsgId><CreDtTm></CreDtTm><NbOfTxs>1</NbOfTxs>"
+                    + "<SttlmInf><SttlmMtd>CLRG</SttlmMtd></SttlmInf></GrpHdr><CdtTrfTxInf><PmtId>"
+                    + "<InstrId></InstrId><EndToEndId></EndToEndId><TxId></TxId></PmtId>"
+                    + "<IntrBkSttlmAmt Ccy=\"EUR\"></IntrBkSttlmAmt><ChrgBr>SHAR</ChrgBr>"
+                    + "<Dbtr><Nm></Nm><PstlAdr><AdrLine></AdrLine></PstlAdr></Dbtr><DbtrAcct><Id><IBAN></IBAN></Id></DbtrAcct>"
+                    + "<Cdtr><Nm></Nm><PstlAdr><AdrLine></AdrLine></PstlAdr></Cdtr><CdtrAcct><Id><IBAN></IBAN></Id></CdtrAcct>"
+                    + "<RmtInf><Ustrd></Ustrd></RmtInf></CdtTrfTxInf></FIToFICstmrCdtTrf></Document>\n"
+                    + "{1:F01BKBKDEFFMVP0000000000}\n{2:I910BKAALKLXADVPN}\n:21::25:EUR12345678\n:52A:BKAALKLXADVP\n"
+                    + ":72:/ACC/ CREDITED\n-}\n{5:{CHK:ZX98YU76TR54}}\n"
+                    + "{1:F01BKAALKLXADVP0000000000}\n{2:I103BKBKDEFFMVPN}\n{3:{108:}}\n{4:\n:20:"
+                    + "\n:23B:CRED\n:32A:EUR\n:33B:EUR\n:50K:/\n:59:/\n:70:\n:71A:SHA\n-}\n{5:{CHK:AB12CD34EF56}}\n"
+    ).getBytes(StandardCharsets.UTF_8);
+
+    private final boolean enabled;
+    private final Path dir;
+    private final long segmentSize;
+    private final int maxSegments;
+
+    private final Deque<Integer> segments = new ArrayDeque<>();
+    private final Map<Integer, FileChannel> channels = new ConcurrentHashMap<>();
+
+    // Writer state, guarded by this
+    private final Deflater deflater;
+    private byte[] plain = new byte[4096];
+    private byte[] compressed = new byte[4096];
+    private ByteBuffer compressedBuffer = ByteBuffer.wrap(compressed);
+    private int currentSegment;
+    private FileChannel current;
+    private long currentSize;
+
+    private final Counter rawBytes;
+    private final Counter storedBytes;
+    private final Counter failures;
+
+    public RawMessageArchive(@Value("${ips.archive.enabled:true}") boolean enabled,
+                             @Value("${ips.archive.dir:archive}") String dir,
+                             @Value("${ips.archive.segment-size-mb:64}") int segmentSizeMb,
+                             @Value("${ips.archive.max-segments:16}") int maxSegments,
+                             @Value("${ips.archive.compression-level:6}") int compressionLevel,
+                             MeterRegistry registry) {
+        this.enabled = enabled;
+        this.dir = Paths.get(dir);
+        this.segmentSize = segmentSizeMb * 1024L * 1024L;
+        this.maxSegments = Math.max(1, maxSegments);
+        this.deflater = new Deflater(compressionLevel);
+        if (enabled) {
+            try {
+                Files.createDirectories(this.dir);
+                segments.addAll(existingSegments());
+                openSegment(segments.isEmpty() ? 0 : segments.peekLast() + 1);
+                dropOldSegments();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not open raw message archive in " + dir, e);
+            }
+        }
+
+        Gauge.builder("ips.archive.segments", this, RawMessageArchive::segmentCount)
+                .description("Raw message archive segments on disk")
+                .register(registry);
+        this.rawBytes = Counter.builder("ips.archive.bytes").tag("kind", "raw")
+                .baseUnit("bytes").register(registry);
+        this.storedBytes = Counter.builder("ips.archive.bytes").tag("kind", "stored")
+                .baseUnit("bytes").register(registry);
+        this.failures = Counter.builder("ips.archive.failures").register(registry);
+        if (enabled) {
+            log.info("[ARCHIVE] Archiving raw messages to {} (segment {})", this.dir.toAbsolutePath(), currentSegment);
+        } else {
+            log.info("[ARCHIVE] Disabled, raw messages stay in memory");
+        }
+    }
+
+    /**
+     * Compress and append a message. Returns null if it could not be written, in
+     * which case the caller should keep the text itself.
+     */
+    public synchronized ArchivedMessage append(String text) {
+        if (text == null || !enabled) {
+            return null;
+        }
+        try {
+            int rawLength = encode(text);
+            int compressedLength = deflate(rawLength);
+            if (currentSize + RECORD_HEADER + compressedLength > segmentSize && currentSize > SEGMENT_HEADER) {
+                roll();
+            }
+
+            long offset = currentSize;
+            ByteBuffer buf = compressedBuffer;
+            buf.clear();
+            buf.putInt(0, rawLength).putInt(4, compressedLength);
+            buf.limit(RECORD_HEADER + compressedLength);
+            while (buf.hasRemaining()) {
+                currentSize += current.write(buf, currentSize);
+            }
+            rawBytes.increment(rawLength);
+            storedBytes.increment(RECORD_HEADER + compressedLength);
+            return new ArchivedMessage(this, ((long) currentSegment << OFFSET_BITS) | offset);
+        } catch (IOException e) {
+            failures.increment();
+            log.warn("[ARCHIVE] Could not append to segment {}: {}", currentSegment, e.toString());
+            return null;
+        }
+    }
+
+    String read(long position) {
+        FileChannel channel = channel(segmentOf(position));
+        if (channel == null) {
+            return null;
+        }
+        long offset = offsetOf(position);
+        Inflater inflater = new Inflater();
+        try {
+            ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER);
+            readFully(channel, header, offset);
+            byte[] in = new byte[header.getInt(4)];
+            readFully(channel, ByteBuffer.wrap(in), offset + RECORD_HEADER);
+
+            byte[] out = new byte[header.getInt(0)];
+            inflater.setInput(in);
+            int n = 0;
+            while (n < out.length) {
+                int k = inflater.inflate(out, n, out.length - n);
+                if (k == 0 && inflater.needsDictionary()) {
+                    inflater.setDictionary(DICTIONARY);
+                } else if (k == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new DataFormatException("truncated record");
+                }
+                n += k;
+            }
+            return new String(out, StandardCharsets.UTF_8);
+        } catch (IOException | DataFormatException e) {
+            failures.increment();
+            log.warn("[ARCHIVE] Could not read segment {} at {}: {}", segmentOf(position), offset, e.toString());
+            return null;
+        } finally {
+            inflater.end();
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        deflater.end();
+        for (FileChannel channel : channels.values()) {
+            closeQuietly(channel);
+        }
+        channels.clear();
+    }
+
+    static int segmentOf(long position) {
+        return (int) (position >>> OFFSET_BITS);
+    }
+
+    static long offsetOf(long position) {
+        return position & OFFSET_MASK;
+    }
+
+    // ------- Helpers -------
+
+    // UTF-8 into the reused buffer; all-ASCII messages (every MT, most XML) skip the encoder
+    private int encode(String text) {
+        int len = text.length();
+        if (plain.length < len) {
+            plain = new byte[Math.max(len, plain.length * 2)];
+        }
+        for (int i = 0; i < len; i++) {
+            char c = text.charAt(i);
+            if (c >= 0x80) {
+                byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+                if (plain.length < utf8.length) {
+                    plain = new byte[utf8.length];
+                }
+                System.arraycopy(utf8, 0, plain, 0, utf8.length);
+                return utf8.length;
+            }
+            plain[i] = (byte) c;
+        }
+        return len;
+    }
+
+    // Deflates plain[0..length) into compressed, after the record header
+    private int deflate(int length) {
+        deflater.reset();
+        deflater.setDictionary(DICTIONARY);
+        deflater.setInput(plain, 0, length);
+        deflater.finish();
+        int n = RECORD_HEADER;
+        while (!deflater.finished()) {
+            if (n == compressed.length) {
+                byte[] bigger = new byte[compressed.length * 2];
+                System.arraycopy(compressed, 0, bigger, 0, n);
+                compressed = bigger;
+                compressedBuffer = ByteBuffer.wrap(compressed);
+            }
+            n += deflater.deflate(compressed, n, compressed.length - n);
+        }
+        return n - RECORD_HEADER;
+    }
+
+    private void roll() throws IOException {
+        current.force(false);
+        openSegment(currentSegment + 1);
+        dropOldSegments();
+    }
+
+    private void dropOldSegments() throws IOException {
+        while (segments.size() > maxSegments) {
+            int oldest = segments.pollFirst();
+            FileChannel channel = channels.remove(oldest);
+            if (channel != null) {
+                closeQuietly(channel);
+            }
+            Files.deleteIfExists(segmentFile(oldest));
+            log.info("[ARCHIVE] Dropped segment {}", oldest);
+        }
+    }
+
+    private void openSegment(int segment) throws IOException {
+        FileChannel channel = FileChannel.open(segmentFile(segment),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER).putInt(MAGIC).putInt(VERSION).flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        channels.put(segment, channel);
+        segments.addLast(segment);
+        currentSegment = segment;
+        current = channel;
+        currentSize = SEGMENT_HEADER;
+    }
+
+    private FileChannel channel(int segment) {
+        FileChannel channel = channels.get(segment);
+        if (channel != null) {
+            return channel;
+        }
+        synchronized (this) {
+            channel = channels.get(segment);
+            if (channel != null || !segments.contains(segment)) {
+                return channel;
+            }
+            try {
+                channel = FileChannel.open(segmentFile(segment), StandardOpenOption.READ);
+            } catch (IOException e) {
+                failures.increment();
+                log.warn("[ARCHIVE] Could not open segment {}: {}", segment, e.toString());
+                return null;
+            }
+            channels.put(segment, channel);
+            return channel;
+        }
+    }
+
+    private List<Integer> existingSegments() throws IOException {
+        List<Integer> found = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "segment-*.ipsa")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    found.add(Integer.parseInt(name.substring(8, name.length() - 5)));
+                } catch (NumberFormatException ignored) {
+                    // not one of ours
+                }
+            }
+        }
+        Collections.sort(found);
+        return found;
+    }
+
+    private Path segmentFile(int segment) {
+        return dir.resolve(String.format("segment-%08d.ipsa", segment));
+    }
+
+    private synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) {
+            if (channel.read(buf, position + buf.position()) < 0) {
+                throw new IOException("unexpected end of segment");
+            }
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.debug("[ARCHIVE] Could not close segment: {}", e.toString());
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.ips.mock.service.id;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Timestamps for message headers, formatted at most once per tick.
+ * <p>
+ * CreDtTm is re-rendered at most once per millisecond and business dates once per
+ * day. Readers race on a single volatile snapshot each; a stale snapshot is simply
+ * replaced by whoever notices first.
+ */
+@Component
+public class CachedClock {
+
+    private static final DateTimeFormatter ISO_OFFSET = DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+    private static final DateTimeFormatter BASIC_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final DateTimeFormatter ISO_DATE = DateTimeFormatter.ISO_LOCAL_DATE;
+
+    private volatile Tick isoNow = new Tick(Long.MIN_VALUE, null);
+    private volatile Day today = new Day(Long.MIN_VALUE, null, null);
+
+    /**
+     * Current UTC time as ISO offset date-time, e.g. {@code 2025-12-09T10:15:30.123Z}.
+     */
+    public String isoDateTimeUtc() {
+        long now = System.currentTimeMillis();
+        Tick t = isoNow;
+        if (t.key != now) {
+            t = new Tick(now, ISO_OFFSET.format(Instant.ofEpochMilli(now).atOffset(ZoneOffset.UTC)));
+            isoNow = t;
+        }
+        return t.text;
+    }
+
+    /**
+     * Local business date as {@code yyyyMMdd}.
+     */
+    public String basicDate() {
+        return day().basic;
+    }
+
+    /**
+     * Local business date as {@code yyyy-MM-dd}.
+     */
+    public String isoDate() {
+        return day().iso;
+    }
+
+    private Day day() {
+        Day d = today;
+        if (System.currentTimeMillis() >= d.validUntil) {
+            ZoneId zone = ZoneId.systemDefault();
+            LocalDate date = LocalDate.now(zone);
+            d = new Day(date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli(),
+                    date.format(BASIC_DATE), date.format(ISO_DATE));
+            today = d;
+        }
+        return d;
+    }
+
+    private static final class Tick {
+        final long key;
+        final String text;
+
+        Tick(long key, String text) {
+            this.key = key;
+            this.text = text;
+        }
+    }
+
+    private static final class Day {
+        final long validUntil;
+        final String basic;
+        final String iso;
+
+        Day(long validUntil, String basic, String iso) {
+            this.validUntil = validUntil;
+            this.basic = basic;
+            this.iso = iso;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.ips.mock.service.id;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Issues MsgId / EndToEndId / reference values for every message builder.
+ * <p>
+ * An id is {@code prefix + node(2) + boot(8) + sequence}, all base36. The node tag
+ * separates instances, the boot tag (start-up time in millis) separates restarts of
+ * the same node, and the sequence comes from per-thread blocks handed out by a shared
+ * counter, so threads only touch shared state once every {@link #BLOCK_SIZE} ids.
+ */
+@Service
+@Slf4j
+public class MessageIdService {
+
+    static final int BLOCK_SIZE = 1 << 16;
+
+    private static final char[] BASE36 = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray();
+
+    private final char[] instanceTag;
+    private final AtomicLong blocks = new AtomicLong();
+    private final ThreadLocal<Sequence> sequences = ThreadLocal.withInitial(Sequence::new);
+
+    public MessageIdService(@Value("${ips.id.node:}") String node) {
+        String nodeTag = node == null || node.isBlank() ? deriveNodeTag() : normalizeNodeTag(node);
+        this.instanceTag = (nodeTag + base36(System.currentTimeMillis(), 8)).toCharArray();
+        log.info("Message ids use instance tag {}", new String(instanceTag));
+    }
+
+    /**
+     * Group header MsgId, e.g. {@code BM} / {@code AV-} / {@code BI-} prefixed.
+     */
+    public String nextMsgId(String prefix) {
+        return next(prefix);
+    }
+
+    public String nextEndToEndId() {
+        return next("E2E-");
+    }
+
+    /**
+     * Payment reference, e.g. {@code REF20251209-0A1B2C3D4E5F6G}.
+     */
+    public String nextReference(String datePart) {
+        return next("REF" + datePart + "-");
+    }
+
+    public String nextPaymentId() {
+        return next("P-");
+    }
+
+    private String next(String prefix) {
+        long seq = sequences.get().next();
+
+        char[] buf = new char[prefix.length() + instanceTag.length + 13];
+        int pos = prefix.length();
+        prefix.getChars(0, pos, buf, 0);
+        System.arraycopy(instanceTag, 0, buf, pos, instanceTag.length);
+        pos += instanceTag.length;
+
+        // sequence is the only variable-width part, so it goes last
+        int digits = 1;
+        for (long v = seq / 36; v > 0; v /= 36) {
+            digits++;
+        }
+        for (int i = pos + digits - 1; i >= pos; i--) {
+            buf[i] = BASE36[(int) (seq % 36)];
+            seq /= 36;
+        }
+        return new String(buf, 0, pos + digits);
+    }
+
+    private final class Sequence {
+        private long next;
+        private long limit;
+
+        long next() {
+            if (next == limit) {
+                next = blocks.getAndIncrement() * BLOCK_SIZE;
+                limit = next + BLOCK_SIZE;
+            }
+            return next++;
+        }
+    }
+
+    // ------- Helpers -------
+
+    private static String deriveNodeTag() {
+        int seed;
+        try {
+            seed = InetAddress.getLocalHost().getHostName().hashCode();
+        } catch (Exception e) {
+            seed = ThreadLocalRandom.current().nextInt();
+        }
+        return base36(Math.floorMod(seed ^ ProcessHandle.current().pid(), 36L * 36L), 2);
+    }
+
+    private static String normalizeNodeTag(String node) {
+        String tag = node.trim().toUpperCase();
+        for (int i = 0; i < tag.length(); i++) {
+            if (Character.digit(tag.charAt(i), 36) < 0) {
+                throw new IllegalArgumentException("ips.id.node must be base36 (0-9, A-Z): " + node);
+            }
+        }
+        if (tag.length() > 2) {
+            throw new IllegalArgumentException("ips.id.node must be at most 2 characters: " + node);
+        }
+        return tag.length() == 2 ? tag : "0" + tag;
+    }
+
+    private static String base36(long value, int width) {
+        char[] chars = new char[width];
+        for (int i = width - 1; i >= 0; i--) {
+            chars[i] = BASE36[(int) (value % 36)];
+            value /= 36;
+        }
+        return new String(chars);
+    }
+}
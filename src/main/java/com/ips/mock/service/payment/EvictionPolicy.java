@@ -0,0 +1,12 @@
+package com.ips.mock.service.payment;
+
+/**
+ * Order in which {@link PaymentStore} evicts within a tier once it is over its size
+ * limit. Completed payments are always evicted before in-flight ones.
+ */
+public enum EvictionPolicy {
+    /** Oldest stored first. */
+    FIFO,
+    /** Least recently looked up or saved first. */
+    LRU
+}
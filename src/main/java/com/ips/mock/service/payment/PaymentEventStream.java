@@ -0,0 +1,251 @@
+package com.ips.mock.service.payment;
+
+import com.ips.mock.PaymentStatus;
+import com.ips.mock.request.Payment;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * In-process stream of payment status transitions: a fixed-size ring
+ * (ips.events.capacity, rounded up to a power of two) that any number of consumers
+ * read at their own pace.
+ * <p>
+ * Publishing never blocks and takes no lock: a publisher claims a sequence number
+ * and stores the event in its slot. Each consumer keeps its own {@link Cursor}; one
+ * that falls more than a ring's worth behind skips ahead and counts what it missed,
+ * so a slow consumer costs only its own events, never the payment path.
+ */
+@Component
+@Slf4j
+public class PaymentEventStream {
+
+    private final AtomicReferenceArray<PaymentStatusEvent> ring;
+    private final int capacity;
+    private final int mask;
+    private final AtomicLong next = new AtomicLong();
+    private final MeterRegistry registry;
+
+    private volatile Subscription[] subscriptions = new Subscription[0];
+
+    public PaymentEventStream(@Value("${ips.events.capacity:65536}") int capacity,
+                              MeterRegistry registry) {
+        this.capacity = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mask = this.capacity - 1;
+        this.ring = new AtomicReferenceArray<>(this.capacity);
+        this.registry = registry;
+        FunctionCounter.builder("ips.payments.events.published", next, AtomicLong::get)
+                .description("Payment status events published")
+                .register(registry);
+    }
+
+    /**
+     * Publish a transition of the payment that just moved from previous to status.
+     */
+    public PaymentStatusEvent publish(Payment p, PaymentStatus previous, PaymentStatus status) {
+        long sequence = next.getAndIncrement();
+        PaymentStatusEvent event = new PaymentStatusEvent(sequence, System.currentTimeMillis(), p, previous, status);
+        int slot = (int) sequence & mask;
+        // Never overwrite a newer event, should this publisher have been lapped meanwhile
+        PaymentStatusEvent current;
+        do {
+            current = ring.get(slot);
+        } while ((current == null || current.getSequence() < sequence) && !ring.compareAndSet(slot, current, event));
+
+        Subscription[] subs = subscriptions;
+        for (int i = 0; i < subs.length; i++) {
+            subs[i].wake();
+        }
+        return event;
+    }
+
+    /**
+     * A cursor positioned at the next event to be published.
+     */
+    public Cursor cursor() {
+        return new Cursor(next.get());
+    }
+
+    /**
+     * Deliver every event published from now on to the consumer, on a dedicated
+     * daemon thread. Exceptions from the consumer are logged and do not stop delivery.
+     */
+    public synchronized Subscription subscribe(String name, Consumer<PaymentStatusEvent> consumer) {
+        Subscription s = new Subscription(name, cursor(), consumer);
+        Subscription[] subs = Arrays.copyOf(subscriptions, subscriptions.length + 1);
+        subs[subs.length - 1] = s;
+        subscriptions = subs;
+        FunctionCounter.builder("ips.payments.events.dropped", s.cursor, Cursor::getDropped)
+                .description("Payment status events a subscriber fell too far behind to see")
+                .tag("subscriber", name)
+                .register(registry);
+        s.thread.start();
+        return s;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        for (Subscription s : subscriptions) {
+            s.close();
+        }
+        subscriptions = new Subscription[0];
+    }
+
+    private synchronized void remove(Subscription s) {
+        Subscription[] subs = subscriptions;
+        for (int i = 0; i < subs.length; i++) {
+            if (subs[i] == s) {
+                Subscription[] fewer = new Subscription[subs.length - 1];
+                System.arraycopy(subs, 0, fewer, 0, i);
+                System.arraycopy(subs, i + 1, fewer, i, subs.length - i - 1);
+                subscriptions = fewer;
+                return;
+            }
+        }
+    }
+
+    /**
+     * A single consumer's read position. Not thread-safe: use one per consuming thread.
+     */
+    public final class Cursor {
+
+        private long sequence;
+        private volatile long dropped;
+
+        private Cursor(long sequence) {
+            this.sequence = sequence;
+        }
+
+        /**
+         * Hand up to max available events to the sink, in order. Returns how many
+         * were delivered; 0 means the cursor is caught up.
+         */
+        public int poll(int max, Consumer<PaymentStatusEvent> sink) {
+            int delivered = 0;
+            while (delivered < max) {
+                PaymentStatusEvent e = ring.get((int) sequence & mask);
+                if (e != null && e.getSequence() == sequence) {
+                    sink.accept(e);
+                    sequence++;
+                    delivered++;
+                } else if (e != null && e.getSequence() > sequence || next.get() - sequence > capacity) {
+                    // Lapped: resume at the oldest event still in the ring
+                    long oldest = Math.max(sequence + 1, next.get() - capacity);
+                    dropped += oldest - sequence;
+                    sequence = oldest;
+                } else {
+                    break;
+                }
+            }
+            return delivered;
+        }
+
+        /**
+         * Events published but not read yet.
+         */
+        public long getLag() {
+            return Math.max(0, next.get() - sequence);
+        }
+
+        public long getDropped() {
+            return dropped;
+        }
+    }
+
+    /**
+     * A consumer fed from its own cursor by a daemon thread that parks while the
+     * stream is idle.
+     */
+    public final class Subscription implements AutoCloseable {
+
+        private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+        // Waiting for a claimed slot to be published: spin briefly, then back off
+        private static final int MAX_SPINS = 100;
+        private static final long BACKOFF_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+        private final String name;
+        private final Cursor cursor;
+        private final Consumer<PaymentStatusEvent> consumer;
+        private final Thread thread;
+        private volatile boolean parked;
+        private volatile boolean running = true;
+
+        private Subscription(String name, Cursor cursor, Consumer<PaymentStatusEvent> consumer) {
+            this.name = name;
+            this.cursor = cursor;
+            this.consumer = consumer;
+            this.thread = new Thread(this::run, "payment-events-" + name);
+            this.thread.setDaemon(true);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getDropped() {
+            return cursor.getDropped();
+        }
+
+        public long getLag() {
+            return cursor.getLag();
+        }
+
+        @Override
+        public void close() {
+            running = false;
+            LockSupport.unpark(thread);
+            remove(this);
+        }
+
+        private void wake() {
+            if (parked) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        private void run() {
+            int spins = 0;
+            while (running) {
+                if (cursor.poll(256, this::deliver) > 0) {
+                    spins = 0;
+                    continue;
+                }
+                parked = true;
+                // Re-check after announcing, so a publish in between is not missed
+                if (cursor.getLag() == 0) {
+                    spins = 0;
+                    if (running) {
+                        LockSupport.parkNanos(this, MAX_PARK_NANOS);
+                    }
+                } else if (++spins < MAX_SPINS) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(this, BACKOFF_PARK_NANOS);
+                }
+                parked = false;
+            }
+        }
+
+        private void deliver(PaymentStatusEvent event) {
+            try {
+                consumer.accept(event);
+            } catch (RuntimeException e) {
+                log.warn("[EVENTS] Subscriber {} failed on {}: {}", name, event.getSequence(), e.toString());
+            }
+        }
+    }
+}
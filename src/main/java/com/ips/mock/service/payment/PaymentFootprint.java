@@ -0,0 +1,35 @@
+package com.ips.mock.service.payment;
+
+import com.ips.mock.request.Payment;
+
+/**
+ * Rough retained-size estimate of a Payment on a 64-bit JVM with compressed oops and
+ * compact strings, for the store's footprint gauge. Not exact, but proportional to
+ * what actually dominates: raw message strings that are not archived yet.
+ */
+final class PaymentFootprint {
+
+    private static final int PAYMENT = 72;       // header + 17 reference/enum fields
+    private static final int STRING = 24 + 16;   // String + byte[] headers
+    private static final int MONEY = 32;
+    private static final int STORE_ENTRY = 32 + 48 + 56; // store Entry + map nodes + age queue node
+    private static final int ARCHIVE_HANDLE = 24;
+
+    private PaymentFootprint() {
+    }
+
+    static long estimate(Payment p) {
+        return STORE_ENTRY + PAYMENT
+                + (p.getAmount() != null ? MONEY : 0)
+                + string(p.getId()) + string(p.getReference()) + string(p.getCurrency())
+                + string(p.getDebtorName()) + string(p.getDebtorAccount()) + string(p.getDebtorAddress())
+                + string(p.getCreditorName()) + string(p.getCreditorAccount()) + string(p.getCreditorAddress())
+                + string(p.getRemittanceInfo())
+                + (p.getMt103Archived() != null ? ARCHIVE_HANDLE : string(p.getMt103Raw()))
+                + (p.getMt910Archived() != null ? ARCHIVE_HANDLE : string(p.getMt910Raw()));
+    }
+
+    private static long string(String s) {
+        return s == null ? 0 : STRING + s.length();
+    }
+}
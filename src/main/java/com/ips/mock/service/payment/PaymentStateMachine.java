@@ -0,0 +1,52 @@
+package com.ips.mock.service.payment;
+
+import com.ips.mock.PaymentStatus;
+import com.ips.mock.request.Payment;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * The only way a payment's status changes. Transitions follow
+ * {@link PaymentStatus#canMoveTo}, are applied with a compare-and-set on the payment
+ * (no locks, and two racing callers cannot both win), and each one that happens is
+ * published on the {@link PaymentEventStream}.
+ */
+@Service
+@Slf4j
+public class PaymentStateMachine {
+
+    private final PaymentEventStream events;
+    private final Counter illegal;
+
+    public PaymentStateMachine(PaymentEventStream events, MeterRegistry registry) {
+        this.events = events;
+        this.illegal = Counter.builder("ips.payments.transitions.illegal")
+                .description("Status changes refused by the payment state machine")
+                .register(registry);
+    }
+
+    /**
+     * Move the payment to the given status. Returns true if it is now in that status
+     * (including when it already was, which publishes nothing), false if the
+     * transition is not allowed from its current status.
+     */
+    public boolean moveTo(Payment p, PaymentStatus status) {
+        while (true) {
+            PaymentStatus current = p.getStatus();
+            if (current == status) {
+                return true;
+            }
+            if (!current.canMoveTo(status)) {
+                illegal.increment();
+                log.debug("[PAYMENT] {} ({}) cannot move from {} to {}", p.getId(), p.getReference(), current, status);
+                return false;
+            }
+            if (p.compareAndSetStatus(current, status)) {
+                events.publish(p, current, status);
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.ips.mock.service.payment;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.ips.mock.PaymentStatus;
+import com.ips.mock.request.Payment;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+
+/**
+ * One status transition of a payment, as published on the {@link PaymentEventStream}.
+ * Carries a snapshot of the fields subscribers filter on, so they never need to
+ * touch the (mutable) Payment.
+ */
+@Getter
+@ToString
+public final class PaymentStatusEvent {
+
+    private final long sequence;
+    private final long timestamp;
+    /** System.nanoTime() at publication, for measuring latency between transitions. */
+    @JsonIgnore
+    private final long nanoTime;
+    private final String paymentId;
+    private final String reference;
+    private final PaymentStatus previous;
+    private final PaymentStatus status;
+    private final String debtorAgentBic;
+    private final String creditorAgentBic;
+    private final BigDecimal amount;
+    private final String currency;
+
+    PaymentStatusEvent(long sequence, long timestamp, Payment p, PaymentStatus previous, PaymentStatus status) {
+        this.sequence = sequence;
+        this.timestamp = timestamp;
+        this.nanoTime = System.nanoTime();
+        this.paymentId = p.getId();
+        this.reference = p.getReference();
+        this.previous = previous;
+        this.status = status;
+        this.debtorAgentBic = p.getDebtorAgentBic();
+        this.creditorAgentBic = p.getCreditorAgentBic();
+        this.amount = p.getAmount() != null ? p.getAmount().toBigDecimal() : null;
+        this.currency = p.getCurrency();
+    }
+}
@@ -0,0 +1,213 @@
+package com.ips.mock.service.payment;
+
+import com.ips.mock.PaymentStatus;
+import com.ips.mock.request.Payment;
+import com.ips.mock.service.archive.RawMessageArchive;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Payments tracked by the SWIFT / ISO simulation controllers, bounded by entry count
+ * (ips.payments.max-entries) and age (ips.payments.ttl).
+ * <p>
+ * Entries live in one of two tiers: in-flight (NEW, SENT_MT103, ACCEPTED) and
+ * completed (CREDITED, SETTLED, REJECTED). Saving a completed payment moves it to the completed tier,
+ * which is evicted first when over the limit; within a tier the order follows
+ * ips.payments.eviction-policy. Expired entries are swept at most once per second,
+ * on writes, oldest first from a separate queue in storage order. Raw messages are moved to the {@link RawMessageArchive} on save, so a
+ * stored payment only holds archive handles for them. Entry counts, an estimated heap
+ * footprint and evictions are published as metrics.
+ */
+@Service
+@Slf4j
+public class PaymentStore {
+
+    private final RawMessageArchive archive;
+    private final int maxEntries;
+    private final long ttlNanos;
+
+    private final Map<String, Entry> inFlight;
+    private final Map<String, Entry> completed;
+    private final Map<String, String> idsByReference = new HashMap<>();
+    // id -> first storedAt, in insertion (= age) order regardless of the eviction policy
+    private final Map<String, Long> byAge = new LinkedHashMap<>(1024);
+
+    private long footprintBytes;
+    private long nextSweep;
+
+    private final Counter evictedForSize;
+    private final Counter evictedForAge;
+
+    public PaymentStore(@Value("${ips.payments.max-entries:100000}") int maxEntries,
+                        @Value("${ips.payments.ttl:30m}") Duration ttl,
+                        @Value("${ips.payments.eviction-policy:lru}") EvictionPolicy policy,
+                        RawMessageArchive archive,
+                        MeterRegistry registry) {
+        this.archive = archive;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        boolean accessOrder = policy == EvictionPolicy.LRU;
+        this.inFlight = new LinkedHashMap<>(1024, 0.75f, accessOrder);
+        this.completed = new LinkedHashMap<>(1024, 0.75f, accessOrder);
+
+        Gauge.builder("ips.payments.stored", this, s -> s.size(s.inFlight))
+                .description("Payments held by the simulation payment store")
+                .tag("tier", "in-flight")
+                .register(registry);
+        Gauge.builder("ips.payments.stored", this, s -> s.size(s.completed))
+                .description("Payments held by the simulation payment store")
+                .tag("tier", "completed")
+                .register(registry);
+        Gauge.builder("ips.payments.footprint", this, PaymentStore::getFootprintBytes)
+                .description("Estimated heap held by stored payments")
+                .baseUnit("bytes")
+                .register(registry);
+        this.evictedForSize = Counter.builder("ips.payments.evicted").tag("reason", "size").register(registry);
+        this.evictedForAge = Counter.builder("ips.payments.evicted").tag("reason", "ttl").register(registry);
+    }
+
+    /**
+     * Store or re-index a payment after creating it or changing its status or raw
+     * messages. A reference resolves to the first payment saved under it, i.e. the
+     * originating bank's leg rather than the receiving bank's copy.
+     */
+    public void save(Payment p) {
+        p.archiveRawMessages(archive);
+        synchronized (this) {
+            store(p);
+        }
+    }
+
+    public synchronized Payment findById(String id) {
+        Entry e = inFlight.get(id);
+        if (e == null) {
+            e = completed.get(id);
+        }
+        return live(e);
+    }
+
+    public synchronized Payment findByReference(String reference) {
+        String id = idsByReference.get(reference);
+        return id != null ? findById(id) : null;
+    }
+
+    public synchronized int size() {
+        return inFlight.size() + completed.size();
+    }
+
+    public synchronized long getFootprintBytes() {
+        return footprintBytes;
+    }
+
+    // ------- Helpers -------
+
+    private void store(Payment p) {
+        long now = System.nanoTime();
+        Entry previous = remove(p.getId());
+        if (previous == null) {
+            byAge.put(p.getId(), now);
+        }
+        Entry entry = new Entry(p, previous != null ? previous.storedAt : now, PaymentFootprint.estimate(p));
+        (isCompleted(p) ? completed : inFlight).put(p.getId(), entry);
+        footprintBytes += entry.bytes;
+        if (p.getReference() != null) {
+            idsByReference.putIfAbsent(p.getReference(), p.getId());
+        }
+
+        if (now - nextSweep >= 0) {
+            expire(now);
+            nextSweep = now + 1_000_000_000L;
+        }
+        while (inFlight.size() + completed.size() > maxEntries) {
+            Map<String, Entry> tier = completed.isEmpty() ? inFlight : completed;
+            evict(tier.keySet().iterator().next());
+            evictedForSize.increment();
+        }
+    }
+
+    private Payment live(Entry e) {
+        if (e == null) {
+            return null;
+        }
+        if (System.nanoTime() - e.storedAt > ttlNanos) {
+            evict(e.payment.getId());
+            evictedForAge.increment();
+            return null;
+        }
+        return e.payment;
+    }
+
+    // The age queue is ordered by storedAt, so stop at the first entry that is still live
+    private void expire(long now) {
+        Iterator<Map.Entry<String, Long>> it = byAge.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Long> oldest = it.next();
+            if (now - oldest.getValue() <= ttlNanos) {
+                return;
+            }
+            it.remove();
+            Entry e = remove(oldest.getKey());
+            if (e != null) {
+                unindex(e.payment);
+                evictedForAge.increment();
+            }
+        }
+    }
+
+    private void evict(String id) {
+        Entry e = remove(id);
+        if (e != null) {
+            byAge.remove(id);
+            unindex(e.payment);
+        }
+    }
+
+    private Entry remove(String id) {
+        Entry e = inFlight.remove(id);
+        if (e == null) {
+            e = completed.remove(id);
+        }
+        if (e != null) {
+            footprintBytes -= e.bytes;
+        }
+        return e;
+    }
+
+    // Only drop the reference if it still points at this payment
+    private void unindex(Payment p) {
+        String reference = p.getReference();
+        if (reference != null && p.getId().equals(idsByReference.get(reference))) {
+            idsByReference.remove(reference);
+        }
+    }
+
+    private synchronized int size(Map<String, Entry> tier) {
+        return tier.size();
+    }
+
+    private static boolean isCompleted(Payment p) {
+        return p.getStatus() == PaymentStatus.CREDITED || p.getStatus().isFinal();
+    }
+
+    private static final class Entry {
+        final Payment payment;
+        final long storedAt;
+        final long bytes;
+
+        Entry(Payment payment, long storedAt, long bytes) {
+            this.payment = payment;
+            this.storedAt = storedAt;
+            this.bytes = bytes;
+        }
+    }
+}
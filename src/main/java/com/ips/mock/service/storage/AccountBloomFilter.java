@@ -0,0 +1,68 @@
+package com.ips.mock.service.storage;
+
+/**
+ * Bloom filter over (bank code, account number): {@link #mightContain} is false only
+ * for accounts never added. Sized for {@code expected} accounts at a false-positive
+ * rate of {@code fpp}. Filled before it is published and only read afterwards, so
+ * lookups need no synchronization.
+ */
+final class AccountBloomFilter {
+
+    private final long[] words;
+    private final long bits;
+    private final int hashes;
+
+    AccountBloomFilter(int expected, double fpp) {
+        int n = Math.max(expected, 1);
+        long m = (long) Math.ceil(-n * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        this.words = new long[(int) Math.max(1, (m + 63) >>> 6)];
+        this.bits = (long) words.length << 6;
+        this.hashes = Math.max(1, (int) Math.round((double) bits / n * Math.log(2)));
+    }
+
+    void add(String bankCode, String accountNumber) {
+        long h1 = hash(bankCode, accountNumber, 0x9E3779B97F4A7C15L);
+        long h2 = hash(bankCode, accountNumber, 0xC2B2AE3D27D4EB4FL) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bits);
+            words[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    boolean mightContain(String bankCode, String accountNumber) {
+        long h1 = hash(bankCode, accountNumber, 0x9E3779B97F4A7C15L);
+        long h2 = hash(bankCode, accountNumber, 0xC2B2AE3D27D4EB4FL) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bits);
+            if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ------- Helpers -------
+
+    // Over the chars of both strings without concatenating them; null hashes like ""
+    private static long hash(String bankCode, String accountNumber, long seed) {
+        long h = seed;
+        h = mixIn(h, bankCode);
+        h = (h ^ '/') * 0x100000001B3L;
+        h = mixIn(h, accountNumber);
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+
+    private static long mixIn(long h, String s) {
+        if (s == null) {
+            return h;
+        }
+        for (int i = 0; i < s.length(); i++) {
+            h = (h ^ s.charAt(i)) * 0x100000001B3L;
+        }
+        return h;
+    }
+}
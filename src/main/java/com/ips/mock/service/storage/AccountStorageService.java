@@ -1,28 +1,64 @@
 package com.ips.mock.service.storage;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ips.mock.dto.Account;
+import com.ips.mock.jfr.PaymentContext;
+import com.ips.mock.jfr.PaymentStageEvent;
+import com.ips.mock.logging.LazyJson;
+import com.ips.mock.metrics.SettlementMetrics;
+import com.ips.mock.money.Money;
+import com.ips.mock.participant.Bic;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 @Service
 @Slf4j
 public class AccountStorageService {
     private final ObjectMapper mapper = new ObjectMapper();
-    private final File file = new File("src/main/java/com/ips/mock/data/Accounts.json");
+    private final File file;
 
+    // Never resized once loaded (only balances change): readers scan without locking
     @Getter
-    private List<Account> Accounts = new ArrayList<>();
+    private volatile List<Account> Accounts = new ArrayList<>();
 
-    public AccountStorageService() {
+    // participant BIC8 -> account number -> account, computed once on load; the stored
+    // bank codes are kept as written
+    private final Map<String, Map<String, Account>> byParticipant;
+
+    private final Timer flushTimer;
+    private final List<Consumer<Account>> changeListeners = new CopyOnWriteArrayList<>();
+
+    // Known-absent accounts are answered without a scan; built from the loaded accounts
+    private final AccountBloomFilter filter;
+    private final Counter filterRejected;
+    private final Counter filterFalsePositive;
+
+    public AccountStorageService(MeterRegistry meterRegistry,
+                                 @Value("${ips.storage.accounts-file:src/main/java/com/ips/mock/data/Accounts.json}") String path,
+                                 @Value("${ips.storage.account-filter.expected-accounts:100000}") int filterExpected,
+                                 @Value("${ips.storage.account-filter.fpp:0.01}") double filterFpp) {
+        this.file = new File(path);
+        this.flushTimer = SettlementMetrics.flushTimer(meterRegistry, "accounts");
+        this.filterRejected = filterLookups(meterRegistry, "rejected");
+        this.filterFalsePositive = filterLookups(meterRegistry, "false-positive");
         loadAccounts();
+        this.byParticipant = index(Accounts);
+        this.filter = buildFilter(byParticipant, filterExpected, filterFpp);
     }
 
     private void loadAccounts() {
@@ -35,56 +71,69 @@ public class AccountStorageService {
                 Accounts = mapper.readValue(file, new TypeReference<List<Account>>() {
                 });
             }
-            log.info("Accounts loaded successfully: {}", mapper.writeValueAsString(Accounts));
+            log.info("Accounts loaded successfully: {} accounts", Accounts.size());
+            log.debug("Accounts: {}", LazyJson.of(Accounts));
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
     private void saveAccounts() {
+        long start = System.nanoTime();
+        PaymentStageEvent event = PaymentStageEvent.start();
         try {
             mapper.writerWithDefaultPrettyPrinter().writeValue(file, Accounts);
-            log.info("Accounts saved successfully.");
+            log.debug("Accounts saved successfully.");
         } catch (Exception e) {
             e.printStackTrace();
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            event.complete(PaymentStageEvent.PERSIST, "accounts", PaymentContext.current());
         }
     }
 
-    public void updateAccountBalance(Account account, BigDecimal amount, String transferType) {
-        try {
-            for (Account acc : Accounts) {
-
-                if (!acc.getAccountNumber().equals(account.getAccountNumber()) ||
-                        !acc.getBankCode().equals(account.getBankCode())) {
-                    continue;
-                }
-
-                BigDecimal newBalance = transferType.equals("CREDIT")
-                        ? acc.getBalance().add(amount)
-                        : acc.getBalance().subtract(amount);
-
-                acc.setBalance(newBalance);
-                saveAccounts();
-                log.info("Account balance updated successfully: {}", mapper.writeValueAsString(acc));
-                return;
-            }
+    /**
+     * Read-modify-write of the balance plus the file rewrite, serialized per store so
+     * concurrent transfers neither lose updates nor interleave file writes.
+     */
+    public synchronized void updateAccountBalance(Account account, Money amount, String transferType) {
+        Account acc = find(account.getAccountNumber(), Bic.canonical(account.getBankCode()));
+        if (acc == null) {
+            log.warn("Account not found for update: bank={} account={}",
+                    account.getBankCode(), account.getAccountNumber());
+            return;
+        }
 
-            log.warn("Account not found for update: {}", mapper.writeValueAsString(account));
+        BigDecimal newBalance = transferType.equals("CREDIT")
+                ? acc.getBalance().add(amount.toBigDecimal())
+                : acc.getBalance().subtract(amount.toBigDecimal());
 
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException(e);
-        }
+        acc.setBalance(newBalance);
+        saveAccounts();
+        changed(acc);
+        log.debug("Account balance updated successfully: {}", LazyJson.of(acc));
     }
 
+    /**
+     * Called with every account written, after the write; listeners run on the
+     * writing thread while the store is locked, so they must be quick.
+     */
+    public void addChangeListener(Consumer<Account> listener) {
+        changeListeners.add(listener);
+    }
 
     public Account getAccountByAccountNumberAndBankCode(String accountNumber, String bankCode) {
-        log.info("Getting account by account number {} and bank code {}", accountNumber, bankCode);
-        for (Account acc : Accounts) {
-            if (acc.getAccountNumber().equals(accountNumber) && acc.getBankCode().equals(bankCode)) {
-                return acc;
-            }
+        log.debug("Getting account by account number {} and bank code {}", accountNumber, bankCode);
+        bankCode = Bic.canonical(bankCode);
+        if (!filter.mightContain(bankCode, accountNumber)) {
+            filterRejected.increment();
+            return null;
         }
-        return  null;
+        Account acc = find(accountNumber, bankCode);
+        if (acc == null) {
+            filterFalsePositive.increment();
+        }
+        return acc;
     }
 
     public Account getAccountByAccountNumber(String accountNumber) {
@@ -95,4 +144,43 @@ public class AccountStorageService {
         }
         return  null;
     }
+
+    // bankCode canonical
+    private Account find(String accountNumber, String bankCode) {
+        Map<String, Account> accounts = bankCode != null ? byParticipant.get(bankCode) : null;
+        return accounts != null && accountNumber != null ? accounts.get(accountNumber) : null;
+    }
+
+    // The first account wins when the file holds a number twice for one participant
+    private static Map<String, Map<String, Account>> index(List<Account> accounts) {
+        Map<String, Map<String, Account>> index = new HashMap<>();
+        for (Account acc : accounts) {
+            String bankCode = Bic.canonical(acc.getBankCode());
+            if (bankCode != null && acc.getAccountNumber() != null) {
+                index.computeIfAbsent(bankCode, k -> new HashMap<>()).putIfAbsent(acc.getAccountNumber(), acc);
+            }
+        }
+        return index;
+    }
+
+    private static AccountBloomFilter buildFilter(Map<String, Map<String, Account>> index, int expected, double fpp) {
+        int size = index.values().stream().mapToInt(Map::size).sum();
+        AccountBloomFilter f = new AccountBloomFilter(Math.max(expected, size), fpp);
+        index.forEach((bankCode, accounts) -> accounts.keySet().forEach(number -> f.add(bankCode, number)));
+        return f;
+    }
+
+    private static Counter filterLookups(MeterRegistry registry, String result) {
+        return Counter.builder("ips.accounts.filter")
+                .description("Account lookups answered by the membership filter (rejected) "
+                        + "or let through for an account that was not there (false-positive)")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private void changed(Account account) {
+        for (Consumer<Account> listener : changeListeners) {
+            listener.accept(account);
+        }
+    }
 }
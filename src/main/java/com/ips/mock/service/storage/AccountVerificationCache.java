@@ -0,0 +1,170 @@
+package com.ips.mock.service.storage;
+
+import com.ips.mock.dto.Account;
+import com.ips.mock.participant.Bic;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Account lookups for verification (camt.004), remembered for
+ * ips.verification.cache-ttl, unknown accounts included, and at most
+ * ips.verification.cache-size of them.
+ * <p>
+ * Concurrent lookups of the same account while it is being loaded wait for that
+ * one scan instead of each scanning the store. An entry is dropped when the
+ * account's holder name or status changes; balance postings keep it. A TTL of 0
+ * turns the cache off.
+ */
+@Service
+public class AccountVerificationCache {
+
+    private final AccountStorageService accountStorageService;
+    private final long ttlNanos;
+    private final int maxSize;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter coalesced;
+
+    public AccountVerificationCache(AccountStorageService accountStorageService,
+                                    MeterRegistry registry,
+                                    @Value("${ips.verification.cache-ttl:30s}") Duration ttl,
+                                    @Value("${ips.verification.cache-size:10000}") int maxSize) {
+        this.accountStorageService = accountStorageService;
+        this.ttlNanos = ttl.toNanos();
+        this.maxSize = maxSize;
+        this.hits = lookups(registry, "hit");
+        this.misses = lookups(registry, "miss");
+        this.coalesced = lookups(registry, "coalesced");
+        Gauge.builder("ips.verification.cache.size", entries, Map::size)
+                .description("Account lookups remembered for verification")
+                .register(registry);
+        accountStorageService.addChangeListener(this::changed);
+    }
+
+    /**
+     * The account, or null when the bank does not hold it.
+     */
+    public Account lookup(String accountNumber, String bankCode) {
+        if (ttlNanos <= 0) {
+            return accountStorageService.getAccountByAccountNumberAndBankCode(accountNumber, bankCode);
+        }
+        String key = key(accountNumber, bankCode);
+        long now = System.nanoTime();
+        Entry e = entries.get(key);
+        if (e == null || e.expired(now)) {
+            Entry fresh = new Entry();
+            e = entries.compute(key, (k, old) -> old != null && !old.expired(now) ? old : fresh);
+            if (e == fresh) {
+                misses.increment();
+                return load(key, fresh, accountNumber, bankCode);
+            }
+        }
+        if (e.account.isDone()) {
+            hits.increment();
+        } else {
+            coalesced.increment();
+        }
+        try {
+            return e.account.join();
+        } catch (CompletionException ex) {
+            throw ex.getCause() instanceof RuntimeException r ? r : ex;
+        }
+    }
+
+    public void invalidate(String accountNumber, String bankCode) {
+        entries.remove(key(accountNumber, bankCode));
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    // ------- Helpers -------
+
+    private static final class Entry {
+        final CompletableFuture<Account> account = new CompletableFuture<>();
+        // Only read once account is done
+        volatile String holderName;
+        volatile String status;
+        volatile long expiresAtNanos;
+
+        boolean expired(long now) {
+            return account.isDone() && now - expiresAtNanos >= 0;
+        }
+    }
+
+    private Account load(String key, Entry entry, String accountNumber, String bankCode) {
+        Account account;
+        try {
+            account = accountStorageService.getAccountByAccountNumberAndBankCode(accountNumber, bankCode);
+        } catch (RuntimeException ex) {
+            entries.remove(key, entry);
+            entry.account.completeExceptionally(ex);
+            throw ex;
+        }
+        if (account != null) {
+            entry.holderName = account.getAccountHolderName();
+            entry.status = account.getStatus();
+        }
+        entry.expiresAtNanos = System.nanoTime() + ttlNanos;
+        entry.account.complete(account);
+        if (entries.size() > maxSize) {
+            evict();
+        }
+        return account;
+    }
+
+    private void changed(Account account) {
+        String key = key(account.getAccountNumber(), account.getBankCode());
+        Entry e = entries.get(key);
+        if (e != null && (!e.account.isDone() || e.account.getNow(null) == null
+                || !Objects.equals(e.holderName, account.getAccountHolderName())
+                || !Objects.equals(e.status, account.getStatus()))) {
+            entries.remove(key, e);
+        }
+    }
+
+    // Expired entries first, then whichever come first until back under the limit
+    private void evict() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long now = System.nanoTime();
+            entries.values().removeIf(e -> e.expired(now));
+            Iterator<Entry> it = entries.values().iterator();
+            while (entries.size() > maxSize && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private static String key(String accountNumber, String bankCode) {
+        return Bic.canonical(bankCode) + "/" + accountNumber;
+    }
+
+    private static Counter lookups(MeterRegistry registry, String result) {
+        return Counter.builder("ips.verification.cache.lookups")
+                .description("Account lookups for verification, by result")
+                .tag("result", result)
+                .register(registry);
+    }
+}
@@ -3,26 +3,49 @@ package com.ips.mock.service.storage;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ips.mock.dto.Bank;
+import com.ips.mock.jfr.PaymentContext;
+import com.ips.mock.jfr.PaymentStageEvent;
+import com.ips.mock.logging.LazyJson;
+import com.ips.mock.metrics.SettlementMetrics;
+import com.ips.mock.money.Money;
+import com.ips.mock.participant.Bic;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @Slf4j
 public class BankStorageService {
     private final ObjectMapper mapper = new ObjectMapper();
-    private final File file = new File("src/main/java/com/ips/mock/data/Banks.json");
+    private final File file;
 
     @Getter
     private List<Bank> banks = new ArrayList<>();
 
-    public BankStorageService() {
+    // By BIC8, so BIC11 spellings of a bank code find it too
+    private final Map<String, Bank> byCode = new HashMap<>();
+
+    private final Timer flushTimer;
+
+    public BankStorageService(MeterRegistry meterRegistry,
+                              @Value("${ips.storage.banks-file:src/main/java/com/ips/mock/data/Banks.json}") String path) {
+        this.file = new File(path);
+        this.flushTimer = SettlementMetrics.flushTimer(meterRegistry, "banks");
         loadBanks();
+        for (Bank bank : banks) {
+            byCode.putIfAbsent(Bic.canonical(bank.getBankCode()), bank);
+        }
     }
 
     private void loadBanks() {
@@ -37,45 +60,47 @@ public class BankStorageService {
                 banks = mapper.readValue(file, new TypeReference<List<Bank>>() {
                 });
             }
-            log.info("Banks loaded successfully: {}", mapper.writeValueAsString(banks));
+            log.info("Banks loaded successfully: {} banks", banks.size());
+            log.debug("Banks: {}", LazyJson.of(banks));
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
     private void saveBanks() {
+        long start = System.nanoTime();
+        PaymentStageEvent event = PaymentStageEvent.start();
         try {
             mapper.writerWithDefaultPrettyPrinter().writeValue(file, banks);
-            log.info("Banks saved successfully: {}", mapper.writeValueAsString(banks));
+            log.debug("Banks saved successfully: {}", LazyJson.of(banks));
         } catch (Exception e) {
             e.printStackTrace();
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            event.complete(PaymentStageEvent.PERSIST, "banks", PaymentContext.current());
         }
     }
 
     public Bank getBankByCode(String bankCode) {
-        log.info("Getting bank by bank code: {}", bankCode);
-        for (Bank bank : banks) {
-            if (bank.getBankCode().equals(bankCode)) {
-                return bank;
-            }
-        }
-        return null;
+        log.debug("Getting bank by bank code: {}", bankCode);
+        return bankCode != null ? byCode.get(Bic.canonical(bankCode)) : null;
     }
 
-    public void updateLiquidityBalance(String bankCode, BigDecimal amount, String transferType) {
-        for (Bank bank : banks) {
-            if (bank.getBankCode().equals(bankCode)) {
-                BigDecimal newBalance = BigDecimal.ZERO;
-                newBalance = transferType.equals("CREDIT")
-                        ?  bank.getLiquidityBalance().add(amount)
-                        : bank.getLiquidityBalance().subtract(amount);
-
-                log.info("[{}]. Updating liquidity balance from {} to {}", bank.getBankName(), bank.getLiquidityBalance(), newBalance);
-                bank.setLiquidityBalance(newBalance);
-                saveBanks();
-                return;
-            }
+    /**
+     * Serialized like AccountStorageService#updateAccountBalance.
+     */
+    public synchronized void updateLiquidityBalance(String bankCode, Money amount, String transferType) {
+        Bank bank = getBankByCode(bankCode);
+        if (bank == null) {
+            return;
         }
+        BigDecimal newBalance = transferType.equals("CREDIT")
+                ?  bank.getLiquidityBalance().add(amount.toBigDecimal())
+                : bank.getLiquidityBalance().subtract(amount.toBigDecimal());
+
+        log.debug("[{}]. Updating liquidity balance from {} to {}", bank.getBankName(), bank.getLiquidityBalance(), newBalance);
+        bank.setLiquidityBalance(newBalance);
+        saveBanks();
     }
 
 }
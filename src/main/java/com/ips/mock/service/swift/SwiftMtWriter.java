@@ -0,0 +1,199 @@
+package com.ips.mock.service.swift;
+
+import com.ips.mock.money.Money;
+import com.ips.mock.request.Payment;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * Writes MT103 / MT910 messages (blocks 1-5) straight into a caller-supplied
+ * StringBuilder or OutputStream.
+ * <p>
+ * Header blocks 1 and 2 only depend on the configured BICs, so they are built once
+ * per writer. Amounts (via {@link Money}) and value dates are written digit by digit, without going
+ * through String formatting.
+ */
+public final class SwiftMtWriter {
+
+    private static final String MT103_TRAILER = ":71A:SHA\n-}\n{5:{CHK:AB12CD34EF56}}\n";
+    private static final String MT910_TRAILER = "-}\n{5:{CHK:ZX98YU76TR54}}\n";
+
+    private final String senderBic;
+    private final String mt103Header;
+    private final String mt910Header;
+
+    private volatile ValueDate valueDate = new ValueDate(0L, new char[6]);
+
+    // Per-thread scratch buffers for the OutputStream variants
+    private final ThreadLocal<StringBuilder> charScratch =
+            ThreadLocal.withInitial(() -> new StringBuilder(1024));
+    private final ThreadLocal<byte[][]> byteScratch =
+            ThreadLocal.withInitial(() -> new byte[][]{new byte[1024]});
+
+    public SwiftMtWriter(String senderBic, String receiverBic) {
+        this.senderBic = senderBic;
+        this.mt103Header = "{1:F01" + senderBic + "0000000000}\n"
+                + "{2:I103" + receiverBic + "N}\n";
+        this.mt910Header = "{1:F01" + receiverBic + "0000000000}\n"
+                + "{2:I910" + senderBic + "N}\n";
+    }
+
+    /**
+     * Rough upper bound of the message size, used to pre-size buffers.
+     */
+    public int estimateSize(Payment p) {
+        return 256
+                + 4 * length(p.getReference())
+                + length(p.getDebtorAccount()) + length(p.getDebtorName()) + length(p.getDebtorAddress())
+                + length(p.getCreditorAccount()) + length(p.getCreditorName()) + length(p.getCreditorAddress())
+                + length(p.getRemittanceInfo());
+    }
+
+    // =========================================================
+    //  MT103
+    // =========================================================
+    public void writeMt103(Payment p, StringBuilder out) {
+        out.append(mt103Header);
+        out.append("{3:{108:").append(p.getReference()).append("}}\n");
+        out.append("{4:\n");
+        out.append(":20:").append(p.getReference()).append('\n');
+        out.append(":23B:CRED\n");
+        out.append(":32A:");
+        appendValueDate(out);
+        out.append(p.getCurrency());
+        p.getAmount().appendSwift(out);
+        out.append('\n');
+        out.append(":33B:").append(p.getCurrency());
+        p.getAmount().appendSwift(out);
+        out.append('\n');
+
+        // Debtor (:50K:)
+        out.append(":50K:/");
+        appendLine(out, p.getDebtorAccount());
+        appendLine(out, p.getDebtorName());
+        appendLine(out, p.getDebtorAddress());
+
+        // Creditor (:59:)
+        out.append(":59:/");
+        appendLine(out, p.getCreditorAccount());
+        appendLine(out, p.getCreditorName());
+        appendLine(out, p.getCreditorAddress());
+
+        // Remittance info (:70:)
+        out.append(":70:");
+        appendLine(out, p.getRemittanceInfo());
+        out.append(MT103_TRAILER);
+    }
+
+    public void writeMt103(Payment p, OutputStream out) throws IOException {
+        StringBuilder sb = scratch();
+        writeMt103(p, sb);
+        flush(sb, out);
+    }
+
+    // =========================================================
+    //  MT910
+    // =========================================================
+    public void writeMt910(Payment p, StringBuilder out) {
+        out.append(mt910Header);
+        out.append("{3:{108:").append(p.getReference()).append("}}\n");
+        out.append("{4:\n");
+        out.append(":20:").append(p.getReference()).append('\n');
+        out.append(":21:").append(p.getReference()).append('\n');
+        out.append(":25:").append(p.getCurrency()).append("12345678\n"); // fake account at Bank B
+        out.append(":32A:");
+        appendValueDate(out);
+        out.append(p.getCurrency());
+        p.getAmount().appendSwift(out);
+        out.append('\n');
+        out.append(":52A:").append(senderBic).append('\n');
+        out.append(":72:/ACC/");
+        if (p.getCreditorAccount() != null) {
+            out.append(p.getCreditorAccount());
+        }
+        out.append(" CREDITED\n");
+        out.append(MT910_TRAILER);
+    }
+
+    public void writeMt910(Payment p, OutputStream out) throws IOException {
+        StringBuilder sb = scratch();
+        writeMt910(p, sb);
+        flush(sb, out);
+    }
+
+    // ------- Helpers -------
+
+    private void appendValueDate(StringBuilder out) {
+        ValueDate vd = valueDate;
+        if (System.currentTimeMillis() >= vd.validUntil) {
+            vd = ValueDate.today();
+            valueDate = vd;
+        }
+        out.append(vd.yymmdd);
+    }
+
+    private static void appendLine(StringBuilder out, String value) {
+        if (value != null) {
+            out.append(value);
+        }
+        out.append('\n');
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    private StringBuilder scratch() {
+        StringBuilder sb = charScratch.get();
+        sb.setLength(0);
+        return sb;
+    }
+
+    // MT messages are restricted to the SWIFT character set, which is plain ASCII
+    private void flush(StringBuilder sb, OutputStream out) throws IOException {
+        int len = sb.length();
+        byte[][] holder = byteScratch.get();
+        byte[] buf = holder[0];
+        if (buf.length < len) {
+            buf = new byte[Math.max(len, buf.length * 2)];
+            holder[0] = buf;
+        }
+        for (int i = 0; i < len; i++) {
+            char c = sb.charAt(i);
+            buf[i] = c < 0x80 ? (byte) c : (byte) '?';
+        }
+        out.write(buf, 0, len);
+    }
+
+    /**
+     * yyMMdd value date, valid until the next local midnight.
+     */
+    private static final class ValueDate {
+        final long validUntil;
+        final char[] yymmdd;
+
+        ValueDate(long validUntil, char[] yymmdd) {
+            this.validUntil = validUntil;
+            this.yymmdd = yymmdd;
+        }
+
+        static ValueDate today() {
+            ZoneId zone = ZoneId.systemDefault();
+            LocalDate today = LocalDate.now(zone);
+            long nextMidnight = today.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+
+            int yy = today.getYear() % 100;
+            int mm = today.getMonthValue();
+            int dd = today.getDayOfMonth();
+            char[] chars = {
+                    (char) ('0' + yy / 10), (char) ('0' + yy % 10),
+                    (char) ('0' + mm / 10), (char) ('0' + mm % 10),
+                    (char) ('0' + dd / 10), (char) ('0' + dd % 10)
+            };
+            return new ValueDate(nextMidnight, chars);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.ips.mock.service.validation;
+
+/**
+ * ISO 20022 messages with a bundled schema under {@code classpath:xsd/}.
+ */
+public enum IsoMessageType {
+    PACS_008("pacs.008.001.08"),
+    PACS_002("pacs.002.001.12"),
+    CAMT_004("camt.004.001.08"),
+    CAMT_054("camt.054.001.08");
+
+    private final String messageName;
+
+    IsoMessageType(String messageName) {
+        this.messageName = messageName;
+    }
+
+    public String getMessageName() {
+        return messageName;
+    }
+
+    String schemaLocation() {
+        return "xsd/" + messageName + ".xsd";
+    }
+}
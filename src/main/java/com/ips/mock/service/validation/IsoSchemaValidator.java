@@ -0,0 +1,137 @@
+package com.ips.mock.service.validation;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.xml.sax.SAXException;
+
+import javax.xml.XMLConstants;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import javax.xml.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Schema check for ISO 20022 messages (ips.iso.validation.mode = off | warn | strict).
+ * <p>
+ * Every bundled XSD is compiled once at start-up; a compiled {@link Schema} is
+ * thread-safe, a {@link Validator} is not, so each thread keeps its own set of
+ * validators and resets them between messages. Documents are validated as a SAX
+ * stream, nothing is built in memory.
+ */
+@Service
+@Slf4j
+public class IsoSchemaValidator {
+
+    @Getter
+    private final ValidationMode mode;
+
+    private final Map<IsoMessageType, Schema> schemas = new EnumMap<>(IsoMessageType.class);
+    private final ThreadLocal<Map<IsoMessageType, Validator>> validators =
+            ThreadLocal.withInitial(() -> new EnumMap<>(IsoMessageType.class));
+
+    public IsoSchemaValidator(@Value("${ips.iso.validation.mode:off}") String mode) {
+        this.mode = ValidationMode.valueOf(mode.trim().toUpperCase());
+        if (this.mode != ValidationMode.OFF) {
+            compileSchemas();
+        }
+    }
+
+    public boolean isEnabled() {
+        return mode != ValidationMode.OFF;
+    }
+
+    /**
+     * Validate the message against its schema.
+     *
+     * @return null if the message is valid (or validation is off), otherwise the first violation
+     */
+    public String validate(IsoMessageType type, String xml) {
+        if (mode == ValidationMode.OFF) {
+            return null;
+        }
+        if (xml == null) {
+            return "Empty " + type.getMessageName() + " message";
+        }
+
+        Validator validator = validators.get().computeIfAbsent(type, this::newValidator);
+        try {
+            validator.validate(new StreamSource(new StringReader(xml)));
+            return null;
+        } catch (SAXException e) {
+            String error = type.getMessageName() + ": " + e.getMessage();
+            log.warn("[XSD] {} violation: {}", type.getMessageName(), e.getMessage());
+            return error;
+        } catch (IOException e) {
+            return type.getMessageName() + ": " + e.getMessage();
+        } finally {
+            validator.reset();
+        }
+    }
+
+    /**
+     * In strict mode a schema violation rejects the message; in warn mode it is only logged.
+     */
+    public boolean isStrict() {
+        return mode == ValidationMode.STRICT;
+    }
+
+    /**
+     * Check an XML response we produced. In strict mode a response that does not
+     * match its schema is replaced by a 500, so builder regressions surface in tests.
+     */
+    public ResponseEntity<String> checkResponse(IsoMessageType type, ResponseEntity<String> response) {
+        if (mode == ValidationMode.OFF) {
+            return response;
+        }
+        String error = validate(type, response.getBody());
+        if (error == null || !isStrict()) {
+            return response;
+        }
+        log.error("[XSD] Generated {} does not match its schema: {}", type.getMessageName(), error);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .contentType(MediaType.TEXT_PLAIN)
+                .body("Generated message failed schema validation: " + error);
+    }
+
+    private Validator newValidator(IsoMessageType type) {
+        Validator validator = schemas.get(type).newValidator();
+        try {
+            // inbound documents must not pull in external DTDs / entities
+            validator.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+            validator.setProperty(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
+        } catch (SAXException e) {
+            log.warn("[XSD] Validator does not support external access restrictions: {}", e.getMessage());
+        }
+        return validator;
+    }
+
+    private void compileSchemas() {
+        SchemaFactory factory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+        try {
+            factory.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+            factory.setProperty(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
+        } catch (SAXException e) {
+            log.warn("[XSD] Schema factory does not support external access restrictions: {}", e.getMessage());
+        }
+
+        for (IsoMessageType type : IsoMessageType.values()) {
+            try (InputStream in = new ClassPathResource(type.schemaLocation()).getInputStream()) {
+                schemas.put(type, factory.newSchema(new StreamSource(in, type.schemaLocation())));
+            } catch (IOException | SAXException e) {
+                throw new IllegalStateException("Cannot compile schema " + type.schemaLocation(), e);
+            }
+        }
+        log.info("[XSD] Compiled {} ISO 20022 schemas, validation mode {}", schemas.size(), mode);
+    }
+}
@@ -0,0 +1,7 @@
+package com.ips.mock.service.validation;
+
+public enum ValidationMode {
+    OFF,    // no schema check
+    WARN,   // check and log violations, keep processing
+    STRICT  // reject messages that violate the schema
+}
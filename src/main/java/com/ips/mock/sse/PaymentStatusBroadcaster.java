@@ -0,0 +1,432 @@
+package com.ips.mock.sse;
+
+import com.ips.mock.service.payment.PaymentEventStream;
+import com.ips.mock.service.payment.PaymentStatusEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes payment status transitions to SSE subscribers on a fixed thread budget,
+ * independent of how many streams are open:
+ * <ul>
+ *   <li>one thread reads the {@link PaymentEventStream} and queues each event for the
+ *       subscribers whose filter matches (subscribers to a reference are indexed),</li>
+ *   <li>ips.sse.sender-threads write queued events out, one drain task per subscriber
+ *       with pending events,</li>
+ *   <li>one thread queues a keep-alive comment for idle streams every ips.sse.heartbeat,
+ *       which is also how closed connections are noticed, and disconnects streams
+ *       whose client has not taken data for ips.sse.write-timeout.</li>
+ * </ul>
+ * Streams are written with non-blocking servlet output: a sender only writes while the
+ * output is ready and otherwise leaves the events queued until the container reports
+ * it writable again, so a client that stops reading never holds a sender thread.
+ * Each subscriber's queue holds ips.sse.queue-size events; when it is full the
+ * subscriber's {@link SseDropPolicy} decides what gives.
+ * <p>
+ * Servlet stack only; the reactive stack streams with {@code ReactiveStatusStreamController}.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Slf4j
+public class PaymentStatusBroadcaster {
+
+    private static final byte[] HEARTBEAT = ":keep-alive\n\n".getBytes(StandardCharsets.UTF_8);
+    private static final int DRAIN_BATCH = 64;
+
+    private final JsonMapper json;
+    private final int queueSize;
+    private final int maxSubscribers;
+    private final long timeoutMillis;
+    private final long writeTimeoutNanos;
+    private final SseDropPolicy defaultDropPolicy;
+
+    private final List<StatusSubscriber> unkeyed = new CopyOnWriteArrayList<>();
+    private final Map<String, List<StatusSubscriber>> byReference = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final AtomicLong ids = new AtomicLong();
+
+    private final ExecutorService senders;
+    private final ScheduledExecutorService heartbeats;
+    private final PaymentEventStream.Subscription subscription;
+
+    private final Map<SseDropPolicy, Counter> dropped = new EnumMap<>(SseDropPolicy.class);
+    private final Counter stalled;
+    private volatile boolean closing;
+
+    public PaymentStatusBroadcaster(PaymentEventStream events,
+                                    JsonMapper json,
+                                    MeterRegistry registry,
+                                    @Value("${ips.sse.queue-size:256}") int queueSize,
+                                    @Value("${ips.sse.max-subscribers:10000}") int maxSubscribers,
+                                    @Value("${ips.sse.sender-threads:2}") int senderThreads,
+                                    @Value("${ips.sse.heartbeat:15s}") Duration heartbeat,
+                                    @Value("${ips.sse.timeout:30m}") Duration timeout,
+                                    @Value("${ips.sse.write-timeout:10s}") Duration writeTimeout,
+                                    @Value("${ips.sse.drop-policy:drop-oldest}") SseDropPolicy defaultDropPolicy) {
+        this.json = json;
+        this.queueSize = queueSize;
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMillis = timeout.toMillis();
+        this.writeTimeoutNanos = writeTimeout.toNanos();
+        this.defaultDropPolicy = defaultDropPolicy;
+
+        AtomicInteger senderIds = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senderThreads, r -> daemon(r, "sse-sender-" + senderIds.incrementAndGet()));
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(r -> daemon(r, "sse-heartbeat"));
+        this.heartbeats.scheduleWithFixedDelay(this::heartbeat,
+                heartbeat.toMillis(), heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+        long stallCheck = Math.max(writeTimeout.toMillis() / 2, 100);
+        this.heartbeats.scheduleWithFixedDelay(this::disconnectStalled,
+                stallCheck, stallCheck, TimeUnit.MILLISECONDS);
+
+        Gauge.builder("ips.sse.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Open payment status streams")
+                .register(registry);
+        for (SseDropPolicy policy : SseDropPolicy.values()) {
+            dropped.put(policy, Counter.builder("ips.sse.dropped")
+                    .description("Status events not delivered to a slow subscriber")
+                    .tag("policy", policy.name())
+                    .register(registry));
+        }
+        this.stalled = Counter.builder("ips.sse.stalled")
+                .description("Streams disconnected because their client stopped taking data")
+                .register(registry);
+        this.subscription = events.subscribe("sse", this::dispatch);
+    }
+
+    /**
+     * Start streaming status changes on the request, which is put in async mode.
+     * Returns false, leaving the request alone, when ips.sse.max-subscribers streams
+     * are already open or the application is shutting down.
+     */
+    public boolean subscribe(StatusFilter filter, SseDropPolicy dropPolicy,
+                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (closing) {
+            return false;
+        }
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            return false;
+        }
+        response.setContentType(MediaType.TEXT_EVENT_STREAM_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader("Cache-Control", "no-cache");
+        AsyncContext context = request.startAsync(request, response);
+        context.setTimeout(timeoutMillis);
+        StatusSubscriber s = new StatusSubscriber(ids.incrementAndGet(), filter,
+                dropPolicy != null ? dropPolicy : defaultDropPolicy,
+                context, response.getOutputStream(), queueSize);
+        context.addListener(new Lifecycle(s));
+        s.out.setWriteListener(new Writable(s));
+
+        String reference = filter.getReference();
+        if (reference != null) {
+            byReference.compute(reference, (r, subs) -> {
+                List<StatusSubscriber> list = subs != null ? subs : new CopyOnWriteArrayList<>();
+                list.add(s);
+                return list;
+            });
+        } else {
+            unkeyed.add(s);
+        }
+        log.debug("[SSE] Subscriber {} opened ({})", s.id, filter);
+        return true;
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    /**
+     * Ends all streams. Runs when the context starts closing, ahead of the web server's
+     * graceful shutdown, which would otherwise wait for the open streams to finish.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void close() {
+        closing = true;
+        subscription.close();
+        heartbeats.shutdownNow();
+        senders.shutdownNow();
+        for (StatusSubscriber s : unkeyed) {
+            complete(s);
+        }
+        for (List<StatusSubscriber> subs : byReference.values()) {
+            for (StatusSubscriber s : subs) {
+                complete(s);
+            }
+        }
+    }
+
+    // ------- Helpers -------
+
+    // Serialized once per event, and only if some subscriber wants it
+    private void dispatch(PaymentStatusEvent event) {
+        byte[] frame = null;
+        if (event.getReference() != null) {
+            List<StatusSubscriber> subs = byReference.get(event.getReference());
+            if (subs != null) {
+                for (StatusSubscriber s : subs) {
+                    if (wants(s, event)) {
+                        offer(s, frame = frame != null ? frame : frame(event));
+                    }
+                }
+            }
+        }
+        for (StatusSubscriber s : unkeyed) {
+            if (wants(s, event)) {
+                offer(s, frame = frame != null ? frame : frame(event));
+            }
+        }
+    }
+
+    private static boolean wants(StatusSubscriber s, PaymentStatusEvent event) {
+        return !s.closed && s.filter.matches(event);
+    }
+
+    private byte[] frame(PaymentStatusEvent event) {
+        return ("id:" + event.getSequence() + "\nevent:status\ndata:" + json.writeValueAsString(event) + "\n\n")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Only the dispatch thread queues events; the heartbeat only ever fills an empty queue
+    private void offer(StatusSubscriber s, byte[] frame) {
+        if (!s.queue.offer(frame)) {
+            dropped.get(s.dropPolicy).increment();
+            switch (s.dropPolicy) {
+                case DROP_OLDEST -> {
+                    s.queue.poll();
+                    s.queue.offer(frame);
+                }
+                case DROP_NEWEST -> {
+                    return;
+                }
+                case DISCONNECT -> {
+                    log.debug("[SSE] Subscriber {} too slow, disconnecting", s.id);
+                    disconnect(s);
+                    return;
+                }
+            }
+        }
+        schedule(s);
+    }
+
+    private void heartbeat() {
+        for (StatusSubscriber s : unkeyed) {
+            ping(s);
+        }
+        for (List<StatusSubscriber> subs : byReference.values()) {
+            for (StatusSubscriber s : subs) {
+                ping(s);
+            }
+        }
+    }
+
+    private void ping(StatusSubscriber s) {
+        if (!s.closed && s.queue.isEmpty() && s.queue.offer(HEARTBEAT)) {
+            schedule(s);
+        }
+    }
+
+    private void disconnectStalled() {
+        long now = System.nanoTime();
+        for (StatusSubscriber s : unkeyed) {
+            disconnectIfStalled(s, now);
+        }
+        for (List<StatusSubscriber> subs : byReference.values()) {
+            for (StatusSubscriber s : subs) {
+                disconnectIfStalled(s, now);
+            }
+        }
+    }
+
+    private void disconnectIfStalled(StatusSubscriber s, long now) {
+        long since = s.blockedSince;
+        if (!s.closed && since != 0 && now - since > writeTimeoutNanos) {
+            log.debug("[SSE] Subscriber {} not reading for {} ms, disconnecting", s.id,
+                    TimeUnit.NANOSECONDS.toMillis(now - since));
+            stalled.increment();
+            disconnect(s);
+        }
+    }
+
+    // The drain task completes the stream, so only one thread ever touches its output
+    private void disconnect(StatusSubscriber s) {
+        s.closed = true;
+        s.queue.clear();
+        schedule(s);
+    }
+
+    private void schedule(StatusSubscriber s) {
+        if (s.scheduled.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> drain(s));
+            } catch (RuntimeException e) {
+                // Shutting down
+                s.scheduled.set(false);
+            }
+        }
+    }
+
+    private void drain(StatusSubscriber s) {
+        try {
+            if (!s.closed) {
+                write(s);
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client went away
+            s.closed = true;
+            s.queue.clear();
+        } finally {
+            if (s.closed) {
+                complete(s);
+            }
+            s.scheduled.set(false);
+        }
+        if (s.closed ? !s.completed : !s.awaitingWrite && !s.queue.isEmpty()) {
+            schedule(s);
+        }
+    }
+
+    // Writes while the output is ready; otherwise the container calls onWritePossible later
+    private static void write(StatusSubscriber s) throws IOException {
+        boolean wrote = false;
+        for (int i = 0; i < DRAIN_BATCH && !s.closed; i++) {
+            if (!ready(s)) {
+                return;
+            }
+            byte[] frame = (byte[]) s.queue.poll();
+            if (frame == null) {
+                break;
+            }
+            s.out.write(frame);
+            wrote = true;
+        }
+        if ((wrote || !s.context.getResponse().isCommitted()) && ready(s)) {
+            s.out.flush();
+        }
+    }
+
+    private static boolean ready(StatusSubscriber s) {
+        s.awaitingWrite = true;
+        if (!s.out.isReady()) {
+            if (s.blockedSince == 0) {
+                s.blockedSince = System.nanoTime();
+            }
+            return false;
+        }
+        s.awaitingWrite = false;
+        return true;
+    }
+
+    private static void complete(StatusSubscriber s) {
+        s.completed = true;
+        try {
+            s.context.complete();
+        } catch (IllegalStateException e) {
+            // Already completed by the container
+        }
+    }
+
+    private void remove(StatusSubscriber s) {
+        s.closed = true;
+        boolean[] removed = {false};
+        if (s.filter.getReference() != null) {
+            byReference.computeIfPresent(s.filter.getReference(), (r, subs) -> {
+                removed[0] = subs.remove(s);
+                return subs.isEmpty() ? null : subs;
+            });
+        } else {
+            removed[0] = unkeyed.remove(s);
+        }
+        if (removed[0]) {
+            subscriberCount.decrementAndGet();
+            log.debug("[SSE] Subscriber {} closed", s.id);
+        }
+    }
+
+    private static Thread daemon(Runnable r, String name) {
+        Thread t = new Thread(r, name);
+        t.setDaemon(true);
+        return t;
+    }
+
+    private final class Writable implements WriteListener {
+        private final StatusSubscriber s;
+
+        Writable(StatusSubscriber s) {
+            this.s = s;
+        }
+
+        @Override
+        public void onWritePossible() {
+            s.blockedSince = 0;
+            s.awaitingWrite = false;
+            schedule(s);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            disconnect(s);
+        }
+    }
+
+    private final class Lifecycle implements AsyncListener {
+        private final StatusSubscriber s;
+
+        Lifecycle(StatusSubscriber s) {
+            this.s = s;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            remove(s);
+        }
+
+        // Must be completed before returning, or the container dispatches an error
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            s.closed = true;
+            s.queue.clear();
+            complete(s);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            disconnect(s);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.ips.mock.sse;
+
+import java.util.Locale;
+
+/**
+ * What to do when a subscriber's queue is full because it reads slower than
+ * statuses change.
+ */
+public enum SseDropPolicy {
+    /**
+     * Discard the oldest queued event to make room: the client sees the latest state.
+     */
+    DROP_OLDEST,
+    /**
+     * Discard the new event: the client sees a prefix of the changes.
+     */
+    DROP_NEWEST,
+    /**
+     * Close the stream; the client reconnects and starts over.
+     */
+    DISCONNECT;
+
+    /**
+     * Parse "drop-oldest", "DROP_OLDEST" etc.; null stays null.
+     *
+     * @throws IllegalArgumentException for an unknown policy
+     */
+    public static SseDropPolicy parse(String value) {
+        return value == null ? null : valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+}
@@ -0,0 +1,78 @@
+package com.ips.mock.sse;
+
+import com.ips.mock.PaymentStatus;
+import com.ips.mock.participant.Bic;
+import com.ips.mock.service.payment.PaymentStatusEvent;
+import lombok.Getter;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Which status events a stream subscriber wants, from the request parameters of the
+ * events endpoint. Unset parts match everything.
+ */
+@Getter
+public final class StatusFilter {
+
+    private final String reference;
+    private final String bic;
+    private final Set<PaymentStatus> statuses;
+
+    private StatusFilter(String reference, String bic, Set<PaymentStatus> statuses) {
+        this.reference = reference;
+        this.bic = bic;
+        this.statuses = statuses;
+    }
+
+    /**
+     * @throws IllegalArgumentException for an unknown status name or a BIC that is
+     *                                  not 8 or 11 letters and digits
+     */
+    public static StatusFilter of(String reference, String bic, List<String> status) {
+        Set<PaymentStatus> statuses = null;
+        if (status != null && !status.isEmpty()) {
+            statuses = EnumSet.noneOf(PaymentStatus.class);
+            for (String s : status) {
+                statuses.add(PaymentStatus.valueOf(s.trim().toUpperCase(Locale.ROOT)));
+            }
+        }
+        return new StatusFilter(blankToNull(reference), participant(blankToNull(bic)), statuses);
+    }
+
+    /**
+     * Reference is matched exactly; the BIC against the participant of either agent,
+     * so a BIC8 or BIC11 in any case matches all of that participant's branches.
+     */
+    public boolean matches(PaymentStatusEvent e) {
+        if (reference != null && !reference.equals(e.getReference())) {
+            return false;
+        }
+        if (statuses != null && !statuses.contains(e.getStatus())) {
+            return false;
+        }
+        return bic == null || Bic.sameParticipant(bic, e.getDebtorAgentBic())
+                || Bic.sameParticipant(bic, e.getCreditorAgentBic());
+    }
+
+    @Override
+    public String toString() {
+        return "reference=" + reference + ", bic=" + bic + ", statuses=" + statuses;
+    }
+
+    private static String participant(String bic) {
+        if (bic == null) {
+            return null;
+        }
+        if ((bic.length() != 8 && bic.length() != 11) || !bic.chars().allMatch(Character::isLetterOrDigit)) {
+            throw new IllegalArgumentException("Not a BIC: " + bic);
+        }
+        return Bic.canonical(bic);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
@@ -0,0 +1,40 @@
+package com.ips.mock.sse;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ServletOutputStream;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One open status stream: its filter, its bounded queue of pending events, whether a
+ * sender is currently draining it and, while the client is not taking data, since
+ * when its output has been blocked.
+ */
+final class StatusSubscriber {
+
+    final long id;
+    final StatusFilter filter;
+    final SseDropPolicy dropPolicy;
+    final AsyncContext context;
+    final ServletOutputStream out;
+    final BlockingQueue<Object> queue;
+    final AtomicBoolean scheduled = new AtomicBoolean();
+    volatile boolean closed;
+    volatile boolean completed;
+    // Set before asking the output whether it is ready; cleared by onWritePossible
+    volatile boolean awaitingWrite;
+    // System.nanoTime() when the output was last found not ready, 0 while it is writable
+    volatile long blockedSince;
+
+    StatusSubscriber(long id, StatusFilter filter, SseDropPolicy dropPolicy,
+                     AsyncContext context, ServletOutputStream out, int queueSize) {
+        this.id = id;
+        this.filter = filter;
+        this.dropPolicy = dropPolicy;
+        this.context = context;
+        this.out = out;
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+    }
+}
@@ -0,0 +1,157 @@
+package com.ips.mock;
+
+import com.ips.mock.controller.SwiftIsoSimulationController;
+import com.ips.mock.controller.SwiftSimulationController;
+import com.ips.mock.controller.TransactionController;
+import com.ips.mock.request.AccountVerificationRequest;
+import com.ips.mock.request.CreditTransferRequest;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Bytes allocated per request on the hot endpoints, measured with the thread
+ * allocation counter while calling the controllers in-process.
+ * <p>
+ * Budgets can be overridden per endpoint with {@code -Dips.alloc.budget.<name>=<bytes>},
+ * and the run length with {@code -Dips.alloc.warmup} / {@code -Dips.alloc.iterations}.
+ */
+@SpringBootTest(properties = "ips.logging.sample.ct-success=1000")
+class AllocationBudgetTests {
+
+	private static final int WARMUP = Integer.getInteger("ips.alloc.warmup", 300);
+	private static final int ITERATIONS = Integer.getInteger("ips.alloc.iterations", 300);
+
+	private static final com.sun.management.ThreadMXBean THREADS =
+			(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	@Autowired
+	private TransactionController transactionController;
+
+	@Autowired
+	private SwiftSimulationController swiftController;
+
+	@Autowired
+	private SwiftIsoSimulationController isoController;
+
+	@DynamicPropertySource
+	static void storage(DynamicPropertyRegistry registry) throws IOException {
+		TestStorage.copyDataFiles(registry, "ips-alloc");
+	}
+
+	@BeforeAll
+	static void checkSupported() {
+		assertTrue(THREADS.isThreadAllocatedMemorySupported(), "JVM does not support thread allocation counters");
+		THREADS.setThreadAllocatedMemoryEnabled(true);
+	}
+
+	@Test
+	void accountVerification() {
+		AccountVerificationRequest request = verification("PMF1001201");
+		assertWithinBudget("verify", 10_000, () -> transactionController.verifyAccountTrusted(request));
+	}
+
+	@Test
+	void balanceInquiry() {
+		AccountVerificationRequest request = verification("PMF1001201");
+		assertWithinBudget("balance", 6_000, () -> transactionController.balanceInquiryTrusted(request));
+	}
+
+	@Test
+	void creditTransfer() {
+		// Back and forth between two accounts so balances stay put
+		CreditTransferRequest there = transfer("PMF1001201", "PMF2003456");
+		CreditTransferRequest back = transfer("PMF2003456", "PMF1001201");
+		boolean[] forward = {false};
+		assertWithinBudget("transfer", 32_000, () -> {
+			forward[0] = !forward[0];
+			transactionController.creditTransferTrusted(forward[0] ? there : back);
+		});
+	}
+
+	@Test
+	void mt103CreateAndReceive() {
+		SwiftSimulationController.CreatePaymentRequest request = new SwiftSimulationController.CreatePaymentRequest();
+		fill(request);
+		String mt103 = swiftController.createPaymentAtBankA(request).getBody().mt103Message;
+
+		assertWithinBudget("mt103-create", 4_000, () -> swiftController.createPaymentAtBankA(request));
+		assertWithinBudget("mt103-receive", 10_000, () -> swiftController.receiveMt103AtBankB(mt103));
+	}
+
+	@Test
+	void pacs008CreateAndReceive() {
+		SwiftIsoSimulationController.CreatePaymentRequest request = new SwiftIsoSimulationController.CreatePaymentRequest();
+		request.amount = new BigDecimal("1250.50");
+		request.currency = "EUR";
+		request.debtorName = "John Doe";
+		request.debtorAccount = "LK12345678901234";
+		request.debtorAddress = "1 Galle Road, Colombo";
+		request.creditorName = "Max Mustermann";
+		request.creditorAccount = "DE89370400440532013000";
+		request.creditorAddress = "Hauptstrasse 5, Frankfurt";
+		request.remittanceInfo = "Invoice 2026-001";
+		String pacs008 = isoController.createPaymentAtBankA(request).getBody().pacs008Message;
+
+		assertWithinBudget("pacs008-create", 6_000, () -> isoController.createPaymentAtBankA(request));
+		assertWithinBudget("pacs008-receive", 12_000, () -> isoController.receivePacs008AtBankB(pacs008));
+	}
+
+	// ------- Helpers -------
+
+	private static void assertWithinBudget(String name, long defaultBudget, Runnable request) {
+		long budget = Long.getLong("ips.alloc.budget." + name, defaultBudget);
+		for (int i = 0; i < WARMUP; i++) {
+			request.run();
+		}
+		long threadId = Thread.currentThread().getId();
+		long before = THREADS.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < ITERATIONS; i++) {
+			request.run();
+		}
+		long perRequest = (THREADS.getThreadAllocatedBytes(threadId) - before) / ITERATIONS;
+		assertTrue(perRequest <= budget,
+				name + " allocated " + perRequest + " B/request, budget is " + budget
+						+ " (override with -Dips.alloc.budget." + name + ")");
+	}
+
+	private static AccountVerificationRequest verification(String accountNumber) {
+		AccountVerificationRequest request = new AccountVerificationRequest();
+		request.setRequestingBankBic("CHBKSL3J");
+		request.setTargetBankBic("PMFTSL1K");
+		request.setAccountNumber(accountNumber);
+		return request;
+	}
+
+	private static CreditTransferRequest transfer(String from, String to) {
+		CreditTransferRequest request = new CreditTransferRequest();
+		request.setInitiatorBic("PMFTSL1K");
+		request.setInitiatorAccountNumber(from);
+		request.setRecipientBic("PMFTSL1K");
+		request.setRecipientAccountNumber(to);
+		request.setAmount(new BigDecimal("1.00"));
+		request.setCurrency("MVR");
+		return request;
+	}
+
+	private static void fill(SwiftSimulationController.CreatePaymentRequest request) {
+		request.amount = new BigDecimal("1250.50");
+		request.currency = "EUR";
+		request.debtorName = "John Doe";
+		request.debtorAccount = "LK12345678901234";
+		request.debtorAddress = "1 Galle Road, Colombo";
+		request.creditorName = "Max Mustermann";
+		request.creditorAccount = "DE89370400440532013000";
+		request.creditorAddress = "Hauptstrasse 5, Frankfurt";
+		request.remittanceInfo = "Invoice 2026-001";
+	}
+}
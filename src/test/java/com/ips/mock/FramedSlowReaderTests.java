@@ -0,0 +1,100 @@
+package com.ips.mock;
+
+import com.ips.mock.frame.FrameType;
+import com.ips.mock.frame.FramedMessageServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A framed client that pipelines requests without reading its replies must not make
+ * the server queue replies without limit: reading stops at ips.frames.max-in-flight
+ * unwritten replies and resumes once the client takes some.
+ */
+@SpringBootTest(properties = {
+		"ips.frames.enabled=true",
+		"ips.frames.port=0",
+		"ips.frames.max-in-flight=16",
+})
+class FramedSlowReaderTests {
+
+	private static final int REQUESTS = 20_000;
+	private static final String BALANCE_INQUIRY = "<Document><GetAcct><MsgHdr><MsgId>BI-%d</MsgId><ReqngPty><Pty><Id><OrgId>"
+			+ "<AnyBIC>CHBKSL3J</AnyBIC></OrgId></Id></Pty></ReqngPty></MsgHdr><AcctQryDef><AcctCrit><NewCrit><SchCrit>"
+			+ "<AcctId><EQ><Othr><Id>PMF1001201</Id></Othr></EQ></AcctId></SchCrit></NewCrit></AcctCrit></AcctQryDef>"
+			+ "<Acct><Id><Othr><Id>PMF1001201</Id></Othr></Id><Svcr><FinInstnId><BICFI>PMFTSL1K</BICFI></FinInstnId>"
+			+ "</Svcr></Acct></GetAcct></Document>";
+
+	@Autowired
+	private FramedMessageServer server;
+
+	@Autowired
+	private MeterRegistry registry;
+
+	@DynamicPropertySource
+	static void storage(DynamicPropertyRegistry registry) throws IOException {
+		TestStorage.copyDataFiles(registry, "ips-frames");
+	}
+
+	@Test
+	void clientThatDoesNotReadIsNotReadFromEither() throws Exception {
+		try (Socket socket = new Socket()) {
+			socket.setSoTimeout(10_000);
+			socket.connect(new InetSocketAddress("localhost", server.getPort()));
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 64 * 1024));
+
+			// Blocks once the server stops reading, so write from another thread
+			CompletableFuture.runAsync(() -> {
+				try {
+					for (int i = 0; i < REQUESTS; i++) {
+						byte[] body = String.format(BALANCE_INQUIRY, i).getBytes(StandardCharsets.UTF_8);
+						out.writeInt(9 + body.length);
+						out.writeByte(FrameType.CAMT_003.getCode());
+						out.writeLong(i);
+						out.write(body);
+					}
+					out.flush();
+				} catch (IOException e) {
+					throw new RuntimeException(e);
+				}
+			});
+
+			Thread.sleep(2_000);
+			double stalled = received();
+			Thread.sleep(1_000);
+			assertEquals(stalled, received(), "server kept reading from a client that does not read");
+			assertTrue(stalled < REQUESTS / 2.0, "server read " + stalled + " of " + REQUESTS + " requests");
+
+			// Once the client takes its replies, the server reads again
+			DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 64 * 1024));
+			while (received() <= stalled) {
+				int length = in.readInt();
+				assertEquals(FrameType.CAMT_004.getCode(), in.readByte());
+				in.readLong();
+				in.skipNBytes(length - 9);
+			}
+		}
+	}
+
+	// ------- Helpers -------
+
+	private double received() {
+		return registry.get("ips.frames.received").tag("type", "camt.003").counter().count();
+	}
+}
@@ -2,10 +2,19 @@ package com.ips.mock;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
 
 @SpringBootTest
 class MockApplicationTests {
 
+	@DynamicPropertySource
+	static void storage(DynamicPropertyRegistry registry) throws IOException {
+		TestStorage.copyDataFiles(registry, "ips-context");
+	}
+
 	@Test
 	void contextLoads() {
 	}
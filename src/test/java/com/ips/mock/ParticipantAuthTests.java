@@ -0,0 +1,146 @@
+package com.ips.mock;
+
+import com.ips.mock.request.Payment;
+import com.ips.mock.service.payment.PaymentStateMachine;
+import com.ips.mock.sse.PaymentStatusBroadcaster;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * With ips.auth.enabled a participant can only act and watch for itself: requests
+ * naming another participant are 403, and its status stream carries only its own
+ * payments.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "ips.auth.enabled=true")
+class ParticipantAuthTests {
+
+	private static final byte[] SECRET = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+	private static final String BALANCE_INQUIRY = "{\"requestingBankBic\":\"%s\",\"targetBankBic\":\"PMFTSL1K\","
+			+ "\"accountNumber\":\"PMF1001201\",\"reference\":\"AUTH-1\"}";
+
+	private final HttpClient client = HttpClient.newHttpClient();
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private PaymentStateMachine stateMachine;
+
+	@Autowired
+	private PaymentStatusBroadcaster broadcaster;
+
+	@DynamicPropertySource
+	static void storage(DynamicPropertyRegistry registry) throws IOException {
+		TestStorage.copyDataFiles(registry, "ips-auth");
+		registry.add("ips.auth.keys.CHBKSL3J", () -> Base64.getEncoder().encodeToString(SECRET));
+	}
+
+	@Test
+	void requestWithoutTokenIsUnauthorized() throws Exception {
+		assertEquals(401, post("/api/iso/balance-inquiry", String.format(BALANCE_INQUIRY, "CHBKSL3J"), null).statusCode());
+		assertEquals(401, get("/api/payments/events", null).statusCode());
+		assertEquals(401, post("/api/account-verification/verify", verify("CHBKSL3J"), null).statusCode());
+	}
+
+	@Test
+	void requestForAnotherParticipantIsForbidden() throws Exception {
+		String token = token("CHBKSL3J");
+
+		assertEquals(403, post("/api/iso/balance-inquiry", String.format(BALANCE_INQUIRY, "PMFTSL1K"), token).statusCode());
+		assertEquals(200, post("/api/iso/balance-inquiry", String.format(BALANCE_INQUIRY, "CHBKSL3JXXX"), token).statusCode());
+		assertEquals(403, post("/api/account-verification/verify", verify("PMFTSL1K"), token).statusCode());
+		assertEquals(200, post("/api/account-verification/verify", verify("CHBKSL3J"), token).statusCode());
+		assertEquals(403, get("/api/payments/events?bic=PMFTSL1K", token).statusCode());
+	}
+
+	@Test
+	void streamCarriesOnlyOwnPayments() throws Exception {
+		int before = broadcaster.getSubscriberCount();
+		CompletableFuture<HttpResponse<Stream<String>>> stream = client.sendAsync(
+				request("/api/payments/events").header("Authorization", "Bearer " + token("CHBKSL3J")).build(),
+				HttpResponse.BodyHandlers.ofLines());
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (broadcaster.getSubscriberCount() == before) {
+			assertTrue(System.currentTimeMillis() < deadline, "stream did not open");
+			Thread.sleep(20);
+		}
+
+		CompletableFuture<Optional<String>> first = stream.thenApplyAsync(
+				r -> r.body().filter(line -> line.startsWith("data:")).findFirst());
+		// The stream counts as open a moment before it receives events, so keep publishing
+		for (int i = 0; !first.isDone(); i++) {
+			assertTrue(System.currentTimeMillis() < deadline + 10_000, "stream got no events");
+			stateMachine.moveTo(payment("OTHERS-" + i, "PMFTSL1K", "WLFGSL6S"), PaymentStatus.SENT_MT103);
+			stateMachine.moveTo(payment("OWN-" + i, "PMFTSL1K", "CHBKSL3JXXX"), PaymentStatus.SENT_MT103);
+			Thread.sleep(50);
+		}
+		String data = first.get(1, TimeUnit.SECONDS).orElseThrow();
+		assertTrue(data.contains("\"OWN-"), data);
+	}
+
+	// ------- Helpers -------
+
+	private HttpResponse<String> post(String path, String json, String token) throws Exception {
+		HttpRequest.Builder request = request(path)
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(json));
+		if (token != null) {
+			request.header("Authorization", "Bearer " + token);
+		}
+		return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+	}
+
+	// Headers only: a stream that is let through would not end
+	private HttpResponse<Void> get(String path, String token) throws Exception {
+		HttpRequest.Builder request = request(path);
+		if (token != null) {
+			request.header("Authorization", "Bearer " + token);
+		}
+		return client.send(request.build(), HttpResponse.BodyHandlers.discarding());
+	}
+
+	private HttpRequest.Builder request(String path) {
+		return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path));
+	}
+
+	private static String verify(String initiator) {
+		return "{\"messageId\":\"AV-1\",\"initiator\":\"" + initiator + "\",\"sender\":\"" + initiator
+				+ "\",\"receiver\":\"PMFTSL1K\",\"accountNumber\":\"PMF1001201\"}";
+	}
+
+	private static String token(String bic) {
+		return Jwts.builder().setSubject(bic).setExpiration(new Date(System.currentTimeMillis() + 60_000))
+				.signWith(Keys.hmacShaKeyFor(SECRET)).compact();
+	}
+
+	private static Payment payment(String reference, String debtorAgent, String creditorAgent) {
+		Payment p = new Payment();
+		p.setId("AUTH-" + reference);
+		p.setReference(reference);
+		p.setDebtorAgentBic(debtorAgent);
+		p.setCreditorAgentBic(creditorAgent);
+		return p;
+	}
+}
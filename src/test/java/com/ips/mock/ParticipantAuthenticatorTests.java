@@ -0,0 +1,156 @@
+package com.ips.mock;
+
+import com.ips.mock.auth.ParticipantAuthProperties;
+import com.ips.mock.auth.ParticipantAuthenticator;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.server.PathContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Which paths need a token, and which tokens are accepted, including ones the
+ * cache has already seen.
+ */
+class ParticipantAuthenticatorTests {
+
+	private static final byte[] SECRET = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+	private static final Key KEY = Keys.hmacShaKeyFor(SECRET);
+
+	private final MeterRegistry registry = new SimpleMeterRegistry();
+
+	@Test
+	void pathsAreComparedDecodedWithoutParametersAndDotSegments() {
+		ParticipantAuthenticator auth = authenticator(Duration.ofMinutes(5));
+
+		assertTrue(auth.requiresToken(path("/api/iso/credit-transfer")));
+		assertTrue(auth.requiresToken(path("/api;x=1/iso;y=2/credit-transfer")));
+		assertTrue(auth.requiresToken(path("/api/%69so/credit-transfer")));
+		assertTrue(auth.requiresToken(path("/api/other/../iso/credit-transfer")));
+		assertTrue(auth.requiresToken(path("//api/./iso//balance-inquiry")));
+		assertTrue(auth.requiresToken(path("/api/payments/events")));
+		assertTrue(auth.requiresToken(path("/api/account-verification/verify")));
+
+		assertFalse(auth.requiresToken(path("/api/iso/../swift/bankB/swift/mt103")));
+		assertFalse(auth.requiresToken(path("/api/isolated")));
+		assertFalse(auth.requiresToken(path("/api/payments")));
+	}
+
+	@Test
+	void nothingNeedsATokenWhenDisabled() {
+		ParticipantAuthProperties properties = properties(Duration.ofMinutes(5));
+		properties.setEnabled(false);
+
+		assertFalse(new ParticipantAuthenticator(properties, registry).requiresToken(path("/api/iso/credit-transfer")));
+	}
+
+	@Test
+	void acceptsSignedTokenWithExp() {
+		ParticipantAuthenticator auth = authenticator(Duration.ofMinutes(5));
+		String token = token("chbksl3jxxx", new Date(System.currentTimeMillis() + 60_000));
+
+		assertEquals("CHBKSL3J", auth.authenticate("Bearer " + token));
+		assertEquals("CHBKSL3J", auth.authenticate("bearer " + token));
+		assertEquals(1, outcome("verified"));
+		assertEquals(1, outcome("cached"));
+	}
+
+	@Test
+	void rejectsTokenWithoutExp() {
+		ParticipantAuthenticator auth = authenticator(Duration.ofMinutes(5));
+		String token = Jwts.builder().setSubject("CHBKSL3J").signWith(KEY).compact();
+
+		assertNull(auth.authenticate("Bearer " + token));
+		assertNull(auth.authenticate("Bearer " + token), "a rejected token must not be cached");
+		assertEquals(2, outcome("rejected"));
+	}
+
+	@Test
+	void rejectsExpiredToken() {
+		ParticipantAuthenticator auth = authenticator(Duration.ofMinutes(5));
+
+		assertNull(auth.authenticate("Bearer " + token("CHBKSL3J", new Date(System.currentTimeMillis() - 1_000))));
+	}
+
+	@Test
+	void rejectsUnknownParticipantAndBadSignature() {
+		ParticipantAuthenticator auth = authenticator(Duration.ofMinutes(5));
+		Date exp = new Date(System.currentTimeMillis() + 60_000);
+		String forged = Jwts.builder().setSubject("CHBKSL3J").setExpiration(exp)
+				.signWith(Keys.hmacShaKeyFor("fedcba9876543210fedcba9876543210".getBytes(StandardCharsets.US_ASCII)))
+				.compact();
+
+		assertNull(auth.authenticate("Bearer " + token("PMFTSL1K", exp)));
+		assertNull(auth.authenticate("Bearer " + forged));
+		assertNull(auth.authenticate(null));
+		assertNull(auth.authenticate("Basic Q0hCS1NMM0o6eA=="));
+	}
+
+	@Test
+	void cachedTokenIsRejectedOnceExpired() throws InterruptedException {
+		ParticipantAuthenticator auth = authenticator(Duration.ofMinutes(5));
+		// JWT exp has second precision
+		long exp = (System.currentTimeMillis() / 1_000 + 2) * 1_000;
+		String token = token("CHBKSL3J", new Date(exp));
+
+		assertEquals("CHBKSL3J", auth.authenticate("Bearer " + token));
+		assertEquals("CHBKSL3J", auth.authenticate("Bearer " + token));
+		assertEquals(1, outcome("cached"));
+
+		Thread.sleep(exp - System.currentTimeMillis() + 100);
+		assertNull(auth.authenticate("Bearer " + token));
+		assertEquals(1, outcome("cached"));
+	}
+
+	@Test
+	void cachedTokenIsVerifiedAgainAfterCacheTtl() throws InterruptedException {
+		ParticipantAuthenticator auth = authenticator(Duration.ofMillis(100));
+		String token = token("CHBKSL3J", new Date(System.currentTimeMillis() + 60_000));
+
+		assertEquals("CHBKSL3J", auth.authenticate("Bearer " + token));
+		Thread.sleep(200);
+		assertEquals("CHBKSL3J", auth.authenticate("Bearer " + token));
+		assertEquals(2, outcome("verified"));
+		assertEquals(0, outcome("cached"));
+	}
+
+	// ------- Helpers -------
+
+	private ParticipantAuthenticator authenticator(Duration cacheTtl) {
+		return new ParticipantAuthenticator(properties(cacheTtl), registry);
+	}
+
+	private static ParticipantAuthProperties properties(Duration cacheTtl) {
+		ParticipantAuthProperties properties = new ParticipantAuthProperties();
+		properties.setEnabled(true);
+		properties.setKeys(Map.of("CHBKSL3J", Base64.getEncoder().encodeToString(SECRET)));
+		properties.setCacheTtl(cacheTtl);
+		properties.setClockSkew(Duration.ZERO);
+		return properties;
+	}
+
+	private static String token(String subject, Date exp) {
+		return Jwts.builder().setSubject(subject).setExpiration(exp).signWith(KEY).compact();
+	}
+
+	private static PathContainer path(String path) {
+		return PathContainer.parsePath(path);
+	}
+
+	private double outcome(String outcome) {
+		return registry.get("ips.auth.requests").tag("outcome", outcome).counter().count();
+	}
+}
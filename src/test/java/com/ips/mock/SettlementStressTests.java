@@ -0,0 +1,201 @@
+package com.ips.mock;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ips.mock.dto.Account;
+import com.ips.mock.dto.Bank;
+import com.ips.mock.request.CreditTransferRequest;
+import com.ips.mock.service.TransactionService;
+import com.ips.mock.service.storage.AccountStorageService;
+import com.ips.mock.service.storage.BankStorageService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Fires concurrent credit transfers across a small hot set of accounts and checks
+ * the settlement invariants afterwards:
+ * <ul>
+ *   <li>total account balances and total bank liquidity are unchanged,</li>
+ *   <li>no bank liquidity went negative and rejects left no hold behind,</li>
+ *   <li>every ACSC moved its amount exactly once, in memory and in the storage files.</li>
+ * </ul>
+ * Size with {@code -Dips.stress.transfers} and {@code -Dips.stress.threads}.
+ */
+@SpringBootTest(properties = "ips.logging.sample.ct-success=100000")
+class SettlementStressTests {
+
+	private static final int TRANSFERS = Integer.getInteger("ips.stress.transfers", 2000);
+	private static final int THREADS = Integer.getInteger("ips.stress.threads", 16);
+
+	// Two accounts at each of two banks, so transfers hit both same-bank and cross-bank paths
+	private static final String[][] HOT_ACCOUNTS = {
+			{"PMFTSL1K", "PMF1001201"},
+			{"PMFTSL1K", "PMF2003456"},
+			{"CHBKSL3J", "4567812345"},
+			{"CHBKSL3J", "1290045783"},
+	};
+
+	private static Path dataDir;
+
+	@Autowired
+	private TransactionService transactionService;
+
+	@Autowired
+	private AccountStorageService accountStorageService;
+
+	@Autowired
+	private BankStorageService bankStorageService;
+
+	@DynamicPropertySource
+	static void storage(DynamicPropertyRegistry registry) throws IOException {
+		dataDir = TestStorage.copyDataFiles(registry, "ips-stress");
+	}
+
+	@Test
+	void concurrentTransfersConserveBalances() throws Exception {
+		Map<String, BigDecimal> accountsBefore = accountBalances(accountStorageService.getAccounts());
+		Map<String, BigDecimal> banksBefore = bankBalances(bankStorageService.getBanks());
+
+		Map<String, BigDecimal> expectedAccountDelta = new ConcurrentHashMap<>();
+		Map<String, BigDecimal> expectedBankDelta = new ConcurrentHashMap<>();
+		AtomicInteger settled = new AtomicInteger();
+		AtomicInteger rejected = new AtomicInteger();
+
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch go = new CountDownLatch(1);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			int share = TRANSFERS / THREADS + (t < TRANSFERS % THREADS ? 1 : 0);
+			futures.add(pool.submit(() -> {
+				go.await();
+				ThreadLocalRandom random = ThreadLocalRandom.current();
+				for (int i = 0; i < share; i++) {
+					String[] payer = HOT_ACCOUNTS[random.nextInt(HOT_ACCOUNTS.length)];
+					String[] payee;
+					do {
+						payee = HOT_ACCOUNTS[random.nextInt(HOT_ACCOUNTS.length)];
+					} while (payee == payer);
+					// One in ten goes to an unknown payee: rejected after the liquidity hold
+					String payeeAccount = random.nextInt(10) == 0 ? "UNKNOWN-" + i : payee[1];
+					BigDecimal amount = BigDecimal.valueOf(100 + random.nextInt(900), 2);
+
+					ResponseEntity<String> response = transactionService.processCreditTransfer(
+							transfer(payer[0], payer[1], payee[0], payeeAccount, amount));
+					String body = response.getBody();
+					if (body != null && body.contains("<TxSts>ACSC</TxSts>")) {
+						settled.incrementAndGet();
+						expectedAccountDelta.merge(payer[0] + "/" + payer[1], amount.negate(), BigDecimal::add);
+						expectedAccountDelta.merge(payee[0] + "/" + payee[1], amount, BigDecimal::add);
+						expectedBankDelta.merge(payer[0], amount.negate(), BigDecimal::add);
+						expectedBankDelta.merge(payee[0], amount, BigDecimal::add);
+					} else {
+						rejected.incrementAndGet();
+					}
+				}
+				return null;
+			}));
+		}
+		go.countDown();
+		for (Future<?> f : futures) {
+			f.get();
+		}
+		pool.shutdown();
+
+		String outcome = TRANSFERS + " transfers on " + THREADS + " threads: "
+				+ settled.get() + " ACSC, " + rejected.get() + " RJCT";
+		assertEquals(TRANSFERS, settled.get() + rejected.get(), outcome);
+		assertTrue(settled.get() > 0, "no transfer settled (" + outcome + ")");
+
+		Map<String, BigDecimal> accountsAfter = accountBalances(accountStorageService.getAccounts());
+		Map<String, BigDecimal> banksAfter = bankBalances(bankStorageService.getBanks());
+
+		// Conservation
+		assertEquals(0, sum(accountsBefore).compareTo(sum(accountsAfter)), "total account balances changed");
+		assertEquals(0, sum(banksBefore).compareTo(sum(banksAfter)), "total bank liquidity changed");
+
+		// No negative liquidity, and rejected transfers left no hold behind
+		banksAfter.forEach((bank, balance) ->
+				assertTrue(balance.signum() >= 0, "negative liquidity at " + bank + ": " + balance));
+		assertMatchesExpected("liquidity", banksBefore, expectedBankDelta, banksAfter);
+
+		// Every ACSC applied exactly once
+		assertMatchesExpected("balance", accountsBefore, expectedAccountDelta, accountsAfter);
+
+		// ... and the files hold the same state as memory
+		ObjectMapper mapper = new ObjectMapper();
+		List<Account> storedAccounts = mapper.readValue(dataDir.resolve("Accounts.json").toFile(),
+				new TypeReference<List<Account>>() {
+				});
+		List<Bank> storedBanks = mapper.readValue(dataDir.resolve("Banks.json").toFile(),
+				new TypeReference<List<Bank>>() {
+				});
+		assertMatchesExpected("stored balance", accountsBefore, expectedAccountDelta, accountBalances(storedAccounts));
+		assertMatchesExpected("stored liquidity", banksBefore, expectedBankDelta, bankBalances(storedBanks));
+	}
+
+	// ------- Helpers -------
+
+	private static void assertMatchesExpected(String what, Map<String, BigDecimal> before,
+											  Map<String, BigDecimal> delta, Map<String, BigDecimal> after) {
+		for (Map.Entry<String, BigDecimal> e : before.entrySet()) {
+			BigDecimal expected = e.getValue().add(delta.getOrDefault(e.getKey(), BigDecimal.ZERO));
+			BigDecimal actual = after.get(e.getKey());
+			assertEquals(0, expected.compareTo(actual),
+					what + " of " + e.getKey() + ": expected " + expected + " but was " + actual);
+		}
+	}
+
+	private static Map<String, BigDecimal> accountBalances(List<Account> accounts) {
+		Map<String, BigDecimal> balances = new HashMap<>();
+		for (Account a : accounts) {
+			balances.put(a.getBankCode() + "/" + a.getAccountNumber(), a.getBalance());
+		}
+		return balances;
+	}
+
+	private static Map<String, BigDecimal> bankBalances(List<Bank> banks) {
+		Map<String, BigDecimal> balances = new HashMap<>();
+		for (Bank b : banks) {
+			balances.put(b.getBankCode(), b.getLiquidityBalance());
+		}
+		return balances;
+	}
+
+	private static BigDecimal sum(Map<String, BigDecimal> balances) {
+		return balances.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+	}
+
+	private static CreditTransferRequest transfer(String payerBank, String payerAccount,
+												  String payeeBank, String payeeAccount, BigDecimal amount) {
+		CreditTransferRequest request = new CreditTransferRequest();
+		request.setInitiatorBic(payerBank);
+		request.setInitiatorAccountNumber(payerAccount);
+		request.setRecipientBic(payeeBank);
+		request.setRecipientAccountNumber(payeeAccount);
+		request.setAmount(amount);
+		request.setCurrency("USD");
+		return request;
+	}
+}
@@ -0,0 +1,124 @@
+package com.ips.mock;
+
+import com.ips.mock.request.Payment;
+import com.ips.mock.service.payment.PaymentStateMachine;
+import com.ips.mock.sse.PaymentStatusBroadcaster;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Clients that open a status stream and never read must not hold the sender threads:
+ * a well-behaved subscriber keeps getting its events, and the stalled streams are
+ * disconnected after ips.sse.write-timeout.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"ips.sse.sender-threads=2",
+		"ips.sse.queue-size=16",
+		"ips.sse.write-timeout=1s",
+})
+class SseStalledClientTests {
+
+	// More stalled clients than sender threads
+	private static final int STALLED = 3;
+	// Large events fill the stalled clients' socket buffers quickly
+	private static final String PADDING = "X".repeat(16 * 1024);
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private PaymentStateMachine stateMachine;
+
+	@Autowired
+	private PaymentStatusBroadcaster broadcaster;
+
+	@DynamicPropertySource
+	static void storage(DynamicPropertyRegistry registry) throws IOException {
+		TestStorage.copyDataFiles(registry, "ips-sse");
+	}
+
+	@Test
+	void clientThatNeverReadsDoesNotStallOtherStreams() throws Exception {
+		List<Socket> stalled = new ArrayList<>();
+		try {
+			for (int i = 0; i < STALLED; i++) {
+				stalled.add(openWithoutReading("/api/payments/events"));
+			}
+			CompletableFuture<HttpResponse<Stream<String>>> reader = HttpClient.newHttpClient().sendAsync(
+					HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/payments/events?reference=MARKER")).build(),
+					HttpResponse.BodyHandlers.ofLines());
+			assertTrue(await(() -> broadcaster.getSubscriberCount() == STALLED + 1, 5_000), "streams did not open");
+
+			// Keep publishing long enough for the stalled clients' buffers to fill up
+			long until = System.currentTimeMillis() + 2_000;
+			for (int i = 0; System.currentTimeMillis() < until; i++) {
+				Payment p = payment("BIG-" + i + "-" + PADDING);
+				stateMachine.moveTo(p, PaymentStatus.SENT_MT103);
+				stateMachine.moveTo(p, PaymentStatus.SETTLED);
+				Thread.sleep(1);
+			}
+			stateMachine.moveTo(payment("MARKER"), PaymentStatus.SENT_MT103);
+
+			CompletableFuture<Boolean> marker = reader.thenApplyAsync(r -> r.body().anyMatch(line -> line.contains("\"MARKER\"")));
+			assertTrue(marker.get(10, TimeUnit.SECONDS), "reader did not get its event");
+			assertTrue(await(() -> broadcaster.getSubscriberCount() == 1, 10_000), "stalled streams were not disconnected");
+		} finally {
+			for (Socket socket : stalled) {
+				socket.close();
+			}
+		}
+	}
+
+	// ------- Helpers -------
+
+	private Socket openWithoutReading(String path) throws IOException {
+		Socket socket = new Socket();
+		socket.setReceiveBufferSize(1024);
+		socket.connect(new InetSocketAddress("localhost", port));
+		OutputStream out = socket.getOutputStream();
+		out.write(("GET " + path + " HTTP/1.1\r\nHost: localhost\r\nAccept: text/event-stream\r\n\r\n")
+				.getBytes(StandardCharsets.US_ASCII));
+		out.flush();
+		return socket;
+	}
+
+	private static Payment payment(String reference) {
+		Payment p = new Payment();
+		p.setId("SSE-" + reference.hashCode());
+		p.setReference(reference);
+		return p;
+	}
+
+	private static boolean await(BooleanSupplier condition, long millis) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + millis;
+		while (!condition.getAsBoolean()) {
+			if (System.currentTimeMillis() > deadline) {
+				return false;
+			}
+			Thread.sleep(20);
+		}
+		return true;
+	}
+}
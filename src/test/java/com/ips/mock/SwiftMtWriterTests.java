@@ -0,0 +1,65 @@
+package com.ips.mock;
+
+import com.ips.mock.money.Money;
+import com.ips.mock.request.Payment;
+import com.ips.mock.service.SwiftMTService;
+import com.ips.mock.service.id.MessageIdService;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * The streaming MT writers must produce exactly the bytes of the String builders,
+ * so either can be used on the wire.
+ */
+class SwiftMtWriterTests {
+
+	private final SwiftMTService service = new SwiftMTService(new MessageIdService("TS"));
+
+	@Test
+	void streamedMt103MatchesBuiltMessage() throws IOException {
+		byte[] built = service.buildMt103(payment("1250.50", "EUR")).getBytes(StandardCharsets.US_ASCII);
+
+		Payment p = payment("1250.50", "EUR");
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		service.writeMt103(p, out);
+
+		assertArrayEquals(built, out.toByteArray());
+		assertNull(p.getMt103Raw(), "streaming must not keep the raw message");
+	}
+
+	@Test
+	void streamedMt910MatchesBuiltMessage() throws IOException {
+		byte[] built = service.buildMt910(payment("1000", "JPY")).getBytes(StandardCharsets.US_ASCII);
+
+		Payment p = payment("1000", "JPY");
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		service.writeMt910(p, out);
+
+		assertArrayEquals(built, out.toByteArray());
+		assertNull(p.getMt910Raw(), "streaming must not keep the raw message");
+	}
+
+	// ------- Helpers -------
+
+	private static Payment payment(String amount, String currency) {
+		Payment p = new Payment();
+		p.setId("PAY-1");
+		p.setReference("REF20260101-0001");
+		p.setAmount(Money.of(new BigDecimal(amount), currency));
+		p.setDebtorName("John Doe");
+		p.setDebtorAccount("LK12345678901234");
+		p.setDebtorAddress("1 Galle Road, Colombo");
+		p.setCreditorName("Max Mustermann");
+		p.setCreditorAccount("DE89370400440532013000");
+		p.setCreditorAddress("Hauptstrasse 5, Frankfurt");
+		p.setRemittanceInfo("Invoice 2026-001");
+		return p;
+	}
+}
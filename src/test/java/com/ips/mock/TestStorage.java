@@ -0,0 +1,30 @@
+package com.ips.mock;
+
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Points the storage services at temp copies of the data files, so tests never
+ * rewrite the checked-in JSON, and the raw message archive at the same temp dir.
+ */
+final class TestStorage {
+
+	private TestStorage() {
+	}
+
+	static Path copyDataFiles(DynamicPropertyRegistry registry, String prefix) throws IOException {
+		Path dir = Files.createTempDirectory(prefix);
+		Path source = Paths.get("src/main/java/com/ips/mock/data");
+		Files.copy(source.resolve("Accounts.json"), dir.resolve("Accounts.json"), StandardCopyOption.REPLACE_EXISTING);
+		Files.copy(source.resolve("Banks.json"), dir.resolve("Banks.json"), StandardCopyOption.REPLACE_EXISTING);
+		registry.add("ips.storage.accounts-file", () -> dir.resolve("Accounts.json").toString());
+		registry.add("ips.storage.banks-file", () -> dir.resolve("Banks.json").toString());
+		registry.add("ips.archive.dir", () -> dir.resolve("archive").toString());
+		return dir;
+	}
+}